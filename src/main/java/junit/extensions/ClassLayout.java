@@ -0,0 +1,192 @@
+/*
+ * Copyright 2004-2012 Sebastian Dietrich (Sebastian.Dietrich@e-movimento.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package junit.extensions;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The layout of the instances of a class as reported by {@link PA#layout(Class)}: the object header, all instance fields (including
+ * the fields of all super classes) ordered by their offset, the gaps between them and the instance size. This shows how much
+ * memory is wasted by padding and which fields share a cache line.
+ * <p/>
+ * Offsets are taken from the running JVM (via sun.misc.Unsafe). On JVMs that don't report them the fields are assumed to be laid
+ * out without gaps, starting with the fields of the topmost super class (see {@link #isEstimated()}).
+ * <p/>
+ * ClassLayouts are immutable.
+ *
+ * @author Sebastian Dietrich (sebastian.dietrich@e-movimento.com)
+ */
+public final class ClassLayout {
+    private final Class<?> type;
+    private final List<FieldLayout> fields;
+    private final long instanceSize;
+    private final boolean isEstimated;
+
+    /**
+     * Creates the layout of the given class.
+     *
+     * @param type        the class
+     * @param fields      the layouts of the fields ordered by their offset
+     * @param isEstimated true if the offsets are estimated
+     */
+    private ClassLayout(final Class<?> type, final List<FieldLayout> fields, final boolean isEstimated) {
+        this.type = type;
+        this.fields = Collections.unmodifiableList(fields);
+        this.instanceSize = MemoryLayout.instanceSizeOf(type);
+        this.isEstimated = isEstimated;
+    }
+
+    /**
+     * Determines the layout of the instances of the given class.
+     *
+     * @param type the class, must not be an array or primitive class
+     * @return the layout of the class
+     */
+    static ClassLayout of(final Class<?> type) {
+        List<Field> instanceFields = new ArrayList<Field>();
+        boolean isEstimated = false;
+        for (Field field : FieldIndex.copyOf(type)) {
+            if (Modifier.isStatic(field.getModifiers())) continue;
+            instanceFields.add(field);
+            isEstimated |= MemoryLayout.getFieldOffset(field) < 0;
+        }
+
+        List<FieldLayout> fieldLayouts = new ArrayList<FieldLayout>();
+        long end = MemoryLayout.OBJECT_HEADER_SIZE;
+        if (isEstimated) {
+            // the fields of the index start with the class itself, so the fields of the topmost super class come last
+            for (int i = instanceFields.size() - 1; i >= 0; i--) {
+                int size = MemoryLayout.getSize(instanceFields.get(i).getType());
+                fieldLayouts.add(new FieldLayout(instanceFields.get(i), end, size, 0));
+                end += size;
+            }
+            return new ClassLayout(type, fieldLayouts, true);
+        }
+
+        Collections.sort(instanceFields, new Comparator<Field>() {
+            public int compare(final Field field, final Field otherField) {
+                long difference = MemoryLayout.getFieldOffset(field) - MemoryLayout.getFieldOffset(otherField);
+                return (difference == 0) ? 0 : ((difference > 0) ? 1 : -1);
+            }
+        });
+        for (Field field : instanceFields) {
+            long offset = MemoryLayout.getFieldOffset(field);
+            int size = MemoryLayout.getSize(field.getType());
+            fieldLayouts.add(new FieldLayout(field, offset, size, Math.max(0, offset - end)));
+            end = Math.max(end, offset + size);
+        }
+        return new ClassLayout(type, fieldLayouts, false);
+    }
+
+    /**
+     * Gets the class whose layout this is.
+     *
+     * @return the class
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * Gets the size of the object header, i.e. the bytes each object occupies before its first field.
+     *
+     * @return the size of the header in bytes
+     */
+    public int getHeaderSize() {
+        return MemoryLayout.OBJECT_HEADER_SIZE;
+    }
+
+    /**
+     * Gets the layouts of all instance fields (including the fields of all super classes) ordered by their offset.
+     *
+     * @return the unmodifiable list of field layouts
+     */
+    public List<FieldLayout> getFields() {
+        return fields;
+    }
+
+    /**
+     * Gets the number of bytes each instance of the class occupies, including the header and the padding.
+     *
+     * @return the instance size in bytes
+     */
+    public long getInstanceSize() {
+        return instanceSize;
+    }
+
+    /**
+     * Gets the number of bytes each instance wastes for padding, i.e. the gaps between the fields plus the bytes after the last
+     * field needed to fill up the instance size to the object alignment.
+     *
+     * @return the padding in bytes
+     */
+    public long getPadding() {
+        long padding = instanceSize - getEndOfFields();
+        for (FieldLayout field : fields) {
+            padding += field.getGap();
+        }
+        return padding;
+    }
+
+    /**
+     * Checks if the offsets of the fields are estimated, since the JVM doesn't report them.
+     *
+     * @return true if the offsets are estimated, false if they are reported by the JVM
+     */
+    public boolean isEstimated() {
+        return isEstimated;
+    }
+
+    /**
+     * Returns a string representation of this layout: one line per header, field and gap with its offset, size and description.
+     *
+     * @return a string representation of this layout
+     */
+    public String toString() {
+        StringBuilder buf = new StringBuilder();
+        buf.append(type.getName()).append(" (").append(instanceSize).append(" bytes, ").append(getPadding()).append(" bytes padding")
+                .append(isEstimated ? ", estimated)" : ")");
+        buf.append(String.format("%n%6d %6d  %s", 0, getHeaderSize(), "(object header)"));
+        for (FieldLayout field : fields) {
+            if (field.getGap() > 0) buf.append(String.format("%n%6d %6d  %s", field.getOffset() - field.getGap(), field.getGap(), "(gap)"));
+            buf.append(String.format("%n%6d %6d  %s %s.%s", field.getOffset(), field.getSize(), field.getField().getType().getName(),
+                    field.getField().getDeclaringClass().getName(), field.getName()));
+        }
+        long endOfFields = getEndOfFields();
+        if (instanceSize > endOfFields) {
+            buf.append(String.format("%n%6d %6d  %s", endOfFields, instanceSize - endOfFields, "(alignment)"));
+        }
+        return buf.toString();
+    }
+
+    /**
+     * Gets the offset of the first byte after the last field.
+     *
+     * @return the offset in bytes, the header size if there are no fields
+     */
+    private long getEndOfFields() {
+        long end = MemoryLayout.OBJECT_HEADER_SIZE;
+        for (FieldLayout field : fields) {
+            end = Math.max(end, field.getOffset() + field.getSize());
+        }
+        return end;
+    }
+}
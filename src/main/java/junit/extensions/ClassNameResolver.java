@@ -0,0 +1,161 @@
+/*
+ * Copyright 2004-2012 Sebastian Dietrich (Sebastian.Dietrich@e-movimento.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package junit.extensions;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Resolves class names as used in method signatures to classes. Besides fully qualified names it resolves primitives (e.g. "int")
+ * and short names of classes in the default imports (e.g. "String" or "List").
+ * <p/>
+ * Resolved names are cached per class loader. Names that can't be resolved are cached as well, so asking for them again does not
+ * cost another series of failing class loads.
+ *
+ * @author Sebastian Dietrich (sebastian.dietrich@e-movimento.com)
+ */
+final class ClassNameResolver {
+    /**
+     * Maps string representation of primitives to their corresponding classes.
+     */
+    private static final Map<String, Class<?>> PRIMITIVE_MAPPER = new HashMap<String, Class<?>>(8);
+    /**
+     * Fills the map with all java primitives and their corresponding classes.
+     */
+    static {
+        PRIMITIVE_MAPPER.put("int", Integer.TYPE);
+        PRIMITIVE_MAPPER.put("float", Float.TYPE);
+        PRIMITIVE_MAPPER.put("double", Double.TYPE);
+        PRIMITIVE_MAPPER.put("short", Short.TYPE);
+        PRIMITIVE_MAPPER.put("long", Long.TYPE);
+        PRIMITIVE_MAPPER.put("byte", Byte.TYPE);
+        PRIMITIVE_MAPPER.put("char", Character.TYPE);
+        PRIMITIVE_MAPPER.put("boolean", Boolean.TYPE);
+    }
+
+    /**
+     * The packages searched for classes given by their short name.
+     */
+    private static final List<String> DEFAULT_IMPORTS = new CopyOnWriteArrayList<String>(Arrays.asList("java.lang", "java.util"));
+
+    /**
+     * Caches the classes already resolved per class loader. Names that could not be resolved are mapped to {@link NotFound}.
+     */
+    private static final WeakCache<ClassLoader, ConcurrentMap<String, Class<?>>> CLASSES =
+            new WeakCache<ClassLoader, ConcurrentMap<String, Class<?>>>() {
+        protected ConcurrentMap<String, Class<?>> computeValue(final ClassLoader classLoader) {
+            return new ConcurrentHashMap<String, Class<?>>();
+        }
+    };
+
+    /**
+     * Private constructor to make it impossible to instantiate this class.
+     */
+    private ClassNameResolver() {
+        assert false : "You mustn't instantiate ClassNameResolver, use its methods statically";
+    }
+
+    /**
+     * Adds the given package to the packages searched for classes given by their short name. java.lang and java.util are always
+     * searched (in this order) before any added package.
+     *
+     * @param packageName the name of the package (e.g. "java.io")
+     */
+    static void addDefaultImport(final String packageName) {
+        if (DEFAULT_IMPORTS.contains(packageName)) return;
+        DEFAULT_IMPORTS.add(packageName);
+        CLASSES.clear();
+    }
+
+    /**
+     * Gets the class with the given className. Can handle primitives and 'standard' java types (like String). Array types are
+     * handled by {@link MethodSignature}.
+     *
+     * @param className   the name of the class to get
+     * @param classLoader the class loader to load the class with
+     * @return the class for the given className
+     * @throws ClassNotFoundException if the class could not be found
+     */
+    static Class<?> getClassForName(final String className, final ClassLoader classLoader) throws ClassNotFoundException {
+        ConcurrentMap<String, Class<?>> classes = CLASSES.get(classLoader);
+        Class<?> clazz = classes.get(className);
+        if (clazz == null) {
+            clazz = loadClass(className, classLoader);
+            classes.putIfAbsent(className, clazz);
+        }
+
+        if (clazz == NotFound.class) throw new ClassNotFoundException(className);
+        return clazz;
+    }
+
+    /**
+     * Loads the class with the given className without using the cache.
+     *
+     * @param className   the name of the class to get
+     * @param classLoader the class loader to load the class with
+     * @return the class for the given className or {@link NotFound} if the class could not be found
+     */
+    private static Class<?> loadClass(final String className, final ClassLoader classLoader) {
+        if (PRIMITIVE_MAPPER.containsKey(className)) return PRIMITIVE_MAPPER.get(className);
+
+        try {
+            return Class.forName(className, false, classLoader);
+        } catch (ClassNotFoundException e) {
+            if (missesPackageName(className)) return getStandardClassForName(className, classLoader);
+            return NotFound.class;
+        }
+    }
+
+    /**
+     * Gets a 'standard' java class (i.e. a class of one of the default imports) for the given className.
+     *
+     * @param className   the className
+     * @param classLoader the class loader to load the class with
+     * @return the class for the given className or {@link NotFound} if no 'standard' java class was found for the given className
+     */
+    private static Class<?> getStandardClassForName(final String className, final ClassLoader classLoader) {
+        for (String packageName : DEFAULT_IMPORTS) {
+            try {
+                return Class.forName(packageName + "." + className, false, classLoader);
+            } catch (ClassNotFoundException e) {
+                // try next package
+            }
+        }
+        return NotFound.class;
+    }
+
+    /**
+     * Tests if the given className possibly misses its package name.
+     *
+     * @param className the className
+     * @return true if the className might miss its package name, otherwise false
+     */
+    private static boolean missesPackageName(final String className) {
+        if (className.contains(".")) return false;
+        return className.startsWith(className.substring(0, 1).toUpperCase());
+    }
+
+    /**
+     * Marks class names that could not be resolved.
+     */
+    private static final class NotFound {
+    }
+}
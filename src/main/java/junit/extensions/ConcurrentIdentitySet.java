@@ -0,0 +1,55 @@
+/*
+ * Copyright 2004-2012 Sebastian Dietrich (Sebastian.Dietrich@e-movimento.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package junit.extensions;
+
+/**
+ * A thread-safe {@link IdentitySet}. The objects are spread over several IdentitySets (stripes) by their identity hash code, each
+ * guarded by its own lock, so threads adding different objects rarely wait for each other.
+ *
+ * @author Sebastian Dietrich (sebastian.dietrich@e-movimento.com)
+ * @see ObjectWalker
+ */
+final class ConcurrentIdentitySet {
+    /**
+     * The number of stripes, a power of two.
+     */
+    private static final int STRIPES = 64;
+
+    private final IdentitySet[] stripes = new IdentitySet[STRIPES];
+
+    /**
+     * Creates an empty set.
+     */
+    ConcurrentIdentitySet() {
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new IdentitySet();
+        }
+    }
+
+    /**
+     * Adds the given object unless the set already contains it.
+     *
+     * @param object the object to add, must not be null
+     * @return true if the object has been added, false if the set already contained it
+     */
+    boolean add(final Object object) {
+        // the stripe is chosen by the upper bits of the hash, since the IdentitySets use the lower bits
+        IdentitySet stripe = stripes[(IdentitySet.hash(object) >>> 26) & (STRIPES - 1)];
+        synchronized (stripe) {
+            return stripe.add(object);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2004-2012 Sebastian Dietrich (Sebastian.Dietrich@e-movimento.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package junit.extensions;
+
+import java.lang.reflect.Constructor;
+import java.util.Arrays;
+
+/**
+ * A reference to a constructor (no matter what its access modifier is) that has been looked up once and can be used to instantiate
+ * objects as often as needed. ConstructorRefs are immutable and thread-safe, so you can keep them in static final fields:
+ * <p/>
+ * <pre>
+ * private static final ConstructorRef&lt;MyClass&gt; NEW_MY_CLASS = PA.constructor(MyClass.class, String.class);
+ * ...
+ * MyClass myObj = NEW_MY_CLASS.newInstance(&quot;myName&quot;);
+ * </pre>
+ * <p/>
+ * To instantiate a member class, pass the object it is a member of as first argument.
+ *
+ * @param <T> the type to instantiate
+ * @author Sebastian Dietrich (sebastian.dietrich@e-movimento.com)
+ * @see PA#constructor(Class, Class...)
+ */
+public final class ConstructorRef<T> {
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+
+    private final Class<T> type;
+    private final Constructor<?> constructor;
+
+    /**
+     * Creates a reference to the given constructor. Use {@link PA#constructor(Class, Class...)} to get ConstructorRefs.
+     *
+     * @param type        the type to instantiate
+     * @param constructor the (accessible) constructor
+     */
+    ConstructorRef(final Class<T> type, final Constructor<?> constructor) {
+        this.type = type;
+        this.constructor = constructor;
+    }
+
+    /**
+     * Gets the type instantiated by the referenced constructor.
+     *
+     * @return the type to instantiate
+     */
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * Gets the types of the parameters of the referenced constructor. For member classes the first parameter is the type of the
+     * object it is a member of.
+     *
+     * @return a copy of the parameter types
+     */
+    public Class<?>[] getParameterTypes() {
+        return constructor.getParameterTypes();
+    }
+
+    /**
+     * Instantiates an object via the referenced constructor without arguments.
+     *
+     * @return the new object
+     * @throws IllegalArgumentException if the object can't be instantiated
+     * @see PA#instantiate(Class, Object...)
+     */
+    public T newInstance() {
+        return newInstanceWith(NO_ARGUMENTS);
+    }
+
+    /**
+     * Instantiates an object via the referenced constructor with one argument.
+     *
+     * @param argument the argument to pass to the constructor
+     * @return the new object
+     * @throws IllegalArgumentException if the object can't be instantiated
+     * @see PA#instantiate(Class, Object...)
+     */
+    public T newInstance(final Object argument) {
+        return newInstanceWith(new Object[]{argument});
+    }
+
+    /**
+     * Instantiates an object via the referenced constructor with two arguments.
+     *
+     * @param firstArgument  the first argument to pass to the constructor
+     * @param secondArgument the second argument to pass to the constructor
+     * @return the new object
+     * @throws IllegalArgumentException if the object can't be instantiated
+     * @see PA#instantiate(Class, Object...)
+     */
+    public T newInstance(final Object firstArgument, final Object secondArgument) {
+        return newInstanceWith(new Object[]{firstArgument, secondArgument});
+    }
+
+    /**
+     * Instantiates an object via the referenced constructor with the given arguments. Like in
+     * {@link PA#instantiate(Class, Object...)} a single array argument can't be distinguished from varargs.
+     *
+     * @param arguments the arguments to pass to the constructor
+     * @return the new object
+     * @throws IllegalArgumentException if the object can't be instantiated
+     * @see PA#instantiate(Class, Object...)
+     */
+    public T newInstance(final Object... arguments) {
+        return newInstanceWith(PA.correctVarargs(arguments));
+    }
+
+    /**
+     * Returns a string representation of this reference, e.g. "ConstructorRef(mypackage.MyClass(java.lang.String))".
+     *
+     * @return a string representation of this reference
+     */
+    public String toString() {
+        StringBuilder buf = new StringBuilder("ConstructorRef(").append(type.getName()).append("(");
+        Class<?>[] parameterTypes = constructor.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) buf.append(", ");
+            buf.append(parameterTypes[i].getName());
+        }
+        return buf.append("))").toString();
+    }
+
+    /**
+     * Instantiates an object via the referenced constructor with the given arguments.
+     *
+     * @param arguments the arguments to pass to the constructor
+     * @return the new object
+     */
+    @SuppressWarnings("unchecked")
+    private T newInstanceWith(final Object[] arguments) {
+        try {
+            return (T) constructor.newInstance(arguments);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Can't instantiate class " + type + " with arguments " + Arrays.toString(arguments), e);
+        }
+    }
+}
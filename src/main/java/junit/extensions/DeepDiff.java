@@ -0,0 +1,445 @@
+/*
+ * Copyright 2004-2012 Sebastian Dietrich (Sebastian.Dietrich@e-movimento.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package junit.extensions;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compares two object graphs field by field (no matter what the access modifiers of the fields are, including the fields of all
+ * super classes) and collects the differences up to a maximum number of differences.
+ * <p/>
+ * Objects of the same class are compared by their instance fields, using the fields looked up once per class by the
+ * {@link ObjectWalker}. Arrays, collections and maps are compared element by element, collections and maps (including subclasses
+ * outside the JDK) via their public methods: lists and other collections in the order of their elements, sets and the keys of
+ * maps by matching equal elements first and deeply equal elements then. Subclasses outside the JDK are additionally compared by the
+ * fields declared outside the JDK. Strings, numbers, enums and all other types of the JDK are compared via equals() (char sequences
+ * via their string representation), classes by identity.
+ * <p/>
+ * The graphs are compared without recursion, so even long chains of objects don't cause a StackOverflowError. Pairs of objects
+ * that have been compared before (e.g. in cycles) are not compared again. Paths are only built for differences that are found.
+ *
+ * @author Sebastian Dietrich (sebastian.dietrich@e-movimento.com)
+ * @see PA#deepDiff(Object, Object, int)
+ */
+final class DeepDiff {
+    private final int maxDifferences;
+    private final List<Difference> differences = new ArrayList<Difference>();
+
+    /**
+     * The pairs of objects compared so far, the expected objects mapped to the actual objects they have been compared with.
+     */
+    private final Map<Object, Object> compared = new IdentityHashMap<Object, Object>();
+
+    /**
+     * The pairs of values still to compare, the next pair on top.
+     */
+    private final List<Comparison> stack = new ArrayList<Comparison>();
+
+    /**
+     * Creates a comparison of two object graphs.
+     *
+     * @param maxDifferences the number of differences after which to stop comparing
+     */
+    private DeepDiff(final int maxDifferences) {
+        this.maxDifferences = maxDifferences;
+    }
+
+    /**
+     * Compares the given object graphs.
+     *
+     * @param expected       the expected object graph
+     * @param actual         the actual object graph
+     * @param maxDifferences the number of differences after which to stop comparing
+     * @return the differences found, in the order of the fields, empty if the graphs are equal
+     */
+    static List<Difference> diff(final Object expected, final Object actual, final int maxDifferences) {
+        DeepDiff diff = new DeepDiff(maxDifferences);
+        diff.stack.add(new Comparison(null, "", false, expected, actual));
+        while (!diff.stack.isEmpty() && !diff.isFull()) {
+            diff.compare(diff.stack.remove(diff.stack.size() - 1));
+        }
+        return diff.differences;
+    }
+
+    /**
+     * Compares the values of the given comparison and pushes the pairs of values they reference onto the stack.
+     *
+     * @param comparison the values to compare
+     */
+    private void compare(final Comparison comparison) {
+        Object expected = comparison.expected;
+        Object actual = comparison.actual;
+        if (expected == actual) return;
+        if ((expected == null) || (actual == null) || (expected.getClass() != actual.getClass()) || (expected instanceof Class)) {
+            addDifference(comparison, expected, actual);
+            return;
+        }
+
+        Class<?> type = expected.getClass();
+        boolean isJdkType = isJdkType(type);
+        boolean isContainer = (expected instanceof Collection) || (expected instanceof Map);
+        if (isJdkType && !isContainer) {
+            if (!isEqual(expected, actual)) addDifference(comparison, expected, actual);
+            return;
+        }
+
+        if (compared.get(expected) == actual) return;
+        compared.put(expected, actual);
+
+        if (type.isArray()) {
+            compareArrays(comparison, expected, actual);
+            return;
+        }
+        if (!isContainer) {
+            compareFields(comparison, expected, actual, false);
+            return;
+        }
+
+        // the contents are pushed first, so the fields declared outside the JDK are compared first
+        if (expected instanceof Set) {
+            compareSets(comparison, (Set<?>) expected, (Set<?>) actual);
+        } else if (expected instanceof Collection) {
+            compareElements(comparison, (Collection<?>) expected, (Collection<?>) actual);
+        } else {
+            compareMaps(comparison, (Map<?, ?>) expected, (Map<?, ?>) actual);
+        }
+        if (!isJdkType) compareFields(comparison, expected, actual, true);
+    }
+
+    /**
+     * Compares the instance fields of the given objects of the same class. Primitive fields are compared at once, fields of
+     * reference types are pushed onto the stack.
+     *
+     * @param comparison    the comparison of the objects
+     * @param expected      the expected object
+     * @param actual        the actual object
+     * @param skipJdkFields true to compare only the fields declared outside the JDK (e.g. of a collection whose contents are compared
+     *                      via its public methods), false to compare all fields
+     */
+    private void compareFields(final Comparison comparison, final Object expected, final Object actual, final boolean skipJdkFields) {
+        Field[] fields = ObjectWalker.getInstanceFields(expected.getClass());
+        for (int i = 0; (i < fields.length) && !isFull(); i++) {
+            if (!fields[i].getType().isPrimitive() || (skipJdkFields && isJdkType(fields[i].getDeclaringClass()))) continue;
+            Object expectedValue = get(fields[i], expected);
+            Object actualValue = get(fields[i], actual);
+            if (!expectedValue.equals(actualValue)) {
+                addDifference(new Comparison(comparison, fields[i].getName(), false, expectedValue, actualValue), expectedValue, actualValue);
+            }
+        }
+
+        for (int i = fields.length - 1; i >= 0; i--) {
+            if (fields[i].getType().isPrimitive() || (skipJdkFields && isJdkType(fields[i].getDeclaringClass()))) continue;
+            stack.add(new Comparison(comparison, fields[i].getName(), false, get(fields[i], expected), get(fields[i], actual)));
+        }
+    }
+
+    /**
+     * Compares the given arrays of the same class, first their length, then their elements. Elements of primitive arrays are
+     * compared at once, elements of other arrays are pushed onto the stack.
+     *
+     * @param comparison the comparison of the arrays
+     * @param expected   the expected array
+     * @param actual     the actual array
+     */
+    private void compareArrays(final Comparison comparison, final Object expected, final Object actual) {
+        int expectedLength = Array.getLength(expected);
+        int actualLength = Array.getLength(actual);
+        if (expectedLength != actualLength) {
+            addDifference(new Comparison(comparison, "length", false, null, null), expectedLength, actualLength);
+        }
+
+        int length = Math.min(expectedLength, actualLength);
+        if (expected instanceof Object[]) {
+            for (int i = length - 1; i >= 0; i--) {
+                stack.add(new Comparison(comparison, i, true, ((Object[]) expected)[i], ((Object[]) actual)[i]));
+            }
+            return;
+        }
+
+        if ((expectedLength == actualLength) && arePrimitiveArraysEqual(expected, actual)) return;
+        for (int i = 0; (i < length) && !isFull(); i++) {
+            Object expectedElement = Array.get(expected, i);
+            Object actualElement = Array.get(actual, i);
+            if (!expectedElement.equals(actualElement)) {
+                addDifference(new Comparison(comparison, i, true, expectedElement, actualElement), expectedElement, actualElement);
+            }
+        }
+    }
+
+    /**
+     * Compares the given lists (or other collections that aren't sets), first their size, then their elements in the order of their
+     * iterators (which are pushed onto the stack).
+     *
+     * @param comparison the comparison of the collections
+     * @param expected   the expected collection
+     * @param actual     the actual collection
+     */
+    private void compareElements(final Comparison comparison, final Collection<?> expected, final Collection<?> actual) {
+        if (expected.size() != actual.size()) {
+            addDifference(new Comparison(comparison, "size()", false, null, null), expected.size(), actual.size());
+        }
+
+        List<Comparison> elements = new ArrayList<Comparison>();
+        Iterator<?> actualElements = actual.iterator();
+        for (Iterator<?> expectedElements = expected.iterator(); expectedElements.hasNext() && actualElements.hasNext();) {
+            elements.add(new Comparison(comparison, elements.size(), true, expectedElements.next(), actualElements.next()));
+        }
+        for (int i = elements.size() - 1; i >= 0; i--) {
+            stack.add(elements.get(i));
+        }
+    }
+
+    /**
+     * Compares the given sets, first their size, then their elements. Each expected element is matched with an equal actual element
+     * (the pair is pushed onto the stack) or, failing that, with a deeply equal one, so elements that don't implement equals() are
+     * matched as well. Elements contained in only one of the sets are differences with null in the other set.
+     *
+     * @param comparison the comparison of the sets
+     * @param expected   the expected set
+     * @param actual     the actual set
+     */
+    private void compareSets(final Comparison comparison, final Set<?> expected, final Set<?> actual) {
+        if (expected.size() != actual.size()) {
+            addDifference(new Comparison(comparison, "size()", false, null, null), expected.size(), actual.size());
+        }
+
+        Map<Object, Object> unmatchedActual = new LinkedHashMap<Object, Object>();
+        for (Object element : actual) {
+            unmatchedActual.put(element, element);
+        }
+        List<Comparison> elements = new ArrayList<Comparison>();
+        List<Object> unmatchedExpected = new ArrayList<Object>();
+        for (Object element : expected) {
+            if (unmatchedActual.containsKey(element)) {
+                elements.add(new Comparison(comparison, element, true, element, unmatchedActual.remove(element)));
+            } else {
+                unmatchedExpected.add(element);
+            }
+        }
+
+        List<Object> unmatched = new ArrayList<Object>(unmatchedActual.keySet());
+        for (Object element : unmatchedExpected) {
+            if (removeDeeplyEqual(unmatched, element) < 0) {
+                addDifference(new Comparison(comparison, element, true, null, null), element, null);
+            }
+        }
+        for (Object element : unmatched) {
+            addDifference(new Comparison(comparison, element, true, null, null), null, element);
+        }
+        for (int i = elements.size() - 1; i >= 0; i--) {
+            stack.add(elements.get(i));
+        }
+    }
+
+    /**
+     * Compares the given maps, first their size, then the values of the keys of the expected map (which are pushed onto the stack).
+     * Keys of the expected map that the actual map doesn't contain are matched with deeply equal keys of the actual map, so keys
+     * that don't implement equals() are matched as well. Keys contained in only one of the maps are differences with a null value in
+     * the other map.
+     *
+     * @param comparison the comparison of the maps
+     * @param expected   the expected map
+     * @param actual     the actual map
+     */
+    private void compareMaps(final Comparison comparison, final Map<?, ?> expected, final Map<?, ?> actual) {
+        if (expected.size() != actual.size()) {
+            addDifference(new Comparison(comparison, "size()", false, null, null), expected.size(), actual.size());
+        }
+
+        List<Comparison> entries = new ArrayList<Comparison>();
+        List<Map.Entry<?, ?>> unmatchedExpected = new ArrayList<Map.Entry<?, ?>>();
+        for (Map.Entry<?, ?> entry : expected.entrySet()) {
+            if (actual.containsKey(entry.getKey())) {
+                entries.add(new Comparison(comparison, entry.getKey(), true, entry.getValue(), actual.get(entry.getKey())));
+            } else {
+                unmatchedExpected.add(entry);
+            }
+        }
+        List<Object> unmatchedKeys = new ArrayList<Object>();
+        List<Object> unmatchedValues = new ArrayList<Object>();
+        for (Map.Entry<?, ?> entry : actual.entrySet()) {
+            if (expected.containsKey(entry.getKey())) continue;
+            unmatchedKeys.add(entry.getKey());
+            unmatchedValues.add(entry.getValue());
+        }
+
+        for (Map.Entry<?, ?> entry : unmatchedExpected) {
+            int index = removeDeeplyEqual(unmatchedKeys, entry.getKey());
+            if (index >= 0) {
+                entries.add(new Comparison(comparison, entry.getKey(), true, entry.getValue(), unmatchedValues.remove(index)));
+            } else {
+                addDifference(new Comparison(comparison, entry.getKey(), true, null, null), entry.getValue(), null);
+            }
+        }
+        for (int i = 0; i < unmatchedKeys.size(); i++) {
+            addDifference(new Comparison(comparison, unmatchedKeys.get(i), true, null, null), null, unmatchedValues.get(i));
+        }
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            stack.add(entries.get(i));
+        }
+    }
+
+    /**
+     * Removes the first of the given candidates that is deeply equal to the given object, i.e. has no differences to it.
+     *
+     * @param candidates the candidates to search
+     * @param object     the object to search a deeply equal candidate for
+     * @return the index the removed candidate had, -1 if no candidate is deeply equal
+     */
+    private static int removeDeeplyEqual(final List<Object> candidates, final Object object) {
+        for (int i = 0; i < candidates.size(); i++) {
+            if (diff(object, candidates.get(i), 1).isEmpty()) {
+                candidates.remove(i);
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Records a difference, unless the maximum number of differences has been reached.
+     *
+     * @param comparison the comparison that found the difference
+     * @param expected   the expected value
+     * @param actual     the actual value
+     */
+    private void addDifference(final Comparison comparison, final Object expected, final Object actual) {
+        if (!isFull()) differences.add(new Difference(comparison.getPath(), expected, actual));
+    }
+
+    /**
+     * Checks if the maximum number of differences has been reached.
+     *
+     * @return true if no more differences are to be collected, false otherwise
+     */
+    private boolean isFull() {
+        return differences.size() >= maxDifferences;
+    }
+
+    /**
+     * Gets the value of the given (accessible) field.
+     *
+     * @param field    the field
+     * @param instance the instance to get the value from
+     * @return the value of the field (boxed if the field is a primitive)
+     */
+    private static Object get(final Field field, final Object instance) {
+        try {
+            return field.get(instance);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Can't get value of " + field.getName() + " from " + instance.getClass().getName(), e);
+        }
+    }
+
+    /**
+     * Checks if the given values of the same JDK type are equal. Char sequences are compared via their string representation, since
+     * most of them don't implement equals().
+     *
+     * @param expected the expected value
+     * @param actual   the actual value
+     * @return true if the values are equal, false otherwise
+     */
+    private static boolean isEqual(final Object expected, final Object actual) {
+        if (expected instanceof CharSequence) return expected.toString().equals(actual.toString());
+        return expected.equals(actual);
+    }
+
+    /**
+     * Checks if the given primitive arrays of the same class are equal. Floats and doubles are compared like
+     * {@link Float#equals(Object)} and {@link Double#equals(Object)}.
+     *
+     * @param expected the expected array
+     * @param actual   the actual array
+     * @return true if the arrays are equal, false otherwise
+     */
+    private static boolean arePrimitiveArraysEqual(final Object expected, final Object actual) {
+        if (expected instanceof int[]) return Arrays.equals((int[]) expected, (int[]) actual);
+        if (expected instanceof long[]) return Arrays.equals((long[]) expected, (long[]) actual);
+        if (expected instanceof byte[]) return Arrays.equals((byte[]) expected, (byte[]) actual);
+        if (expected instanceof char[]) return Arrays.equals((char[]) expected, (char[]) actual);
+        if (expected instanceof short[]) return Arrays.equals((short[]) expected, (short[]) actual);
+        if (expected instanceof boolean[]) return Arrays.equals((boolean[]) expected, (boolean[]) actual);
+        if (expected instanceof float[]) return Arrays.equals((float[]) expected, (float[]) actual);
+        return Arrays.equals((double[]) expected, (double[]) actual);
+    }
+
+    /**
+     * Checks if the given type belongs to the JDK (except Object and arrays). Strings, numbers and enums are treated like types of
+     * the JDK.
+     *
+     * @param type the type to check
+     * @return true if objects of the type are compared as a whole (or as collections or maps), false if they are compared by their
+     *         fields
+     */
+    private static boolean isJdkType(final Class<?> type) {
+        if ((type == Object.class) || type.isArray()) return false;
+        if (CharSequence.class.isAssignableFrom(type) || Number.class.isAssignableFrom(type) || Enum.class.isAssignableFrom(type))
+            return true;
+        return type.getName().startsWith("java.") || type.getName().startsWith("javax.");
+    }
+
+    /**
+     * A pair of values still to compare, together with the way to reach them from the compared objects.
+     */
+    private static final class Comparison {
+        private final Comparison parent;
+        private final Object segment;
+        private final boolean isIndex;
+        private final Object expected;
+        private final Object actual;
+
+        /**
+         * Creates a comparison.
+         *
+         * @param parent   the comparison of the objects referencing the values, null for the compared objects themselves
+         * @param segment  the name of the field or the index or key of the element referencing the values
+         * @param isIndex  true if segment is an index or key, false if it is the name of a field
+         * @param expected the expected value
+         * @param actual   the actual value
+         */
+        private Comparison(final Comparison parent, final Object segment, final boolean isIndex, final Object expected,
+                           final Object actual) {
+            this.parent = parent;
+            this.segment = segment;
+            this.isIndex = isIndex;
+            this.expected = expected;
+            this.actual = actual;
+        }
+
+        /**
+         * Gets the path from the compared objects to the values, e.g. "orders[3].lines[0].price".
+         *
+         * @return the path, empty for the compared objects themselves
+         */
+        private String getPath() {
+            if (parent == null) return "";
+
+            String parentPath = parent.getPath();
+            if (isIndex) return parentPath + "[" + segment + "]";
+            return (parentPath.length() == 0) ? String.valueOf(segment) : parentPath + "." + segment;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2004-2012 Sebastian Dietrich (Sebastian.Dietrich@e-movimento.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package junit.extensions;
+
+/**
+ * A difference between two object graphs found by {@link PA#deepDiff(Object, Object)}: the path to the differing values (starting
+ * at the compared objects) together with the expected and the actual value.
+ * <p/>
+ * Paths consist of field names, array and list indexes and map keys, e.g. "orders[3].lines[0].price" or "prices[EUR]". The length
+ * of arrays is denoted as "length", the size of lists and maps as "size()". The path of the compared objects themselves is empty.
+ * <p/>
+ * Differences are immutable.
+ *
+ * @author Sebastian Dietrich (sebastian.dietrich@e-movimento.com)
+ */
+public final class Difference {
+    /**
+     * Formats the differing values with their fields, but without the values of their fields.
+     */
+    private static final ObjectFormatter FORMATTER = new ObjectFormatter(1, 10, 200);
+
+    private final String path;
+    private final Object expected;
+    private final Object actual;
+
+    /**
+     * Creates a difference. Use {@link PA#deepDiff(Object, Object)} to get Differences.
+     *
+     * @param path     the path to the differing values
+     * @param expected the expected value
+     * @param actual   the actual value
+     */
+    Difference(final String path, final Object expected, final Object actual) {
+        this.path = path;
+        this.expected = expected;
+        this.actual = actual;
+    }
+
+    /**
+     * Gets the path to the differing values, e.g. "orders[3].lines[0].price".
+     *
+     * @return the path, empty if the compared objects themselves differ
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Gets the expected value.
+     *
+     * @return the value in the expected object graph (boxed if it is a primitive)
+     */
+    public Object getExpected() {
+        return expected;
+    }
+
+    /**
+     * Gets the actual value.
+     *
+     * @return the value in the actual object graph (boxed if it is a primitive)
+     */
+    public Object getActual() {
+        return actual;
+    }
+
+    /**
+     * Returns a string representation of this difference, e.g. "orders[3].lines[0].price: expected &lt;10&gt; but was &lt;12&gt;".
+     *
+     * @return a string representation of this difference
+     */
+    public String toString() {
+        return ((path.length() == 0) ? "" : path + ": ") + "expected <" + format(expected) + "> but was <" + format(actual) + ">";
+    }
+
+    /**
+     * Formats the given value, classes are formatted by their name (instead of their static fields).
+     *
+     * @param value the value to format
+     * @return the string representation of the value
+     */
+    private static String format(final Object value) {
+        if (value instanceof Class) return String.valueOf(value);
+        return FORMATTER.format(value);
+    }
+}
@@ -0,0 +1,426 @@
+/*
+ * Copyright 2004-2012 Sebastian Dietrich (Sebastian.Dietrich@e-movimento.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package junit.extensions;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+
+/**
+ * Reads and writes a single field. Accessors are created once per field and cached, so everything that can be done up front
+ * (making the field accessible, removing the final modifier) is done only once.
+ * <p/>
+ * Primitive fields can be read and written via the primitive getters and setters (e.g. {@link #getInt(Object)}) without boxing.
+ *
+ * @author Sebastian Dietrich (sebastian.dietrich@e-movimento.com)
+ */
+final class FieldAccessor {
+    private final Field field;
+
+    /**
+     * True if the field could be made accessible. Fields can't be made accessible e.g. due to a security manager or, on Java 9 and
+     * later, if they are private fields of a JDK class whose package isn't opened to PA.
+     */
+    private final boolean accessible;
+
+    /**
+     * True if the field is not final (any longer). Accessible final instance fields can be written via reflection anyway, only
+     * static final fields need their final modifier removed.
+     */
+    private volatile boolean writable;
+
+    /**
+     * Creates an accessor for the given field and makes the field accessible if possible. Fields that can't be made accessible are
+     * accessed as they are, so the problem is reported when the field actually gets accessed.
+     *
+     * @param field the field to access
+     */
+    FieldAccessor(final Field field) {
+        this.field = field;
+        this.accessible = makeAccessible(field);
+        this.writable = !Modifier.isFinal(field.getModifiers()) || !Modifier.isStatic(field.getModifiers());
+    }
+
+    /**
+     * Gets the field accessed by this accessor.
+     *
+     * @return the field
+     */
+    Field getField() {
+        return field;
+    }
+
+    /**
+     * Checks if the field accessed by this accessor could be made accessible.
+     *
+     * @return true if the field is accessible, false otherwise
+     */
+    boolean isAccessible() {
+        return accessible;
+    }
+
+    /**
+     * Gets the type of the field accessed by this accessor.
+     *
+     * @return the type of the field
+     */
+    Class<?> getType() {
+        return field.getType();
+    }
+
+    /**
+     * Checks if the field accessed by this accessor is static.
+     *
+     * @return true if the field is static, false otherwise
+     */
+    boolean isStatic() {
+        return Modifier.isStatic(field.getModifiers());
+    }
+
+    /**
+     * Gets the value of the field.
+     *
+     * @param instance the instance to get the value from, ignored for static fields
+     * @return the value of the field (boxed if the field is a primitive)
+     * @throws IllegalAccessException if the field is inaccessible
+     */
+    Object get(final Object instance) throws IllegalAccessException {
+        return field.get(instance);
+    }
+
+    /**
+     * Gets the value of a boolean field without boxing.
+     *
+     * @param instance the instance to get the value from, ignored for static fields
+     * @return the value of the field
+     * @throws IllegalAccessException if the field is inaccessible
+     */
+    boolean getBoolean(final Object instance) throws IllegalAccessException {
+        return field.getBoolean(instance);
+    }
+
+    /**
+     * Gets the value of a field of type byte (or of a type convertible to byte by a widening conversion) without boxing.
+     *
+     * @param instance the instance to get the value from, ignored for static fields
+     * @return the value of the field
+     * @throws IllegalAccessException if the field is inaccessible
+     */
+    byte getByte(final Object instance) throws IllegalAccessException {
+        return field.getByte(instance);
+    }
+
+    /**
+     * Gets the value of a field of type char (or of a type convertible to char by a widening conversion) without boxing.
+     *
+     * @param instance the instance to get the value from, ignored for static fields
+     * @return the value of the field
+     * @throws IllegalAccessException if the field is inaccessible
+     */
+    char getChar(final Object instance) throws IllegalAccessException {
+        return field.getChar(instance);
+    }
+
+    /**
+     * Gets the value of a field of type short (or of a type convertible to short by a widening conversion) without boxing.
+     *
+     * @param instance the instance to get the value from, ignored for static fields
+     * @return the value of the field
+     * @throws IllegalAccessException if the field is inaccessible
+     */
+    short getShort(final Object instance) throws IllegalAccessException {
+        return field.getShort(instance);
+    }
+
+    /**
+     * Gets the value of a field of type int (or of a type convertible to int by a widening conversion) without boxing.
+     *
+     * @param instance the instance to get the value from, ignored for static fields
+     * @return the value of the field
+     * @throws IllegalAccessException if the field is inaccessible
+     */
+    int getInt(final Object instance) throws IllegalAccessException {
+        return field.getInt(instance);
+    }
+
+    /**
+     * Gets the value of a field of type long (or of a type convertible to long by a widening conversion) without boxing.
+     *
+     * @param instance the instance to get the value from, ignored for static fields
+     * @return the value of the field
+     * @throws IllegalAccessException if the field is inaccessible
+     */
+    long getLong(final Object instance) throws IllegalAccessException {
+        return field.getLong(instance);
+    }
+
+    /**
+     * Gets the value of a field of type float (or of a type convertible to float by a widening conversion) without boxing.
+     *
+     * @param instance the instance to get the value from, ignored for static fields
+     * @return the value of the field
+     * @throws IllegalAccessException if the field is inaccessible
+     */
+    float getFloat(final Object instance) throws IllegalAccessException {
+        return field.getFloat(instance);
+    }
+
+    /**
+     * Gets the value of a field of type double (or of a type convertible to double by a widening conversion) without boxing.
+     *
+     * @param instance the instance to get the value from, ignored for static fields
+     * @return the value of the field
+     * @throws IllegalAccessException if the field is inaccessible
+     */
+    double getDouble(final Object instance) throws IllegalAccessException {
+        return field.getDouble(instance);
+    }
+
+    /**
+     * Sets the value of the field. Removes the final modifier of the field before, if necessary.
+     *
+     * @param instance the instance to set the value in, ignored for static fields
+     * @param value    the new value of the field (boxed if the field is a primitive)
+     * @throws NoSuchFieldException   if the field is final and the JVM does not allow to remove the final modifier
+     * @throws IllegalAccessException if the field is inaccessible
+     */
+    void set(final Object instance, final Object value) throws NoSuchFieldException, IllegalAccessException {
+        makeWritable();
+        field.set(instance, value);
+    }
+
+    /**
+     * Sets the value of a boolean field without boxing.
+     *
+     * @param instance the instance to set the value in, ignored for static fields
+     * @param value    the new value of the field
+     * @throws NoSuchFieldException   if the field is final and the JVM does not allow to remove the final modifier
+     * @throws IllegalAccessException if the field is inaccessible
+     */
+    void setBoolean(final Object instance, final boolean value) throws NoSuchFieldException, IllegalAccessException {
+        makeWritable();
+        field.setBoolean(instance, value);
+    }
+
+    /**
+     * Sets the value of a field of type byte (or of a type byte is convertible to by a widening conversion) without boxing.
+     *
+     * @param instance the instance to set the value in, ignored for static fields
+     * @param value    the new value of the field
+     * @throws NoSuchFieldException   if the field is final and the JVM does not allow to remove the final modifier
+     * @throws IllegalAccessException if the field is inaccessible
+     */
+    void setByte(final Object instance, final byte value) throws NoSuchFieldException, IllegalAccessException {
+        makeWritable();
+        field.setByte(instance, value);
+    }
+
+    /**
+     * Sets the value of a field of type char (or of a type char is convertible to by a widening conversion) without boxing.
+     *
+     * @param instance the instance to set the value in, ignored for static fields
+     * @param value    the new value of the field
+     * @throws NoSuchFieldException   if the field is final and the JVM does not allow to remove the final modifier
+     * @throws IllegalAccessException if the field is inaccessible
+     */
+    void setChar(final Object instance, final char value) throws NoSuchFieldException, IllegalAccessException {
+        makeWritable();
+        field.setChar(instance, value);
+    }
+
+    /**
+     * Sets the value of a field of type short (or of a type short is convertible to by a widening conversion) without boxing.
+     *
+     * @param instance the instance to set the value in, ignored for static fields
+     * @param value    the new value of the field
+     * @throws NoSuchFieldException   if the field is final and the JVM does not allow to remove the final modifier
+     * @throws IllegalAccessException if the field is inaccessible
+     */
+    void setShort(final Object instance, final short value) throws NoSuchFieldException, IllegalAccessException {
+        makeWritable();
+        field.setShort(instance, value);
+    }
+
+    /**
+     * Sets the value of a field of type int (or of a type int is convertible to by a widening conversion) without boxing.
+     *
+     * @param instance the instance to set the value in, ignored for static fields
+     * @param value    the new value of the field
+     * @throws NoSuchFieldException   if the field is final and the JVM does not allow to remove the final modifier
+     * @throws IllegalAccessException if the field is inaccessible
+     */
+    void setInt(final Object instance, final int value) throws NoSuchFieldException, IllegalAccessException {
+        makeWritable();
+        field.setInt(instance, value);
+    }
+
+    /**
+     * Sets the value of a field of type long (or of a type long is convertible to by a widening conversion) without boxing.
+     *
+     * @param instance the instance to set the value in, ignored for static fields
+     * @param value    the new value of the field
+     * @throws NoSuchFieldException   if the field is final and the JVM does not allow to remove the final modifier
+     * @throws IllegalAccessException if the field is inaccessible
+     */
+    void setLong(final Object instance, final long value) throws NoSuchFieldException, IllegalAccessException {
+        makeWritable();
+        field.setLong(instance, value);
+    }
+
+    /**
+     * Sets the value of a field of type float (or of a type float is convertible to by a widening conversion) without boxing.
+     *
+     * @param instance the instance to set the value in, ignored for static fields
+     * @param value    the new value of the field
+     * @throws NoSuchFieldException   if the field is final and the JVM does not allow to remove the final modifier
+     * @throws IllegalAccessException if the field is inaccessible
+     */
+    void setFloat(final Object instance, final float value) throws NoSuchFieldException, IllegalAccessException {
+        makeWritable();
+        field.setFloat(instance, value);
+    }
+
+    /**
+     * Sets the value of a field of type double (or of a type double is convertible to by a widening conversion) without boxing.
+     *
+     * @param instance the instance to set the value in, ignored for static fields
+     * @param value    the new value of the field
+     * @throws NoSuchFieldException   if the field is final and the JVM does not allow to remove the final modifier
+     * @throws IllegalAccessException if the field is inaccessible
+     */
+    void setDouble(final Object instance, final double value) throws NoSuchFieldException, IllegalAccessException {
+        makeWritable();
+        field.setDouble(instance, value);
+    }
+
+    /**
+     * Copies the value of the field from the given source to the given target. Primitive values are copied without boxing.
+     *
+     * @param source the instance to copy the value from
+     * @param target the instance to copy the value to
+     * @throws NoSuchFieldException   if the field is final and the JVM does not allow to remove the final modifier
+     * @throws IllegalAccessException if the field is inaccessible
+     */
+    void copy(final Object source, final Object target) throws NoSuchFieldException, IllegalAccessException {
+        makeWritable();
+        Class<?> type = field.getType();
+        if (!type.isPrimitive()) field.set(target, field.get(source));
+        else if (type == Integer.TYPE) field.setInt(target, field.getInt(source));
+        else if (type == Long.TYPE) field.setLong(target, field.getLong(source));
+        else if (type == Boolean.TYPE) field.setBoolean(target, field.getBoolean(source));
+        else if (type == Double.TYPE) field.setDouble(target, field.getDouble(source));
+        else if (type == Float.TYPE) field.setFloat(target, field.getFloat(source));
+        else if (type == Character.TYPE) field.setChar(target, field.getChar(source));
+        else if (type == Short.TYPE) field.setShort(target, field.getShort(source));
+        else field.setByte(target, field.getByte(source));
+    }
+
+    /**
+     * Checks if the values of the field of the given instances are equal. Primitive values are compared without boxing (floating
+     * point values like Float.equals() and Double.equals() do), arrays are compared by their elements.
+     *
+     * @param instance      the first instance
+     * @param otherInstance the second instance
+     * @return true if the values of the field are equal, false otherwise
+     * @throws IllegalAccessException if the field is inaccessible
+     */
+    boolean valueEquals(final Object instance, final Object otherInstance) throws IllegalAccessException {
+        Class<?> type = field.getType();
+        if (!type.isPrimitive()) {
+            Object value = field.get(instance);
+            Object otherValue = field.get(otherInstance);
+            if (value == otherValue) return true;
+            if ((value == null) || (otherValue == null)) return false;
+            if (value.getClass().isArray()) return Arrays.deepEquals(new Object[]{value}, new Object[]{otherValue});
+            return value.equals(otherValue);
+        }
+        if (type == Integer.TYPE) return field.getInt(instance) == field.getInt(otherInstance);
+        if (type == Long.TYPE) return field.getLong(instance) == field.getLong(otherInstance);
+        if (type == Boolean.TYPE) return field.getBoolean(instance) == field.getBoolean(otherInstance);
+        if (type == Double.TYPE)
+            return Double.doubleToLongBits(field.getDouble(instance)) == Double.doubleToLongBits(field.getDouble(otherInstance));
+        if (type == Float.TYPE)
+            return Float.floatToIntBits(field.getFloat(instance)) == Float.floatToIntBits(field.getFloat(otherInstance));
+        if (type == Character.TYPE) return field.getChar(instance) == field.getChar(otherInstance);
+        if (type == Short.TYPE) return field.getShort(instance) == field.getShort(otherInstance);
+        return field.getByte(instance) == field.getByte(otherInstance);
+    }
+
+    /**
+     * Gets the hash code of the value of the field of the given instance. Primitive values are hashed without boxing (like their
+     * wrappers do), arrays are hashed by their elements.
+     *
+     * @param instance the instance
+     * @return the hash code of the value of the field, 0 if the value is null
+     * @throws IllegalAccessException if the field is inaccessible
+     */
+    int valueHashCode(final Object instance) throws IllegalAccessException {
+        Class<?> type = field.getType();
+        if (!type.isPrimitive()) {
+            Object value = field.get(instance);
+            if (value == null) return 0;
+            if (value.getClass().isArray()) return Arrays.deepHashCode(new Object[]{value});
+            return value.hashCode();
+        }
+        if (type == Integer.TYPE) return field.getInt(instance);
+        if (type == Long.TYPE) return hashCode(field.getLong(instance));
+        if (type == Boolean.TYPE) return field.getBoolean(instance) ? 1231 : 1237;
+        if (type == Double.TYPE) return hashCode(Double.doubleToLongBits(field.getDouble(instance)));
+        if (type == Float.TYPE) return Float.floatToIntBits(field.getFloat(instance));
+        if (type == Character.TYPE) return field.getChar(instance);
+        if (type == Short.TYPE) return field.getShort(instance);
+        return field.getByte(instance);
+    }
+
+    /**
+     * Gets the hash code of the given long like Long.hashCode() does.
+     *
+     * @param value the long to hash
+     * @return the hash code
+     */
+    private static int hashCode(final long value) {
+        return (int) (value ^ (value >>> 32));
+    }
+
+    /**
+     * Removes the final modifier of the field (if any), since setting the value of a final field fails otherwise. Does so only once
+     * per field.
+     *
+     * @throws NoSuchFieldException   if the JVM does not allow to change the modifiers of fields
+     * @throws IllegalAccessException if the JVM does not allow to change the modifiers of fields
+     */
+    @SuppressWarnings("deprecation")
+    void makeWritable() throws NoSuchFieldException, IllegalAccessException {
+        if (writable) return;
+        PrivilegedAccessor.setValue(field, "modifiers", field.getModifiers() & ~Modifier.FINAL);
+        writable = true;
+    }
+
+    /**
+     * Makes the given field accessible if possible. Doesn't use Field.isAccessible(), which is deprecated since Java 9.
+     *
+     * @param field the field to make accessible
+     * @return true if the field is accessible now, false otherwise
+     */
+    private static boolean makeAccessible(final Field field) {
+        try {
+            field.setAccessible(true);
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+}
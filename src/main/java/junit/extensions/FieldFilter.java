@@ -0,0 +1,34 @@
+/*
+ * Copyright 2004-2012 Sebastian Dietrich (Sebastian.Dietrich@e-movimento.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package junit.extensions;
+
+import java.lang.reflect.Field;
+
+/**
+ * Decides which fields PA includes when it processes all fields of an object, e.g. in
+ * {@link PA#copyState(Object, Object, FieldFilter)}.
+ *
+ * @author Sebastian Dietrich (sebastian.dietrich@e-movimento.com)
+ */
+public interface FieldFilter {
+    /**
+     * Checks if the given field should be included.
+     *
+     * @param field the field
+     * @return true if the field should be included, false if it should be skipped
+     */
+    boolean accept(Field field);
+}
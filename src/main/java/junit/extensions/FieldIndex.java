@@ -0,0 +1,143 @@
+/*
+ * Copyright 2004-2012 Sebastian Dietrich (Sebastian.Dietrich@e-movimento.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package junit.extensions;
+
+import java.lang.reflect.Field;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * The immutable list of all fields of a class, starting with the fields declared by the class itself (in the order of their
+ * declaration) followed by the fields of its super classes. Fields declared with the same name in several classes of the hierarchy
+ * are all contained, each with its declaring class.
+ * <p/>
+ * Indexes are created once per class. The index of a class holds the fields of all its super classes in one array, so each field
+ * is found in constant time. The fields are shared by all users of the index and made accessible by some of them, so they must
+ * not be handed out to callers - use {@link #copyOf(Class)} instead.
+ *
+ * @author Sebastian Dietrich (sebastian.dietrich@e-movimento.com)
+ * @see PA#getFields(Object)
+ */
+final class FieldIndex extends AbstractList<Field> implements RandomAccess {
+    /**
+     * The index of classes without fields (e.g. Object).
+     */
+    private static final FieldIndex EMPTY = new FieldIndex(new Field[0], null);
+
+    /**
+     * Caches the indexes created so far per class.
+     */
+    private static final WeakCache<Class<?>, FieldIndex> INDEXES = new WeakCache<Class<?>, FieldIndex>() {
+        protected FieldIndex computeValue(final Class<?> type) {
+            FieldIndex superIndex = (type.getSuperclass() == null) ? EMPTY : INDEXES.get(type.getSuperclass());
+            Field[] declaredFields = type.getDeclaredFields();
+            if (declaredFields.length == 0) return superIndex;
+            return new FieldIndex(declaredFields, superIndex);
+        }
+    };
+
+    private final Field[] fields;
+
+    /**
+     * The names of all fields in the order of the fields, each name only once.
+     */
+    private final Set<String> names;
+
+    /**
+     * Creates the index of a class.
+     *
+     * @param declaredFields the fields declared by the class
+     * @param superIndex     the index of the super class, null for the empty index
+     */
+    private FieldIndex(final Field[] declaredFields, final FieldIndex superIndex) {
+        Field[] superFields = (superIndex == null) ? new Field[0] : superIndex.fields;
+        this.fields = new Field[declaredFields.length + superFields.length];
+        System.arraycopy(declaredFields, 0, fields, 0, declaredFields.length);
+        System.arraycopy(superFields, 0, fields, declaredFields.length, superFields.length);
+
+        Set<String> fieldNames = new LinkedHashSet<String>();
+        for (Field field : declaredFields) {
+            fieldNames.add(field.getName());
+        }
+        if (superIndex != null) fieldNames.addAll(superIndex.names);
+        this.names = Collections.unmodifiableSet(fieldNames);
+    }
+
+    /**
+     * Gets the index of the given class.
+     *
+     * @param type the class to get the index of, might be null
+     * @return the index of the class, the empty index if type is null
+     */
+    static FieldIndex of(final Class<?> type) {
+        if (type == null) return EMPTY;
+        return INDEXES.get(type);
+    }
+
+    /**
+     * Gets new copies of all fields of the given class in the order of its index. The copies are not shared with the index, so they
+     * can be handed out to callers, who might make them accessible or not.
+     *
+     * @param type the class to get the fields of, might be null
+     * @return the new modifiable list of copies of the fields, empty if type is null
+     */
+    static List<Field> copyOf(final Class<?> type) {
+        List<Field> copies = new ArrayList<Field>(of(type).size());
+        for (Class<?> declaringClass = type; declaringClass != null; declaringClass = declaringClass.getSuperclass()) {
+            copies.addAll(Arrays.asList(declaringClass.getDeclaredFields()));
+        }
+        return copies;
+    }
+
+    /**
+     * Gets the field at the given position.
+     *
+     * @param index the position of the field
+     * @return the field
+     * @throws IndexOutOfBoundsException if there is no field at the given position
+     */
+    public Field get(final int index) {
+        if ((index < 0) || (index >= fields.length)) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + fields.length);
+        }
+        return fields[index];
+    }
+
+    /**
+     * Gets the number of fields.
+     *
+     * @return the number of fields
+     */
+    public int size() {
+        return fields.length;
+    }
+
+    /**
+     * Gets the names of all fields in the order of the fields. Names of fields declared more than once in the hierarchy are contained
+     * only once.
+     *
+     * @return the unmodifiable set of field names
+     */
+    Set<String> getNames() {
+        return names;
+    }
+}
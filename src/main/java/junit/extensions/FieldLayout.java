@@ -0,0 +1,103 @@
+/*
+ * Copyright 2004-2012 Sebastian Dietrich (Sebastian.Dietrich@e-movimento.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package junit.extensions;
+
+import java.lang.reflect.Field;
+
+/**
+ * The position of an instance field within the objects of a class as reported by {@link PA#layout(Class)}: its offset, its size and
+ * the number of unused bytes (padding) between the preceding field (or the object header) and the field.
+ * <p/>
+ * FieldLayouts are immutable.
+ *
+ * @author Sebastian Dietrich (sebastian.dietrich@e-movimento.com)
+ * @see ClassLayout
+ */
+public final class FieldLayout {
+    private final Field field;
+    private final long offset;
+    private final int size;
+    private final long gap;
+
+    /**
+     * Creates the layout of a field. Use {@link PA#layout(Class)} to get FieldLayouts.
+     *
+     * @param field  the field
+     * @param offset the offset of the field in bytes
+     * @param size   the size of the field in bytes
+     * @param gap    the number of unused bytes before the field
+     */
+    FieldLayout(final Field field, final long offset, final int size, final long gap) {
+        this.field = field;
+        this.offset = offset;
+        this.size = size;
+        this.gap = gap;
+    }
+
+    /**
+     * Gets the field.
+     *
+     * @return the field
+     */
+    public Field getField() {
+        return field;
+    }
+
+    /**
+     * Gets the name of the field.
+     *
+     * @return the name of the field
+     */
+    public String getName() {
+        return field.getName();
+    }
+
+    /**
+     * Gets the offset of the field from the start of the object.
+     *
+     * @return the offset in bytes
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Gets the number of bytes the field occupies.
+     *
+     * @return the size in bytes
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the number of unused bytes between the end of the preceding field (or the object header) and this field.
+     *
+     * @return the size of the gap in bytes, 0 if there is none
+     */
+    public long getGap() {
+        return gap;
+    }
+
+    /**
+     * Returns a string representation of this layout, e.g. "12 4 int mypackage.MyClass.count".
+     *
+     * @return a string representation of this layout
+     */
+    public String toString() {
+        return offset + " " + size + " " + field.getType().getName() + " " + field.getDeclaringClass().getName() + "." + field.getName();
+    }
+}
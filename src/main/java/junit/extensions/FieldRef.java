@@ -0,0 +1,423 @@
+/*
+ * Copyright 2004-2012 Sebastian Dietrich (Sebastian.Dietrich@e-movimento.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package junit.extensions;
+
+/**
+ * A reference to a field (no matter what its access modifier is) that has been looked up once and can be used to read and write the
+ * field as often as needed. FieldRefs are immutable and thread-safe, so you can keep them in static final fields:
+ * <p/>
+ * <pre>
+ * private static final FieldRef&lt;MyClass, String&gt; NAME = PA.field(MyClass.class, &quot;name&quot;);
+ * ...
+ * NAME.set(myObj, &quot;myNewName&quot;);
+ * String name = NAME.get(myObj);
+ * </pre>
+ * <p/>
+ * Primitive fields can be read and written without boxing via the primitive getters and setters (e.g. {@link #getInt(Object)}).
+ * Static fields can be read and written via {@link #getStatic()} and {@link #setStatic(Object)} or by passing null as instance.
+ *
+ * @param <T> the type declaring (or inheriting) the field
+ * @param <V> the type of the field (the wrapper type for primitive fields)
+ * @author Sebastian Dietrich (sebastian.dietrich@e-movimento.com)
+ * @see PA#field(Class, String)
+ */
+public final class FieldRef<T, V> {
+    private final Class<T> type;
+    private final String fieldName;
+    private final FieldAccessor accessor;
+
+    /**
+     * Creates a reference to the given field. Use {@link PA#field(Class, String)} to get FieldRefs.
+     *
+     * @param type      the type declaring (or inheriting) the field
+     * @param fieldName the name of the field
+     * @param accessor  the accessor of the field
+     */
+    FieldRef(final Class<T> type, final String fieldName, final FieldAccessor accessor) {
+        this.type = type;
+        this.fieldName = fieldName;
+        this.accessor = accessor;
+    }
+
+    /**
+     * Gets the name of the referenced field.
+     *
+     * @return the name of the field
+     */
+    public String getName() {
+        return fieldName;
+    }
+
+    /**
+     * Gets the type of the referenced field.
+     *
+     * @return the type of the field
+     */
+    public Class<?> getType() {
+        return accessor.getType();
+    }
+
+    /**
+     * Gets the class declaring the referenced field. This is either the class the reference was created for or one of its super
+     * classes.
+     *
+     * @return the class declaring the field
+     */
+    public Class<?> getDeclaringClass() {
+        return accessor.getField().getDeclaringClass();
+    }
+
+    /**
+     * Checks if the referenced field is static.
+     *
+     * @return true if the field is static, false otherwise
+     */
+    public boolean isStatic() {
+        return accessor.isStatic();
+    }
+
+    /**
+     * Gets the value of the referenced field of the given instance.
+     *
+     * @param instance the instance to get the value from, ignored (and might be null) if the field is static
+     * @return the value of the field
+     * @throws IllegalArgumentException if the value can't be read, e.g. if instance is null but the field is not static
+     */
+    @SuppressWarnings("unchecked")
+    public V get(final T instance) {
+        try {
+            return (V) accessor.get(instance);
+        } catch (Exception e) {
+            throw cantGet(instance, e);
+        }
+    }
+
+    /**
+     * Gets the value of the referenced static field.
+     *
+     * @return the value of the field
+     * @throws IllegalArgumentException if the field is not static
+     */
+    public V getStatic() {
+        return get(null);
+    }
+
+    /**
+     * Sets the value of the referenced field of the given instance. If the field is final, this method could fail, since setting the
+     * value of final fields at other times than instantiation can have unpredictable effects.
+     *
+     * @param instance the instance to set the value in, ignored (and might be null) if the field is static
+     * @param value    the new value of the field
+     * @throws IllegalArgumentException if the value can't be set, e.g. if it does not match the type of the field or if the field
+     *                                  was final
+     */
+    public void set(final T instance, final V value) {
+        try {
+            accessor.set(instance, value);
+        } catch (Exception e) {
+            throw cantSet(instance, value, e);
+        }
+    }
+
+    /**
+     * Sets the value of the referenced static field.
+     *
+     * @param value the new value of the field
+     * @throws IllegalArgumentException if the value can't be set, e.g. if the field is not static or if it was final
+     */
+    public void setStatic(final V value) {
+        set(null, value);
+    }
+
+    /**
+     * Gets the value of the referenced boolean field without boxing.
+     *
+     * @param instance the instance to get the value from, ignored (and might be null) if the field is static
+     * @return the value of the field
+     * @throws IllegalArgumentException if the value can't be read, e.g. if the field is not a boolean
+     */
+    public boolean getBoolean(final T instance) {
+        try {
+            return accessor.getBoolean(instance);
+        } catch (Exception e) {
+            throw cantGet(instance, e);
+        }
+    }
+
+    /**
+     * Gets the value of the referenced byte field without boxing.
+     *
+     * @param instance the instance to get the value from, ignored (and might be null) if the field is static
+     * @return the value of the field
+     * @throws IllegalArgumentException if the value can't be read, e.g. if the field is not a byte
+     */
+    public byte getByte(final T instance) {
+        try {
+            return accessor.getByte(instance);
+        } catch (Exception e) {
+            throw cantGet(instance, e);
+        }
+    }
+
+    /**
+     * Gets the value of the referenced char field without boxing.
+     *
+     * @param instance the instance to get the value from, ignored (and might be null) if the field is static
+     * @return the value of the field
+     * @throws IllegalArgumentException if the value can't be read, e.g. if the field is not a char
+     */
+    public char getChar(final T instance) {
+        try {
+            return accessor.getChar(instance);
+        } catch (Exception e) {
+            throw cantGet(instance, e);
+        }
+    }
+
+    /**
+     * Gets the value of the referenced short (or byte) field without boxing.
+     *
+     * @param instance the instance to get the value from, ignored (and might be null) if the field is static
+     * @return the value of the field
+     * @throws IllegalArgumentException if the value can't be read, e.g. if the field can't be converted to a short
+     */
+    public short getShort(final T instance) {
+        try {
+            return accessor.getShort(instance);
+        } catch (Exception e) {
+            throw cantGet(instance, e);
+        }
+    }
+
+    /**
+     * Gets the value of the referenced int (or char, short, byte) field without boxing.
+     *
+     * @param instance the instance to get the value from, ignored (and might be null) if the field is static
+     * @return the value of the field
+     * @throws IllegalArgumentException if the value can't be read, e.g. if the field can't be converted to an int
+     */
+    public int getInt(final T instance) {
+        try {
+            return accessor.getInt(instance);
+        } catch (Exception e) {
+            throw cantGet(instance, e);
+        }
+    }
+
+    /**
+     * Gets the value of the referenced long (or int, char, short, byte) field without boxing.
+     *
+     * @param instance the instance to get the value from, ignored (and might be null) if the field is static
+     * @return the value of the field
+     * @throws IllegalArgumentException if the value can't be read, e.g. if the field can't be converted to a long
+     */
+    public long getLong(final T instance) {
+        try {
+            return accessor.getLong(instance);
+        } catch (Exception e) {
+            throw cantGet(instance, e);
+        }
+    }
+
+    /**
+     * Gets the value of the referenced float (or long, int, char, short, byte) field without boxing.
+     *
+     * @param instance the instance to get the value from, ignored (and might be null) if the field is static
+     * @return the value of the field
+     * @throws IllegalArgumentException if the value can't be read, e.g. if the field can't be converted to a float
+     */
+    public float getFloat(final T instance) {
+        try {
+            return accessor.getFloat(instance);
+        } catch (Exception e) {
+            throw cantGet(instance, e);
+        }
+    }
+
+    /**
+     * Gets the value of the referenced double (or any other non-boolean primitive) field without boxing.
+     *
+     * @param instance the instance to get the value from, ignored (and might be null) if the field is static
+     * @return the value of the field
+     * @throws IllegalArgumentException if the value can't be read, e.g. if the field can't be converted to a double
+     */
+    public double getDouble(final T instance) {
+        try {
+            return accessor.getDouble(instance);
+        } catch (Exception e) {
+            throw cantGet(instance, e);
+        }
+    }
+
+    /**
+     * Sets the value of the referenced boolean field without boxing.
+     *
+     * @param instance the instance to set the value in, ignored (and might be null) if the field is static
+     * @param value    the new value of the field
+     * @throws IllegalArgumentException if the value can't be set, e.g. if the field is not a boolean or if it was final
+     */
+    public void setBoolean(final T instance, final boolean value) {
+        try {
+            accessor.setBoolean(instance, value);
+        } catch (Exception e) {
+            throw cantSet(instance, value, e);
+        }
+    }
+
+    /**
+     * Sets the value of the referenced byte (or short, int, long, float, double) field without boxing.
+     *
+     * @param instance the instance to set the value in, ignored (and might be null) if the field is static
+     * @param value    the new value of the field
+     * @throws IllegalArgumentException if the value can't be set, e.g. if a byte can't be converted to the type of the field or if
+     *                                  the field was final
+     */
+    public void setByte(final T instance, final byte value) {
+        try {
+            accessor.setByte(instance, value);
+        } catch (Exception e) {
+            throw cantSet(instance, value, e);
+        }
+    }
+
+    /**
+     * Sets the value of the referenced char (or int, long, float, double) field without boxing.
+     *
+     * @param instance the instance to set the value in, ignored (and might be null) if the field is static
+     * @param value    the new value of the field
+     * @throws IllegalArgumentException if the value can't be set, e.g. if a char can't be converted to the type of the field or if
+     *                                  the field was final
+     */
+    public void setChar(final T instance, final char value) {
+        try {
+            accessor.setChar(instance, value);
+        } catch (Exception e) {
+            throw cantSet(instance, value, e);
+        }
+    }
+
+    /**
+     * Sets the value of the referenced short (or int, long, float, double) field without boxing.
+     *
+     * @param instance the instance to set the value in, ignored (and might be null) if the field is static
+     * @param value    the new value of the field
+     * @throws IllegalArgumentException if the value can't be set, e.g. if a short can't be converted to the type of the field or if
+     *                                  the field was final
+     */
+    public void setShort(final T instance, final short value) {
+        try {
+            accessor.setShort(instance, value);
+        } catch (Exception e) {
+            throw cantSet(instance, value, e);
+        }
+    }
+
+    /**
+     * Sets the value of the referenced int (or long, float, double) field without boxing.
+     *
+     * @param instance the instance to set the value in, ignored (and might be null) if the field is static
+     * @param value    the new value of the field
+     * @throws IllegalArgumentException if the value can't be set, e.g. if an int can't be converted to the type of the field or if
+     *                                  the field was final
+     */
+    public void setInt(final T instance, final int value) {
+        try {
+            accessor.setInt(instance, value);
+        } catch (Exception e) {
+            throw cantSet(instance, value, e);
+        }
+    }
+
+    /**
+     * Sets the value of the referenced long (or float, double) field without boxing.
+     *
+     * @param instance the instance to set the value in, ignored (and might be null) if the field is static
+     * @param value    the new value of the field
+     * @throws IllegalArgumentException if the value can't be set, e.g. if a long can't be converted to the type of the field or if
+     *                                  the field was final
+     */
+    public void setLong(final T instance, final long value) {
+        try {
+            accessor.setLong(instance, value);
+        } catch (Exception e) {
+            throw cantSet(instance, value, e);
+        }
+    }
+
+    /**
+     * Sets the value of the referenced float (or double) field without boxing.
+     *
+     * @param instance the instance to set the value in, ignored (and might be null) if the field is static
+     * @param value    the new value of the field
+     * @throws IllegalArgumentException if the value can't be set, e.g. if a float can't be converted to the type of the field or if
+     *                                  the field was final
+     */
+    public void setFloat(final T instance, final float value) {
+        try {
+            accessor.setFloat(instance, value);
+        } catch (Exception e) {
+            throw cantSet(instance, value, e);
+        }
+    }
+
+    /**
+     * Sets the value of the referenced double field without boxing.
+     *
+     * @param instance the instance to set the value in, ignored (and might be null) if the field is static
+     * @param value    the new value of the field
+     * @throws IllegalArgumentException if the value can't be set, e.g. if the field is not a double or if it was final
+     */
+    public void setDouble(final T instance, final double value) {
+        try {
+            accessor.setDouble(instance, value);
+        } catch (Exception e) {
+            throw cantSet(instance, value, e);
+        }
+    }
+
+    /**
+     * Returns a string representation of this reference, e.g. "FieldRef(mypackage.MyClass.name)".
+     *
+     * @return a string representation of this reference
+     */
+    public String toString() {
+        return "FieldRef(" + type.getName() + "." + fieldName + ")";
+    }
+
+    /**
+     * Creates the exception thrown if the field can't be read.
+     *
+     * @param instance the instance the field should have been read from
+     * @param cause    the reason why the field couldn't be read
+     * @return the exception to throw
+     */
+    private IllegalArgumentException cantGet(final Object instance, final Exception cause) {
+        return new IllegalArgumentException("Can't get value of " + fieldName + " from " + ((instance == null) ? type : instance), cause);
+    }
+
+    /**
+     * Creates the exception thrown if the field can't be written.
+     *
+     * @param instance the instance the field should have been written to
+     * @param value    the value that should have been written
+     * @param cause    the reason why the field couldn't be written
+     * @return the exception to throw
+     */
+    private IllegalArgumentException cantSet(final Object instance, final Object value, final Exception cause) {
+        return new IllegalArgumentException("Can't set value " + value + " at " + fieldName + " in "
+                + ((instance == null) ? type : instance), cause);
+    }
+}
@@ -0,0 +1,676 @@
+/*
+ * Copyright 2004-2012 Sebastian Dietrich (Sebastian.Dietrich@e-movimento.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package junit.extensions;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A table of all fields (no matter what their access modifiers are) of a class, including the fields of all its super classes. The
+ * fields are looked up once and are addressed by their index, so reading and writing all fields of a class neither looks up any
+ * field by name nor creates a reference per field. FieldTables are immutable and thread-safe:
+ * <p/>
+ * <pre>
+ * FieldTable&lt;MyClass&gt; fields = PA.fieldTable(MyClass.class);
+ * for (int i = 0; i &lt; fields.size(); i++) {
+ *     System.out.println(fields.getName(i) + &quot;=&quot; + fields.get(myObj, i));
+ * }
+ * </pre>
+ * <p/>
+ * The table contains the fields reported by {@link PA#getFieldNames(Object)} in the order of their declaration, starting with the
+ * fields of the class itself followed by the fields of its super classes. If a field name is declared more than once in the
+ * hierarchy, only the field declared furthest down the hierarchy is contained. Fields that can't be made accessible are skipped,
+ * e.g. the private fields a class inherits from a JDK class (like Throwable) on Java 9 and later, unless their package is opened to
+ * PA. Primitive fields can be read and written without boxing via the primitive getters and setters (e.g.
+ * {@link #getInt(Object, int)}).
+ *
+ * @param <T> the type whose fields are contained
+ * @author Sebastian Dietrich (sebastian.dietrich@e-movimento.com)
+ * @see PA#fieldTable(Class)
+ */
+public final class FieldTable<T> {
+    /**
+     * Caches the tables created so far per class.
+     */
+    private static final WeakCache<Class<?>, FieldTable<?>> TABLES = new WeakCache<Class<?>, FieldTable<?>>() {
+        @SuppressWarnings({"deprecation", "unchecked"})
+        protected FieldTable<?> computeValue(final Class<?> type) {
+            return new FieldTable<Object>((Class<Object>) type, PrivilegedAccessor.getFieldAccessors(type));
+        }
+    };
+
+    private final Class<T> type;
+    private final String[] names;
+    private final FieldAccessor[] accessors;
+    private final Map<String, Integer> indexes;
+
+    /**
+     * Caches the instance fields this table has in common with other classes (i.e. the fields of a super class of both), mapped by
+     * the other class.
+     */
+    private final ConcurrentMap<Class<?>, FieldAccessor[]> commonFields = new ConcurrentHashMap<Class<?>, FieldAccessor[]>();
+
+    /**
+     * Creates a table of the given fields. Use {@link PA#fieldTable(Class)} to get FieldTables.
+     *
+     * @param type   the type whose fields are contained
+     * @param fields the accessors of the fields mapped by their names, fields that aren't accessible are skipped
+     */
+    private FieldTable(final Class<T> type, final Map<String, FieldAccessor> fields) {
+        List<FieldAccessor> accessibleFields = new ArrayList<FieldAccessor>(fields.size());
+        for (FieldAccessor accessor : fields.values()) {
+            if (accessor.isAccessible()) accessibleFields.add(accessor);
+        }
+
+        this.type = type;
+        this.names = new String[accessibleFields.size()];
+        this.accessors = accessibleFields.toArray(new FieldAccessor[accessibleFields.size()]);
+        this.indexes = new HashMap<String, Integer>();
+
+        for (int index = 0; index < accessors.length; index++) {
+            names[index] = accessors[index].getField().getName();
+            indexes.put(names[index], index);
+        }
+    }
+
+    /**
+     * Gets the table of all fields of the given class. Tables are created once per class.
+     *
+     * @param type the class to get the fields of
+     * @return the table of fields
+     */
+    @SuppressWarnings("unchecked")
+    static <T> FieldTable<T> of(final Class<T> type) {
+        return (FieldTable<T>) TABLES.get(type);
+    }
+
+    /**
+     * Gets the table of all fields of the class of the given instance or, if instanceOrClass is a class, of the given class.
+     *
+     * @param instanceOrClass the instance or class to get the fields of
+     * @return the table of fields
+     */
+    @SuppressWarnings("unchecked")
+    static FieldTable<Object> forInstanceOrClass(final Object instanceOrClass) {
+        Class<?> type = (instanceOrClass instanceof Class) ? (Class<?>) instanceOrClass : instanceOrClass.getClass();
+        return (FieldTable<Object>) TABLES.get(type);
+    }
+
+    /**
+     * Gets the number of fields in this table.
+     *
+     * @return the number of fields
+     */
+    public int size() {
+        return accessors.length;
+    }
+
+    /**
+     * Gets the index of the named field.
+     *
+     * @param fieldName the name of the field
+     * @return the index of the field or -1 if there is no such field in this table
+     */
+    public int indexOf(final String fieldName) {
+        Integer index = indexes.get(fieldName);
+        return (index == null) ? -1 : index;
+    }
+
+    /**
+     * Gets the name of the field with the given index.
+     *
+     * @param index the index of the field
+     * @return the name of the field
+     */
+    public String getName(final int index) {
+        return names[index];
+    }
+
+    /**
+     * Gets the type of the field with the given index.
+     *
+     * @param index the index of the field
+     * @return the type of the field
+     */
+    public Class<?> getType(final int index) {
+        return accessors[index].getType();
+    }
+
+    /**
+     * Gets the class declaring the field with the given index. This is either the class the table was created for or one of its super
+     * classes.
+     *
+     * @param index the index of the field
+     * @return the class declaring the field
+     */
+    public Class<?> getDeclaringClass(final int index) {
+        return accessors[index].getField().getDeclaringClass();
+    }
+
+    /**
+     * Checks if the field with the given index is static.
+     *
+     * @param index the index of the field
+     * @return true if the field is static, false otherwise
+     */
+    public boolean isStatic(final int index) {
+        return accessors[index].isStatic();
+    }
+
+    /**
+     * Gets the value of the field with the given index of the given instance.
+     *
+     * @param instance the instance to get the value from, ignored (and might be null) if the field is static
+     * @param index    the index of the field
+     * @return the value of the field (boxed if the field is a primitive)
+     * @throws IllegalArgumentException if the value can't be read, e.g. if instance is null but the field is not static
+     */
+    public Object get(final T instance, final int index) {
+        try {
+            return accessors[index].get(instance);
+        } catch (Exception e) {
+            throw cantGet(instance, index, e);
+        }
+    }
+
+    /**
+     * Gets the values of all fields of the given instance in one pass.
+     *
+     * @param instance the instance to get the values from
+     * @return the values of the fields (boxed if a field is a primitive), the value of a field is stored at the index of the field
+     * @throws IllegalArgumentException if a value can't be read, e.g. if instance is null but not all fields are static
+     */
+    public Object[] getValues(final T instance) {
+        Object[] values = new Object[accessors.length];
+        for (int i = 0; i < accessors.length; i++) {
+            values[i] = get(instance, i);
+        }
+        return values;
+    }
+
+    /**
+     * Sets the value of the field with the given index of the given instance. Final fields are made writable before, if necessary.
+     *
+     * @param instance the instance to set the value in, ignored (and might be null) if the field is static
+     * @param index    the index of the field
+     * @param value    the new value of the field (boxed if the field is a primitive)
+     * @throws IllegalArgumentException if the value can't be set, e.g. if the value is not of the type of the field
+     */
+    public void set(final T instance, final int index, final Object value) {
+        try {
+            accessors[index].set(instance, value);
+        } catch (Exception e) {
+            throw cantSet(instance, index, value, e);
+        }
+    }
+
+    /**
+     * Sets the values of the fields with the given indexes of the given instance. All values are checked before any field is
+     * written (and final fields are made writable), so either all fields are set or none of them.
+     *
+     * @param instance the instance to set the values in, ignored (and might be null) if all fields are static
+     * @param indexes  the indexes of the fields
+     * @param values   the new values of the fields, the value of a field is stored at the same index as the index of the field
+     * @throws IllegalArgumentException if a value can't be set, e.g. if the value is not of the type of the field
+     */
+    @SuppressWarnings("deprecation")
+    void setValues(final T instance, final int[] indexes, final Object[] values) {
+        for (int i = 0; i < indexes.length; i++) {
+            FieldAccessor accessor = accessors[indexes[i]];
+            if (!accessor.isStatic() && !accessor.getField().getDeclaringClass().isInstance(instance)) {
+                throw cantSet(instance, indexes[i], values[i], new IllegalArgumentException("object is not an instance of declaring class"));
+            }
+            if (!PrivilegedAccessor.isAssignable(accessor.getType(), values[i])) {
+                throw cantSet(instance, indexes[i], values[i], new IllegalArgumentException("argument type mismatch"));
+            }
+            try {
+                accessor.makeWritable();
+            } catch (Exception e) {
+                throw cantSet(instance, indexes[i], values[i], e);
+            }
+        }
+
+        for (int i = 0; i < indexes.length; i++) {
+            set(instance, indexes[i], values[i]);
+        }
+    }
+
+    /**
+     * Copies the values of all instance fields the given source and target have in common from source to target, including fields
+     * hidden by a field with the same name further down the hierarchy. Primitive values are copied without boxing.
+     *
+     * @param source the instance to copy the values from
+     * @param target the instance to copy the values to
+     * @param filter decides which fields are copied, null to copy all fields in common
+     * @throws IllegalArgumentException if a value can't be copied, e.g. if a field accepted by the filter can't be made accessible
+     */
+    void copyState(final T source, final Object target, final FieldFilter filter) {
+        for (FieldAccessor accessor : getCommonFields(target.getClass())) {
+            if ((filter != null) && !filter.accept(accessor.getField())) continue;
+            if (!accessor.isAccessible()) throw cantAccess("copy", accessor);
+            try {
+                accessor.copy(source, target);
+            } catch (Exception e) {
+                throw new IllegalArgumentException("Can't copy value of " + accessor.getField().getName() + " from " + source + " to "
+                        + target, e);
+            }
+        }
+    }
+
+    /**
+     * Checks if the instance fields of the given instances are equal, skipping the excluded fields. Stops at the first field that is
+     * not equal.
+     *
+     * @param instance       the first instance
+     * @param otherInstance  the second instance, of the same class as the first one
+     * @param excludedFields the names of the fields not to compare
+     * @return true if all compared fields are equal, false otherwise
+     * @throws IllegalArgumentException if a field can't be read, e.g. if a compared field can't be made accessible
+     */
+    boolean reflectionEquals(final T instance, final T otherInstance, final String[] excludedFields) {
+        for (FieldAccessor accessor : getCommonFields(type)) {
+            if (isExcluded(accessor, excludedFields)) continue;
+            if (!accessor.isAccessible()) throw cantAccess("compare", accessor);
+            try {
+                if (!accessor.valueEquals(instance, otherInstance)) return false;
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException("Can't compare " + accessor.getField().getName() + " of " + instance + " and "
+                        + otherInstance, e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the hash code of the given instance from its instance fields, skipping the excluded fields. Instances that are equal
+     * according to {@link #reflectionEquals(Object, Object, String[])} have the same hash code.
+     *
+     * @param instance       the instance
+     * @param excludedFields the names of the fields not to include
+     * @return the hash code
+     * @throws IllegalArgumentException if a field can't be read, e.g. if an included field can't be made accessible
+     */
+    int reflectionHashCode(final T instance, final String[] excludedFields) {
+        int hashCode = 1;
+        for (FieldAccessor accessor : getCommonFields(type)) {
+            if (isExcluded(accessor, excludedFields)) continue;
+            if (!accessor.isAccessible()) throw cantAccess("get hash code of", accessor);
+            try {
+                hashCode = 31 * hashCode + accessor.valueHashCode(instance);
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException("Can't get hash code of " + accessor.getField().getName() + " of " + instance, e);
+            }
+        }
+        return hashCode;
+    }
+
+    /**
+     * Checks if the field of the given accessor is one of the excluded fields.
+     *
+     * @param accessor       the accessor of the field
+     * @param excludedFields the names of the excluded fields
+     * @return true if the field is excluded, false otherwise
+     */
+    private static boolean isExcluded(final FieldAccessor accessor, final String[] excludedFields) {
+        for (String excludedField : excludedFields) {
+            if (excludedField.equals(accessor.getField().getName())) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the instance fields this table has in common with the given class, i.e. the fields both inherit from the same class.
+     * The fields in common with a class are determined only once, the fields in common with the class of this table are all its
+     * instance fields. Unlike the fields of this table, these include the fields of super classes that are hidden by a field with
+     * the same name further down the hierarchy and the fields that can't be made accessible, which callers must not skip silently.
+     *
+     * @param otherType the other class
+     * @return the accessors of the fields in common
+     */
+    private FieldAccessor[] getCommonFields(final Class<?> otherType) {
+        FieldAccessor[] fields = commonFields.get(otherType);
+        if (fields != null) return fields;
+
+        List<FieldAccessor> fieldsInCommon = new ArrayList<FieldAccessor>();
+        for (Field field : FieldIndex.of(type)) {
+            if (Modifier.isStatic(field.getModifiers()) || !field.getDeclaringClass().isAssignableFrom(otherType)) continue;
+
+            int index = indexOf(field.getName());
+            FieldAccessor accessor = ((index >= 0) && accessors[index].getField().equals(field)) ? accessors[index]
+                    : new FieldAccessor(field);
+            fieldsInCommon.add(accessor);
+        }
+        fields = fieldsInCommon.toArray(new FieldAccessor[fieldsInCommon.size()]);
+        commonFields.putIfAbsent(otherType, fields);
+        return fields;
+    }
+
+    /**
+     * Gets the value of a boolean field of the given instance without boxing.
+     *
+     * @param instance the instance to get the value from, ignored (and might be null) if the field is static
+     * @param index    the index of the field
+     * @return the value of the field
+     * @throws IllegalArgumentException if the value can't be read, e.g. if the field is not a boolean
+     */
+    public boolean getBoolean(final T instance, final int index) {
+        try {
+            return accessors[index].getBoolean(instance);
+        } catch (Exception e) {
+            throw cantGet(instance, index, e);
+        }
+    }
+
+    /**
+     * Gets the value of a byte field of the given instance without boxing.
+     *
+     * @param instance the instance to get the value from, ignored (and might be null) if the field is static
+     * @param index    the index of the field
+     * @return the value of the field
+     * @throws IllegalArgumentException if the value can't be read, e.g. if the field can't be converted to a byte
+     */
+    public byte getByte(final T instance, final int index) {
+        try {
+            return accessors[index].getByte(instance);
+        } catch (Exception e) {
+            throw cantGet(instance, index, e);
+        }
+    }
+
+    /**
+     * Gets the value of a char field of the given instance without boxing.
+     *
+     * @param instance the instance to get the value from, ignored (and might be null) if the field is static
+     * @param index    the index of the field
+     * @return the value of the field
+     * @throws IllegalArgumentException if the value can't be read, e.g. if the field can't be converted to a char
+     */
+    public char getChar(final T instance, final int index) {
+        try {
+            return accessors[index].getChar(instance);
+        } catch (Exception e) {
+            throw cantGet(instance, index, e);
+        }
+    }
+
+    /**
+     * Gets the value of a short (or byte) field of the given instance without boxing.
+     *
+     * @param instance the instance to get the value from, ignored (and might be null) if the field is static
+     * @param index    the index of the field
+     * @return the value of the field
+     * @throws IllegalArgumentException if the value can't be read, e.g. if the field can't be converted to a short
+     */
+    public short getShort(final T instance, final int index) {
+        try {
+            return accessors[index].getShort(instance);
+        } catch (Exception e) {
+            throw cantGet(instance, index, e);
+        }
+    }
+
+    /**
+     * Gets the value of an int (or byte, short, char) field of the given instance without boxing.
+     *
+     * @param instance the instance to get the value from, ignored (and might be null) if the field is static
+     * @param index    the index of the field
+     * @return the value of the field
+     * @throws IllegalArgumentException if the value can't be read, e.g. if the field can't be converted to an int
+     */
+    public int getInt(final T instance, final int index) {
+        try {
+            return accessors[index].getInt(instance);
+        } catch (Exception e) {
+            throw cantGet(instance, index, e);
+        }
+    }
+
+    /**
+     * Gets the value of a long (or byte, short, char, int) field of the given instance without boxing.
+     *
+     * @param instance the instance to get the value from, ignored (and might be null) if the field is static
+     * @param index    the index of the field
+     * @return the value of the field
+     * @throws IllegalArgumentException if the value can't be read, e.g. if the field can't be converted to a long
+     */
+    public long getLong(final T instance, final int index) {
+        try {
+            return accessors[index].getLong(instance);
+        } catch (Exception e) {
+            throw cantGet(instance, index, e);
+        }
+    }
+
+    /**
+     * Gets the value of a float (or byte, short, char, int, long) field of the given instance without boxing.
+     *
+     * @param instance the instance to get the value from, ignored (and might be null) if the field is static
+     * @param index    the index of the field
+     * @return the value of the field
+     * @throws IllegalArgumentException if the value can't be read, e.g. if the field can't be converted to a float
+     */
+    public float getFloat(final T instance, final int index) {
+        try {
+            return accessors[index].getFloat(instance);
+        } catch (Exception e) {
+            throw cantGet(instance, index, e);
+        }
+    }
+
+    /**
+     * Gets the value of a double (or any other numeric or char) field of the given instance without boxing.
+     *
+     * @param instance the instance to get the value from, ignored (and might be null) if the field is static
+     * @param index    the index of the field
+     * @return the value of the field
+     * @throws IllegalArgumentException if the value can't be read, e.g. if the field can't be converted to a double
+     */
+    public double getDouble(final T instance, final int index) {
+        try {
+            return accessors[index].getDouble(instance);
+        } catch (Exception e) {
+            throw cantGet(instance, index, e);
+        }
+    }
+
+    /**
+     * Sets the value of a boolean field of the given instance without boxing.
+     *
+     * @param instance the instance to set the value in, ignored (and might be null) if the field is static
+     * @param index    the index of the field
+     * @param value    the new value of the field
+     * @throws IllegalArgumentException if the value can't be set, e.g. if the field is not a boolean or if the field was final
+     */
+    public void setBoolean(final T instance, final int index, final boolean value) {
+        try {
+            accessors[index].setBoolean(instance, value);
+        } catch (Exception e) {
+            throw cantSet(instance, index, value, e);
+        }
+    }
+
+    /**
+     * Sets the value of a byte (or short, int, long, float, double) field of the given instance without boxing.
+     *
+     * @param instance the instance to set the value in, ignored (and might be null) if the field is static
+     * @param index    the index of the field
+     * @param value    the new value of the field
+     * @throws IllegalArgumentException if the value can't be set, e.g. if a byte can't be converted to the type of the field or if the field was final
+     */
+    public void setByte(final T instance, final int index, final byte value) {
+        try {
+            accessors[index].setByte(instance, value);
+        } catch (Exception e) {
+            throw cantSet(instance, index, value, e);
+        }
+    }
+
+    /**
+     * Sets the value of a char (or int, long, float, double) field of the given instance without boxing.
+     *
+     * @param instance the instance to set the value in, ignored (and might be null) if the field is static
+     * @param index    the index of the field
+     * @param value    the new value of the field
+     * @throws IllegalArgumentException if the value can't be set, e.g. if a char can't be converted to the type of the field or if the field was final
+     */
+    public void setChar(final T instance, final int index, final char value) {
+        try {
+            accessors[index].setChar(instance, value);
+        } catch (Exception e) {
+            throw cantSet(instance, index, value, e);
+        }
+    }
+
+    /**
+     * Sets the value of a short (or int, long, float, double) field of the given instance without boxing.
+     *
+     * @param instance the instance to set the value in, ignored (and might be null) if the field is static
+     * @param index    the index of the field
+     * @param value    the new value of the field
+     * @throws IllegalArgumentException if the value can't be set, e.g. if a short can't be converted to the type of the field or if the field was final
+     */
+    public void setShort(final T instance, final int index, final short value) {
+        try {
+            accessors[index].setShort(instance, value);
+        } catch (Exception e) {
+            throw cantSet(instance, index, value, e);
+        }
+    }
+
+    /**
+     * Sets the value of an int (or long, float, double) field of the given instance without boxing.
+     *
+     * @param instance the instance to set the value in, ignored (and might be null) if the field is static
+     * @param index    the index of the field
+     * @param value    the new value of the field
+     * @throws IllegalArgumentException if the value can't be set, e.g. if an int can't be converted to the type of the field or if the field was final
+     */
+    public void setInt(final T instance, final int index, final int value) {
+        try {
+            accessors[index].setInt(instance, value);
+        } catch (Exception e) {
+            throw cantSet(instance, index, value, e);
+        }
+    }
+
+    /**
+     * Sets the value of a long (or float, double) field of the given instance without boxing.
+     *
+     * @param instance the instance to set the value in, ignored (and might be null) if the field is static
+     * @param index    the index of the field
+     * @param value    the new value of the field
+     * @throws IllegalArgumentException if the value can't be set, e.g. if a long can't be converted to the type of the field or if the field was final
+     */
+    public void setLong(final T instance, final int index, final long value) {
+        try {
+            accessors[index].setLong(instance, value);
+        } catch (Exception e) {
+            throw cantSet(instance, index, value, e);
+        }
+    }
+
+    /**
+     * Sets the value of a float (or double) field of the given instance without boxing.
+     *
+     * @param instance the instance to set the value in, ignored (and might be null) if the field is static
+     * @param index    the index of the field
+     * @param value    the new value of the field
+     * @throws IllegalArgumentException if the value can't be set, e.g. if a float can't be converted to the type of the field or if the field was final
+     */
+    public void setFloat(final T instance, final int index, final float value) {
+        try {
+            accessors[index].setFloat(instance, value);
+        } catch (Exception e) {
+            throw cantSet(instance, index, value, e);
+        }
+    }
+
+    /**
+     * Sets the value of a double field of the given instance without boxing.
+     *
+     * @param instance the instance to set the value in, ignored (and might be null) if the field is static
+     * @param index    the index of the field
+     * @param value    the new value of the field
+     * @throws IllegalArgumentException if the value can't be set, e.g. if the field is not a double or if the field was final
+     */
+    public void setDouble(final T instance, final int index, final double value) {
+        try {
+            accessors[index].setDouble(instance, value);
+        } catch (Exception e) {
+            throw cantSet(instance, index, value, e);
+        }
+    }
+
+    /**
+     * Returns a string representation of this table, e.g. "FieldTable(mypackage.MyClass[name, id])".
+     *
+     * @return a string representation of this table
+     */
+    public String toString() {
+        StringBuilder buf = new StringBuilder("FieldTable(").append(type.getName()).append("[");
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) buf.append(", ");
+            buf.append(names[i]);
+        }
+        return buf.append("])").toString();
+    }
+
+    /**
+     * Creates the exception thrown if a field can't be read.
+     *
+     * @param instance the instance the field should have been read from
+     * @param index    the index of the field
+     * @param cause    the reason why the field couldn't be read
+     * @return the exception to throw
+     */
+    private IllegalArgumentException cantGet(final Object instance, final int index, final Exception cause) {
+        return new IllegalArgumentException("Can't get value of " + names[index] + " from " + ((instance == null) ? type : instance),
+                cause);
+    }
+
+    /**
+     * Creates the exception thrown if a field can't be written.
+     *
+     * @param instance the instance the field should have been written to
+     * @param index    the index of the field
+     * @param value    the value that should have been written
+     * @param cause    the reason why the field couldn't be written
+     * @return the exception to throw
+     */
+    private IllegalArgumentException cantSet(final Object instance, final int index, final Object value, final Exception cause) {
+        return new IllegalArgumentException("Can't set value " + value + " at " + names[index] + " in "
+                + ((instance == null) ? type : instance), cause);
+    }
+
+    /**
+     * Creates the exception thrown if a field in common can't be used since it can't be made accessible.
+     *
+     * @param action   what should have been done with the field, e.g. "copy"
+     * @param accessor the accessor of the field
+     * @return the exception to throw
+     */
+    private static IllegalArgumentException cantAccess(final String action, final FieldAccessor accessor) {
+        Field field = accessor.getField();
+        return new IllegalArgumentException("Can't " + action + " " + field.getName() + " of " + field.getDeclaringClass().getName()
+                + ", since the field can't be made accessible");
+    }
+}
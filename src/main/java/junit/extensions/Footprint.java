@@ -0,0 +1,180 @@
+/*
+ * Copyright 2004-2012 Sebastian Dietrich (Sebastian.Dietrich@e-movimento.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package junit.extensions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The estimated memory footprint of an object graph as measured by {@link PA#deepSizeOf(Object)}: the shallow size of the root, the
+ * retained size of all objects reachable from the root and a histogram of the number and size of the objects per class.
+ * <p/>
+ * The retained size contains all objects reachable from the root, including objects that are referenced from outside the graph as
+ * well (e.g. interned strings or enum constants). It is therefore the upper limit of the memory that would be freed if the root
+ * became unreachable. Classes are not counted, since they don't belong to any object graph.
+ * <p/>
+ * Footprints are immutable.
+ *
+ * @author Sebastian Dietrich (sebastian.dietrich@e-movimento.com)
+ */
+public final class Footprint {
+    private final long shallowSize;
+    private final long retainedSize;
+    private final long objectCount;
+
+    /**
+     * The classes of the objects ordered by the size of their objects (largest first).
+     */
+    private final List<Class<?>> classes;
+
+    /**
+     * The number and the size of the objects per class.
+     */
+    private final Map<Class<?>, long[]> histogram;
+
+    /**
+     * Creates a footprint.
+     *
+     * @param shallowSize the size of the root in bytes
+     * @param histogram   the number and the size of the objects per class
+     */
+    private Footprint(final long shallowSize, final Map<Class<?>, long[]> histogram) {
+        this.shallowSize = shallowSize;
+        this.histogram = histogram;
+
+        long size = 0;
+        long count = 0;
+        for (long[] countAndSize : histogram.values()) {
+            count += countAndSize[0];
+            size += countAndSize[1];
+        }
+        this.retainedSize = size;
+        this.objectCount = count;
+
+        List<Class<?>> sortedClasses = new ArrayList<Class<?>>(histogram.keySet());
+        Collections.sort(sortedClasses, new Comparator<Class<?>>() {
+            public int compare(final Class<?> type, final Class<?> otherType) {
+                long difference = histogram.get(otherType)[1] - histogram.get(type)[1];
+                if (difference != 0) return (difference > 0) ? 1 : -1;
+                return type.getName().compareTo(otherType.getName());
+            }
+        });
+        this.classes = Collections.unmodifiableList(sortedClasses);
+    }
+
+    /**
+     * Measures the objects reachable from the given root.
+     *
+     * @param root the root of the object graph, might be null
+     * @return the footprint of the object graph
+     */
+    static Footprint measure(final Object root) {
+        final Map<Class<?>, long[]> histogram = new HashMap<Class<?>, long[]>();
+        ObjectWalker.walk(root, new ObjectVisitor() {
+            public boolean visit(final Object object) {
+                if (object instanceof Class) return false;
+
+                long[] countAndSize = histogram.get(object.getClass());
+                if (countAndSize == null) {
+                    countAndSize = new long[2];
+                    histogram.put(object.getClass(), countAndSize);
+                }
+                countAndSize[0]++;
+                countAndSize[1] += MemoryLayout.sizeOf(object);
+                return true;
+            }
+        });
+        return new Footprint(((root == null) || (root instanceof Class)) ? 0 : MemoryLayout.sizeOf(root), histogram);
+    }
+
+    /**
+     * Gets the size of the root object itself (without the objects it references).
+     *
+     * @return the shallow size in bytes, 0 if the root is null
+     */
+    public long getShallowSize() {
+        return shallowSize;
+    }
+
+    /**
+     * Gets the size of all objects reachable from the root (including the root).
+     *
+     * @return the retained size in bytes
+     */
+    public long getRetainedSize() {
+        return retainedSize;
+    }
+
+    /**
+     * Gets the number of objects reachable from the root (including the root).
+     *
+     * @return the number of objects
+     */
+    public long getObjectCount() {
+        return objectCount;
+    }
+
+    /**
+     * Gets the classes of the objects reachable from the root, ordered by the size of their objects (largest first).
+     *
+     * @return the unmodifiable list of classes
+     */
+    public List<Class<?>> getClasses() {
+        return classes;
+    }
+
+    /**
+     * Gets the number of reachable objects of the given class (not counting objects of its sub classes).
+     *
+     * @param type the class
+     * @return the number of objects, 0 if there are none
+     */
+    public long getObjectCount(final Class<?> type) {
+        long[] countAndSize = histogram.get(type);
+        return (countAndSize == null) ? 0 : countAndSize[0];
+    }
+
+    /**
+     * Gets the size of all reachable objects of the given class (not counting objects of its sub classes).
+     *
+     * @param type the class
+     * @return the size in bytes, 0 if there are no objects of the class
+     */
+    public long getSize(final Class<?> type) {
+        long[] countAndSize = histogram.get(type);
+        return (countAndSize == null) ? 0 : countAndSize[1];
+    }
+
+    /**
+     * Returns a string representation of this footprint: the sizes followed by the histogram, one class per line with the size and
+     * the number of its objects.
+     *
+     * @return a string representation of this footprint
+     */
+    public String toString() {
+        StringBuilder buf = new StringBuilder();
+        buf.append("retained size: ").append(retainedSize).append(" bytes in ").append(objectCount).append(" objects, shallow size: ")
+                .append(shallowSize).append(" bytes");
+        for (Class<?> type : classes) {
+            buf.append(String.format("%n%12d %10d  %s", getSize(type), getObjectCount(type), type.getName()));
+        }
+        return buf.toString();
+    }
+}
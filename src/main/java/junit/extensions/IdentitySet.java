@@ -0,0 +1,111 @@
+/*
+ * Copyright 2004-2012 Sebastian Dietrich (Sebastian.Dietrich@e-movimento.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package junit.extensions;
+
+/**
+ * A set of objects compared by identity (like the key set of an {@link java.util.IdentityHashMap}), that only supports adding and
+ * looking up objects. The objects are stored in a single array with open addressing (linear probing), so adding an object doesn't
+ * allocate an entry object, which matters when tracking millions of objects during a walk over an object graph.
+ * <p/>
+ * IdentitySets are not thread-safe.
+ *
+ * @author Sebastian Dietrich (sebastian.dietrich@e-movimento.com)
+ * @see ObjectWalker
+ */
+final class IdentitySet {
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * The slots of the set, a power of two in length and never more than 2/3 full. Empty slots are null.
+     */
+    private Object[] slots = new Object[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Adds the given object unless the set already contains it.
+     *
+     * @param object the object to add, must not be null
+     * @return true if the object has been added, false if the set already contained it
+     */
+    boolean add(final Object object) {
+        assert object != null : "IdentitySets don't contain null";
+        int mask = slots.length - 1;
+        int index = hash(object) & mask;
+        for (Object slot = slots[index]; slot != null; slot = slots[index]) {
+            if (slot == object) return false;
+            index = (index + 1) & mask;
+        }
+
+        slots[index] = object;
+        if (++size * 3 > slots.length * 2) resize();
+        return true;
+    }
+
+    /**
+     * Checks if the set contains the given object.
+     *
+     * @param object the object to look up
+     * @return true if the set contains exactly this object, false otherwise
+     */
+    boolean contains(final Object object) {
+        if (object == null) return false;
+        int mask = slots.length - 1;
+        int index = hash(object) & mask;
+        for (Object slot = slots[index]; slot != null; slot = slots[index]) {
+            if (slot == object) return true;
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the number of objects in the set.
+     *
+     * @return the number of objects
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Doubles the number of slots and adds all objects again.
+     */
+    private void resize() {
+        Object[] oldSlots = slots;
+        slots = new Object[oldSlots.length * 2];
+        int mask = slots.length - 1;
+        for (Object object : oldSlots) {
+            if (object == null) continue;
+            int index = hash(object) & mask;
+            while (slots[index] != null) {
+                index = (index + 1) & mask;
+            }
+            slots[index] = object;
+        }
+    }
+
+    /**
+     * Gets a hash code of the given object based on its identity. The identity hash code is spread over all bits, since linear
+     * probing is sensitive to clustered hash codes.
+     *
+     * @param object the object to get the hash code of
+     * @return the hash code of the object
+     */
+    static int hash(final Object object) {
+        int hash = System.identityHashCode(object) * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright 2004-2012 Sebastian Dietrich (Sebastian.Dietrich@e-movimento.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package junit.extensions;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Estimates the memory occupied by objects on the running JVM. The sizes of object headers and references as well as the object
+ * alignment are detected once (via sun.misc.Unsafe and the HotSpot diagnostic bean, if available), the offsets of fields are taken
+ * from the JVM as well. On JVMs without these facilities the sizes are estimated from the data model of the JVM (32 or 64 bit).
+ * <p/>
+ * The size of an instance is the offset of its last field plus the size of that field, rounded up to the object alignment. The size
+ * of an array is its header plus the size of its elements, rounded up to the object alignment.
+ *
+ * @author Sebastian Dietrich (sebastian.dietrich@e-movimento.com)
+ * @see PA#deepSizeOf(Object)
+ */
+final class MemoryLayout {
+    /**
+     * The instance of sun.misc.Unsafe, null if not available.
+     */
+    private static final Object UNSAFE = getUnsafe();
+    private static final Method OBJECT_FIELD_OFFSET = getUnsafeMethod("objectFieldOffset", Field.class);
+    private static final Method ARRAY_BASE_OFFSET = getUnsafeMethod("arrayBaseOffset", Class.class);
+    private static final Method ARRAY_INDEX_SCALE = getUnsafeMethod("arrayIndexScale", Class.class);
+
+    /**
+     * True if the JVM uses 64 bit addresses.
+     */
+    private static final boolean IS_64_BIT = "64".equals(System.getProperty("sun.arch.data.model"))
+            || System.getProperty("os.arch", "").contains("64");
+
+    /**
+     * The size of a reference in bytes (4 on 32 bit JVMs and 64 bit JVMs with compressed references, 8 otherwise).
+     */
+    static final int REFERENCE_SIZE = detectReferenceSize();
+
+    /**
+     * The size of the header of an object in bytes, i.e. the offset of the first field.
+     */
+    static final int OBJECT_HEADER_SIZE = detectObjectHeaderSize();
+
+    /**
+     * The number of bytes the size of each object is a multiple of.
+     */
+    static final int OBJECT_ALIGNMENT = detectObjectAlignment();
+
+    /**
+     * Caches the sizes of instances per class.
+     */
+    private static final WeakCache<Class<?>, Long> INSTANCE_SIZES = new WeakCache<Class<?>, Long>() {
+        protected Long computeValue(final Class<?> type) {
+            long size = OBJECT_HEADER_SIZE;
+            for (Field field : FieldIndex.of(type)) {
+                if (Modifier.isStatic(field.getModifiers())) continue;
+                long offset = getFieldOffset(field);
+                if (offset < 0) return estimateInstanceSize(type);
+                size = Math.max(size, offset + getSize(field.getType()));
+            }
+            return align(size);
+        }
+    };
+
+    /**
+     * Caches the header size and the element size per array class.
+     */
+    private static final WeakCache<Class<?>, int[]> ARRAY_LAYOUTS = new WeakCache<Class<?>, int[]>() {
+        protected int[] computeValue(final Class<?> arrayType) {
+            int elementSize = getSize(arrayType.getComponentType());
+            Integer baseOffset = (Integer) invokeUnsafe(ARRAY_BASE_OFFSET, arrayType);
+            Integer indexScale = (Integer) invokeUnsafe(ARRAY_INDEX_SCALE, arrayType);
+            if ((baseOffset == null) || (indexScale == null)) return new int[]{(int) alignTo(OBJECT_HEADER_SIZE + 4, 8), elementSize};
+            return new int[]{baseOffset, indexScale};
+        }
+    };
+
+    /**
+     * Private constructor to make it impossible to instantiate this class.
+     */
+    private MemoryLayout() {
+        assert false : "You mustn't instantiate MemoryLayout, use its methods statically";
+    }
+
+    /**
+     * Gets the estimated number of bytes occupied by the given object itself (without the objects it references).
+     *
+     * @param object the object, must not be null
+     * @return the size of the object in bytes
+     */
+    static long sizeOf(final Object object) {
+        Class<?> type = object.getClass();
+        if (!type.isArray()) return INSTANCE_SIZES.get(type);
+
+        int[] layout = ARRAY_LAYOUTS.get(type);
+        return align(layout[0] + (long) layout[1] * Array.getLength(object));
+    }
+
+    /**
+     * Gets the estimated number of bytes occupied by each instance of the given class.
+     *
+     * @param type the class, must not be an array class
+     * @return the size of an instance in bytes
+     */
+    static long instanceSizeOf(final Class<?> type) {
+        return INSTANCE_SIZES.get(type);
+    }
+
+    /**
+     * Gets the number of bytes a field or array element of the given type occupies.
+     *
+     * @param type the type of the field or array element
+     * @return the size in bytes
+     */
+    static int getSize(final Class<?> type) {
+        if (!type.isPrimitive()) return REFERENCE_SIZE;
+        if ((type == long.class) || (type == double.class)) return 8;
+        if ((type == int.class) || (type == float.class)) return 4;
+        if ((type == short.class) || (type == char.class)) return 2;
+        return 1;
+    }
+
+    /**
+     * Gets the offset of the given instance field within the objects of its class as reported by the JVM.
+     *
+     * @param field the field
+     * @return the offset in bytes, -1 if the JVM doesn't report it
+     */
+    static long getFieldOffset(final Field field) {
+        Long offset = (Long) invokeUnsafe(OBJECT_FIELD_OFFSET, field);
+        return (offset == null) ? -1 : offset;
+    }
+
+    /**
+     * Rounds the given size up to the object alignment.
+     *
+     * @param size the size in bytes
+     * @return the aligned size in bytes
+     */
+    static long align(final long size) {
+        return alignTo(size, OBJECT_ALIGNMENT);
+    }
+
+    /**
+     * Estimates the size of instances of the given class without knowing the offsets of its fields, assuming the JVM packs the
+     * fields without gaps.
+     *
+     * @param type the class
+     * @return the estimated size in bytes
+     */
+    private static long estimateInstanceSize(final Class<?> type) {
+        long size = OBJECT_HEADER_SIZE;
+        for (Field field : FieldIndex.of(type)) {
+            if (!Modifier.isStatic(field.getModifiers())) size += getSize(field.getType());
+        }
+        return align(size);
+    }
+
+    /**
+     * Rounds the given size up to a multiple of the given alignment.
+     *
+     * @param size      the size in bytes
+     * @param alignment the alignment in bytes (a power of two)
+     * @return the aligned size in bytes
+     */
+    private static long alignTo(final long size, final int alignment) {
+        return (size + alignment - 1) & -alignment;
+    }
+
+    /**
+     * Gets the instance of sun.misc.Unsafe.
+     *
+     * @return the instance, null if not available on the running JVM
+     */
+    private static Object getUnsafe() {
+        try {
+            Field theUnsafe = Class.forName("sun.misc.Unsafe").getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            return theUnsafe.get(null);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets a method of sun.misc.Unsafe.
+     *
+     * @param methodName    the name of the method
+     * @param parameterType the type of the method's only parameter
+     * @return the method, null if not available on the running JVM
+     */
+    private static Method getUnsafeMethod(final String methodName, final Class<?> parameterType) {
+        if (UNSAFE == null) return null;
+        try {
+            return UNSAFE.getClass().getMethod(methodName, parameterType);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Invokes the given method of sun.misc.Unsafe.
+     *
+     * @param method   the method to invoke, might be null
+     * @param argument the argument to pass
+     * @return the result of the method, null if the method is not available or fails (e.g. for fields of hidden classes)
+     */
+    private static Object invokeUnsafe(final Method method, final Object argument) {
+        if (method == null) return null;
+        try {
+            return method.invoke(UNSAFE, argument);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Detects the size of references, i.e. of the elements of Object[].
+     *
+     * @return the size of references in bytes
+     */
+    private static int detectReferenceSize() {
+        Integer indexScale = (Integer) invokeUnsafe(ARRAY_INDEX_SCALE, Object[].class);
+        if (indexScale != null) return indexScale;
+
+        // 64 bit JVMs use compressed references for heaps below 32 GB by default
+        return (IS_64_BIT && (Runtime.getRuntime().maxMemory() >= 32L * 1024 * 1024 * 1024)) ? 8 : 4;
+    }
+
+    /**
+     * Detects the size of object headers, i.e. the offset of the only field of a class without super class fields.
+     *
+     * @return the size of object headers in bytes
+     */
+    private static int detectObjectHeaderSize() {
+        try {
+            long offset = getFieldOffset(HeaderProbe.class.getDeclaredField("field"));
+            if (offset > 0) return (int) offset;
+        } catch (NoSuchFieldException e) {
+            assert false : "HeaderProbe should have a field named field";
+        }
+
+        if (!IS_64_BIT) return 8;
+        return (REFERENCE_SIZE == 4) ? 12 : 16;
+    }
+
+    /**
+     * Detects the object alignment via the option ObjectAlignmentInBytes of the HotSpot diagnostic bean.
+     *
+     * @return the object alignment in bytes, 8 if the JVM doesn't report it
+     */
+    private static int detectObjectAlignment() {
+        try {
+            Class<?> beanClass = Class.forName("com.sun.management.HotSpotDiagnosticMXBean");
+            Object bean = ManagementFactory.newPlatformMXBeanProxy(ManagementFactory.getPlatformMBeanServer(),
+                    "com.sun.management:type=HotSpotDiagnostic", beanClass);
+            Object option = beanClass.getMethod("getVMOption", String.class).invoke(bean, "ObjectAlignmentInBytes");
+            return Integer.parseInt((String) option.getClass().getMethod("getValue").invoke(option));
+        } catch (Exception e) {
+            return 8;
+        } catch (LinkageError e) {
+            return 8;
+        }
+    }
+
+    /**
+     * A class with a single field, whose offset is the size of the object header.
+     */
+    private static final class HeaderProbe {
+        @SuppressWarnings("unused")
+        private byte field;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2004-2012 Sebastian Dietrich (Sebastian.Dietrich@e-movimento.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package junit.extensions;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The methods of a class including the methods of its super classes, starting with the methods declared by the class itself. A
+ * method of a super class is left out if the class declares a method with the same signature (including the return type).
+ * <p/>
+ * Indexes are created once per class. The index of a class reuses the {@link MethodInfo}s of the index of its super class, their
+ * signatures are created only when they are asked for.
+ *
+ * @author Sebastian Dietrich (sebastian.dietrich@e-movimento.com)
+ * @see PA#getMethods(Object)
+ * @see PA#getMethodSignatures(Object)
+ */
+final class MethodIndex {
+    /**
+     * The index of null.
+     */
+    private static final MethodIndex EMPTY = new MethodIndex(new MethodInfo[0]);
+
+    /**
+     * Caches the indexes created so far per class.
+     */
+    private static final WeakCache<Class<?>, MethodIndex> INDEXES = new WeakCache<Class<?>, MethodIndex>() {
+        protected MethodIndex computeValue(final Class<?> type) {
+            MethodIndex superIndex = of(type.getSuperclass());
+            Method[] declaredMethods = type.getDeclaredMethods();
+            if (declaredMethods.length == 0) return superIndex;
+
+            List<MethodInfo> methods = new ArrayList<MethodInfo>(declaredMethods.length + superIndex.methods.length);
+            Map<Integer, List<MethodInfo>> declaredBySignature = new HashMap<Integer, List<MethodInfo>>();
+            for (Method method : declaredMethods) {
+                MethodInfo methodInfo = new MethodInfo(method);
+                methods.add(methodInfo);
+                List<MethodInfo> sameHashCode = declaredBySignature.get(methodInfo.signatureHashCode());
+                if (sameHashCode == null) {
+                    sameHashCode = new ArrayList<MethodInfo>(1);
+                    declaredBySignature.put(methodInfo.signatureHashCode(), sameHashCode);
+                }
+                sameHashCode.add(methodInfo);
+            }
+
+            for (MethodInfo inherited : superIndex.methods) {
+                if (!isDeclared(inherited, declaredBySignature.get(inherited.signatureHashCode()))) methods.add(inherited);
+            }
+            return new MethodIndex(methods.toArray(new MethodInfo[methods.size()]));
+        }
+    };
+
+    private final MethodInfo[] methods;
+    private final List<MethodInfo> methodList;
+
+    /**
+     * The signatures of the methods, created when they are asked for the first time.
+     */
+    private volatile Set<String> signatures;
+
+    /**
+     * Creates an index of the given methods.
+     *
+     * @param methods the methods, each signature only once
+     */
+    private MethodIndex(final MethodInfo[] methods) {
+        this.methods = methods;
+        this.methodList = Collections.unmodifiableList(Arrays.asList(methods));
+    }
+
+    /**
+     * Gets the index of the given class.
+     *
+     * @param type the class to get the index of, might be null
+     * @return the index of the class, the empty index if type is null
+     */
+    static MethodIndex of(final Class<?> type) {
+        if (type == null) return EMPTY;
+        return INDEXES.get(type);
+    }
+
+    /**
+     * Gets the methods of this index.
+     *
+     * @return the unmodifiable list of methods
+     */
+    List<MethodInfo> getMethods() {
+        return methodList;
+    }
+
+    /**
+     * Gets the signatures of the methods of this index. The set is created only once per index, when it is asked for the first time.
+     *
+     * @return the unmodifiable set of signatures
+     */
+    Set<String> getSignatures() {
+        Set<String> result = signatures;
+        if (result != null) return result;
+
+        Set<String> signatureSet = new HashSet<String>(methods.length * 4 / 3 + 1);
+        for (MethodInfo method : methods) {
+            signatureSet.add(method.getSignature());
+        }
+        result = Collections.unmodifiableSet(signatureSet);
+        signatures = result;
+        return result;
+    }
+
+    /**
+     * Checks if a method with the same signature as the given one is contained in the given methods.
+     *
+     * @param method  the method to look for
+     * @param methods the methods to search, might be null
+     * @return true if a method with the same signature is contained, false otherwise
+     */
+    private static boolean isDeclared(final MethodInfo method, final List<MethodInfo> methods) {
+        if (methods == null) return false;
+
+        for (MethodInfo declared : methods) {
+            if (declared.hasSameSignature(method)) return true;
+        }
+        return false;
+    }
+}
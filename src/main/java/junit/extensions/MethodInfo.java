@@ -0,0 +1,172 @@
+/*
+ * Copyright 2004-2012 Sebastian Dietrich (Sebastian.Dietrich@e-movimento.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package junit.extensions;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Describes a method (no matter what its access modifier is) of a class or one of its super classes. MethodInfos are created once
+ * per method and shared by the class declaring the method and all its sub classes. They are immutable and thread-safe.
+ * <p/>
+ * The signature of the method (e.g. "void setName(java.lang.String)") is created only when it is asked for the first time.
+ *
+ * @author Sebastian Dietrich (sebastian.dietrich@e-movimento.com)
+ * @see PA#getMethods(Object)
+ */
+public final class MethodInfo {
+    private final Method method;
+    private final Class<?>[] parameterTypes;
+
+    /**
+     * The signature of the method, created on demand.
+     */
+    private volatile String signature;
+
+    /**
+     * Creates the description of the given method.
+     *
+     * @param method the method
+     */
+    MethodInfo(final Method method) {
+        this.method = method;
+        this.parameterTypes = method.getParameterTypes();
+    }
+
+    /**
+     * Gets the name of the method.
+     *
+     * @return the name of the method
+     */
+    public String getName() {
+        return method.getName();
+    }
+
+    /**
+     * Gets the types of the parameters of the method.
+     *
+     * @return a copy of the parameter types
+     */
+    public Class<?>[] getParameterTypes() {
+        return parameterTypes.clone();
+    }
+
+    /**
+     * Gets the types of the parameters of the method without copying them. Callers must not modify the returned array.
+     *
+     * @return the parameter types shared by all callers
+     */
+    Class<?>[] getSharedParameterTypes() {
+        return parameterTypes;
+    }
+
+    /**
+     * Gets the described method.
+     *
+     * @return the method
+     */
+    Method getMethod() {
+        return method;
+    }
+
+    /**
+     * Gets the return type of the method.
+     *
+     * @return the return type of the method
+     */
+    public Class<?> getReturnType() {
+        return method.getReturnType();
+    }
+
+    /**
+     * Gets the class declaring the method.
+     *
+     * @return the class declaring the method
+     */
+    public Class<?> getDeclaringClass() {
+        return method.getDeclaringClass();
+    }
+
+    /**
+     * Checks if the method is static.
+     *
+     * @return true if the method is static, false otherwise
+     */
+    public boolean isStatic() {
+        return Modifier.isStatic(method.getModifiers());
+    }
+
+    /**
+     * Gets the signature of the method including its return type, e.g. "void setName(java.lang.String)". This is the format of
+     * {@link PA#getMethodSignatures(Object)}.
+     *
+     * @return the signature of the method
+     */
+    public String getSignature() {
+        if (signature == null) signature = createSignature();
+        return signature;
+    }
+
+    /**
+     * Returns the signature of the method.
+     *
+     * @return the signature of the method
+     * @see #getSignature()
+     */
+    public String toString() {
+        return getSignature();
+    }
+
+    /**
+     * Checks if the given method has the same name, parameter types and return type as the method described by this info.
+     *
+     * @param other the other method
+     * @return true if the methods have the same signature, false otherwise
+     */
+    boolean hasSameSignature(final MethodInfo other) {
+        if (!method.getName().equals(other.method.getName()) || (method.getReturnType() != other.method.getReturnType())) return false;
+        if (parameterTypes.length != other.parameterTypes.length) return false;
+
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (parameterTypes[i] != other.parameterTypes[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets a hash code consistent with {@link #hasSameSignature(MethodInfo)}.
+     *
+     * @return the hash code of the signature
+     */
+    int signatureHashCode() {
+        return method.getName().hashCode() * 31 + parameterTypes.length;
+    }
+
+    /**
+     * Creates the signature of the method.
+     *
+     * @return the signature of the method
+     */
+    private String createSignature() {
+        StringBuilder buf = new StringBuilder();
+        buf.append(method.getReturnType().getName()).append(" ").append(method.getName()).append("(");
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) buf.append(", ");
+            buf.append(parameterTypes[i].getName());
+        }
+        return buf.append(")").toString();
+    }
+}
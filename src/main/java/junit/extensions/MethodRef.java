@@ -0,0 +1,222 @@
+/*
+ * Copyright 2004-2012 Sebastian Dietrich (Sebastian.Dietrich@e-movimento.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package junit.extensions;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+
+/**
+ * A reference to a method (no matter what its access modifier is) that has been looked up once and can be invoked as often as
+ * needed. MethodRefs are immutable and thread-safe, so you can keep them in static final fields:
+ * <p/>
+ * <pre>
+ * private static final MethodRef&lt;MyClass&gt; SET_NAME = PA.method(MyClass.class, &quot;setName(java.lang.String)&quot;);
+ * ...
+ * SET_NAME.invoke(myObj, &quot;myNewName&quot;);
+ * </pre>
+ * <p/>
+ * Arguments are handled like in {@link PA#invokeMethod(Object, String, Object...)} (varargs, arrays, autoboxing), but whether they
+ * need to be adapted at all is decided once when the reference is created. To invoke a static method pass null as instance.
+ *
+ * @param <T> the type declaring (or inheriting) the method
+ * @author Sebastian Dietrich (sebastian.dietrich@e-movimento.com)
+ * @see PA#method(Class, String)
+ */
+public final class MethodRef<T> {
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+
+    private final Class<T> type;
+    private final String methodSignature;
+    private final Method method;
+    private final Class<?>[] parameterTypes;
+
+    /**
+     * The indexes of the array parameters, the only parameters whose arguments might need to be adapted (e.g. a single object
+     * passed for varargs). Arguments for all other parameters are passed on as they are.
+     */
+    private final int[] arrayParameters;
+
+    /**
+     * Creates a reference to the given method. Use {@link PA#method(Class, String)} to get MethodRefs.
+     *
+     * @param type            the type declaring (or inheriting) the method
+     * @param methodSignature the signature the method was looked up with
+     * @param method          the (accessible) method
+     */
+    MethodRef(final Class<T> type, final String methodSignature, final Method method) {
+        this.type = type;
+        this.methodSignature = methodSignature;
+        this.method = method;
+        this.parameterTypes = method.getParameterTypes();
+
+        int arrayParameterCount = 0;
+        for (Class<?> parameterType : parameterTypes) {
+            if (parameterType.isArray()) arrayParameterCount++;
+        }
+        this.arrayParameters = new int[arrayParameterCount];
+        arrayParameterCount = 0;
+        for (int index = 0; index < parameterTypes.length; index++) {
+            if (parameterTypes[index].isArray()) arrayParameters[arrayParameterCount++] = index;
+        }
+    }
+
+    /**
+     * Gets the name of the referenced method.
+     *
+     * @return the name of the method
+     */
+    public String getName() {
+        return method.getName();
+    }
+
+    /**
+     * Gets the types of the parameters of the referenced method.
+     *
+     * @return a copy of the parameter types
+     */
+    public Class<?>[] getParameterTypes() {
+        return parameterTypes.clone();
+    }
+
+    /**
+     * Gets the return type of the referenced method.
+     *
+     * @return the return type of the method
+     */
+    public Class<?> getReturnType() {
+        return method.getReturnType();
+    }
+
+    /**
+     * Checks if the referenced method is static.
+     *
+     * @return true if the method is static, false otherwise
+     */
+    public boolean isStatic() {
+        return Modifier.isStatic(method.getModifiers());
+    }
+
+    /**
+     * Invokes the referenced method without arguments.
+     *
+     * @param instance the instance to invoke the method on, ignored (and might be null) if the method is static
+     * @return the return value of the method or null if void
+     * @throws RuntimeException         any runtime exception the invoked method has thrown
+     * @throws IllegalArgumentException if the method could not be invoked or threw a non-runtime exception or error
+     * @see PA#invokeMethod(Object, String, Object...)
+     */
+    public Object invoke(final T instance) {
+        return invokeWith(instance, NO_ARGUMENTS);
+    }
+
+    /**
+     * Invokes the referenced method with one argument.
+     *
+     * @param instance the instance to invoke the method on, ignored (and might be null) if the method is static
+     * @param argument the argument to pass to the method
+     * @return the return value of the method or null if void
+     * @throws RuntimeException         any runtime exception the invoked method has thrown
+     * @throws IllegalArgumentException if the method could not be invoked or threw a non-runtime exception or error
+     * @see PA#invokeMethod(Object, String, Object...)
+     */
+    public Object invoke(final T instance, final Object argument) {
+        return invokeWith(instance, new Object[]{argument});
+    }
+
+    /**
+     * Invokes the referenced method with two arguments.
+     *
+     * @param instance       the instance to invoke the method on, ignored (and might be null) if the method is static
+     * @param firstArgument  the first argument to pass to the method
+     * @param secondArgument the second argument to pass to the method
+     * @return the return value of the method or null if void
+     * @throws RuntimeException         any runtime exception the invoked method has thrown
+     * @throws IllegalArgumentException if the method could not be invoked or threw a non-runtime exception or error
+     * @see PA#invokeMethod(Object, String, Object...)
+     */
+    public Object invoke(final T instance, final Object firstArgument, final Object secondArgument) {
+        return invokeWith(instance, new Object[]{firstArgument, secondArgument});
+    }
+
+    /**
+     * Invokes the referenced method with the given arguments. Like in {@link PA#invokeMethod(Object, String, Object...)} a single
+     * array argument can't be distinguished from varargs.
+     *
+     * @param instance  the instance to invoke the method on, ignored (and might be null) if the method is static
+     * @param arguments the arguments to pass to the method
+     * @return the return value of the method or null if void
+     * @throws RuntimeException         any runtime exception the invoked method has thrown
+     * @throws IllegalArgumentException if the method could not be invoked or threw a non-runtime exception or error
+     * @see PA#invokeMethod(Object, String, Object...)
+     */
+    public Object invoke(final T instance, final Object... arguments) {
+        return invokeWith(instance, PA.correctVarargs(arguments));
+    }
+
+    /**
+     * Returns a string representation of this reference, e.g. "MethodRef(mypackage.MyClass.setName(java.lang.String))".
+     *
+     * @return a string representation of this reference
+     */
+    public String toString() {
+        return "MethodRef(" + type.getName() + "." + methodSignature + ")";
+    }
+
+    /**
+     * Checks if the given arguments can be passed to the referenced method as they are, i.e. if there is one argument per parameter
+     * and each argument for an array parameter is null or exactly of the parameter's type. Only the array parameters are checked.
+     *
+     * @param arguments the arguments to pass to the method
+     * @return true if the arguments don't need to be adapted, false otherwise
+     */
+    private boolean matchesParameters(final Object[] arguments) {
+        if (arguments.length != parameterTypes.length) return false;
+
+        for (int index : arrayParameters) {
+            Object argument = arguments[index];
+            if ((argument != null) && (argument.getClass() != parameterTypes[index])) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Invokes the referenced method with the given arguments, adapts the arguments to the parameters if necessary.
+     *
+     * @param instance  the instance to invoke the method on
+     * @param arguments the arguments to pass to the method
+     * @return the return value of the method or null if void
+     */
+    @SuppressWarnings("deprecation")
+    private Object invokeWith(final T instance, final Object[] arguments) {
+        Object[] adaptedArguments = arguments;
+        if ((arguments != null) && !matchesParameters(arguments)) {
+            adaptedArguments = PrivilegedAccessor.getCorrectedArguments(parameterTypes, arguments);
+        }
+
+        try {
+            return PrivilegedAccessor.invoke(method, instance, adaptedArguments);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Can't access method " + methodSignature + " of " + instance + " with arguments "
+                    + Arrays.toString(arguments), e);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalArgumentException("Invoking method " + methodSignature + " on " + instance + " with arguments "
+                    + Arrays.toString(arguments) + " threw the non-runtime exception " + e.getClass().getName(), e);
+        }
+    }
+}
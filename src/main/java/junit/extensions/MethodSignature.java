@@ -0,0 +1,306 @@
+/*
+ * Copyright 2004-2012 Sebastian Dietrich (Sebastian.Dietrich@e-movimento.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package junit.extensions;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The parsed (immutable) form of a method signature like "myMethod(java.lang.String, int)", i.e. the name of the method and the
+ * types of its parameters. Signatures are parsed once per class loader, later calls get the parsed signature from a cache.
+ * <p/>
+ * The following syntax is understood:
+ * <ul>
+ * <li>java syntax with fully qualified or 'standard' (e.g. String) type names: <code>myMethod(java.lang.String, int)</code></li>
+ * <li>arrays and varargs: <code>myMethod(int[], String...)</code></li>
+ * <li>generic types, whereas type arguments are ignored: <code>myMethod(java.util.Map&lt;String, List&lt;Integer&gt;&gt;)</code></li>
+ * <li>JVM method descriptors: <code>myMethod(ILjava/lang/String;[I)V</code> (the return type is optional)</li>
+ * </ul>
+ *
+ * @author Sebastian Dietrich (sebastian.dietrich@e-movimento.com)
+ */
+final class MethodSignature {
+    /**
+     * Caches the signatures already parsed per class loader.
+     */
+    private static final WeakCache<ClassLoader, ConcurrentMap<String, MethodSignature>> SIGNATURES =
+            new WeakCache<ClassLoader, ConcurrentMap<String, MethodSignature>>() {
+        protected ConcurrentMap<String, MethodSignature> computeValue(final ClassLoader classLoader) {
+            return new ConcurrentHashMap<String, MethodSignature>();
+        }
+    };
+
+    private final String name;
+    private final Class<?>[] parameterTypes;
+
+    /**
+     * Private constructor to make it impossible to instantiate this class from outside of MethodSignature.
+     *
+     * @param name           the name of the method
+     * @param parameterTypes the types of the parameters of the method
+     */
+    private MethodSignature(final String name, final Class<?>[] parameterTypes) {
+        this.name = name;
+        this.parameterTypes = parameterTypes;
+    }
+
+    /**
+     * Parses the given method signature. Types are loaded with the given class loader.
+     *
+     * @param methodSignature the signature to parse (e.g. "myMethod(java.lang.String, int)")
+     * @param classLoader     the class loader to load the parameter types with
+     * @return the parsed signature
+     * @throws NoSuchMethodException if the signature is malformed or one of its parameter types can't be found
+     */
+    static MethodSignature parse(final String methodSignature, final ClassLoader classLoader) throws NoSuchMethodException {
+        ConcurrentMap<String, MethodSignature> signatures = SIGNATURES.get(classLoader);
+        MethodSignature signature = signatures.get(methodSignature);
+        if (signature != null) return signature;
+
+        signature = parseSignature(methodSignature, classLoader);
+        signatures.putIfAbsent(methodSignature, signature);
+        return signature;
+    }
+
+    /**
+     * Gets the name of the method.
+     *
+     * @return the name of the method
+     */
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the types of the parameters of the method.
+     *
+     * @return a copy of the parameter types
+     */
+    Class<?>[] getParameterTypes() {
+        return parameterTypes.clone();
+    }
+
+    /**
+     * Checks if the given object is a signature with the same name and the same parameter types. Signatures parsed with different
+     * class loaders are equal if their parameter types have been loaded by the same class loaders.
+     *
+     * @param other the object to compare with
+     * @return true if the given object is an equal signature, false otherwise
+     */
+    public boolean equals(final Object other) {
+        if (this == other) return true;
+        if (!(other instanceof MethodSignature)) return false;
+        return name.equals(((MethodSignature) other).name) && Arrays.equals(parameterTypes, ((MethodSignature) other).parameterTypes);
+    }
+
+    /**
+     * Gets a hash code of this signature, computed from the name and the parameter types.
+     *
+     * @return the hash code
+     */
+    public int hashCode() {
+        return 31 * name.hashCode() + Arrays.hashCode(parameterTypes);
+    }
+
+    /**
+     * Parses the given method signature without using the cache.
+     *
+     * @param methodSignature the signature to parse
+     * @param classLoader     the class loader to load the parameter types with
+     * @return the parsed signature
+     * @throws NoSuchMethodException if the signature is malformed or one of its parameter types can't be found
+     */
+    private static MethodSignature parseSignature(final String methodSignature, final ClassLoader classLoader)
+            throws NoSuchMethodException {
+        int openingBrace = methodSignature.indexOf('(');
+        int closingBrace = methodSignature.lastIndexOf(')');
+        if ((openingBrace == -1) || (openingBrace >= closingBrace)) throw new NoSuchMethodException(methodSignature);
+
+        String methodName = methodSignature.substring(0, openingBrace).trim();
+        String parameters = methodSignature.substring(openingBrace + 1, closingBrace);
+        String returnType = methodSignature.substring(closingBrace + 1).trim();
+
+        try {
+            if ((returnType.length() > 0) || isDescriptor(parameters)) {
+                return new MethodSignature(methodName, parseDescriptor(parameters, classLoader));
+            }
+            return new MethodSignature(methodName, parseParameterList(parameters, classLoader));
+        } catch (ClassNotFoundException e) {
+            NoSuchMethodException noSuchMethodException = new NoSuchMethodException(methodSignature);
+            noSuchMethodException.initCause(e);
+            throw noSuchMethodException;
+        }
+    }
+
+    /**
+     * Checks if the given parameters (without braces) are written as a JVM method descriptor. Descriptors contain class names with
+     * slashes and semicolons (e.g. "Ljava/lang/String;[I") or consist of descriptor characters only (e.g. "IJ"), whereas parameter
+     * lists in java syntax contain commas between their parameters and type names with lower case letters.
+     *
+     * @param parameters the parameters without braces
+     * @return true if the parameters are a descriptor, false if they are in java syntax
+     */
+    private static boolean isDescriptor(final String parameters) {
+        if ((parameters.indexOf(';') != -1) || (parameters.indexOf('/') != -1)) return true;
+        if (parameters.length() == 0) return false;
+
+        for (int index = 0; index < parameters.length(); index++) {
+            if ("ZBCSIJFD[L".indexOf(parameters.charAt(index)) == -1) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Parses a comma separated list of parameter types in java syntax (e.g. "java.lang.String, int[], List&lt;String&gt;").
+     *
+     * @param parameters  the parameter list without braces
+     * @param classLoader the class loader to load the parameter types with
+     * @return the parameter types
+     * @throws ClassNotFoundException if one of the parameter types can't be found
+     */
+    private static Class<?>[] parseParameterList(final String parameters, final ClassLoader classLoader) throws ClassNotFoundException {
+        List<Class<?>> types = new ArrayList<Class<?>>();
+        int genericsDepth = 0;
+        int start = 0;
+        for (int index = 0; index <= parameters.length(); index++) {
+            char character = (index < parameters.length()) ? parameters.charAt(index) : ',';
+            if (character == '<') {
+                genericsDepth++;
+            } else if (character == '>') {
+                genericsDepth--;
+            } else if ((character == ',') && (genericsDepth == 0)) {
+                Class<?> type = parseParameter(parameters.substring(start, index), classLoader);
+                if (type != null) types.add(type);
+                start = index + 1;
+            }
+        }
+        return types.toArray(new Class<?>[types.size()]);
+    }
+
+    /**
+     * Parses a single parameter type in java syntax. Ignores whitespace and type arguments, considers array brackets and varargs.
+     *
+     * @param parameter   the parameter type (e.g. "java.util.List&lt;String&gt; []")
+     * @param classLoader the class loader to load the parameter type with
+     * @return the parameter type or null if the given parameter is blank
+     * @throws ClassNotFoundException if the parameter type can't be found
+     */
+    private static Class<?> parseParameter(final String parameter, final ClassLoader classLoader) throws ClassNotFoundException {
+        StringBuilder typeName = new StringBuilder(parameter.length());
+        int dimensions = 0;
+        int genericsDepth = 0;
+        boolean inBrackets = false;
+        for (int index = 0; index < parameter.length(); index++) {
+            char character = parameter.charAt(index);
+            if (character == '<') {
+                genericsDepth++;
+            } else if (character == '>') {
+                genericsDepth--;
+            } else if ((genericsDepth > 0) || Character.isWhitespace(character)) {
+                continue;
+            } else if (character == '[') {
+                dimensions++;
+                inBrackets = true;
+            } else if (character == ']') {
+                inBrackets = false;
+            } else if (!inBrackets) {
+                typeName.append(character);
+            }
+        }
+
+        if (typeName.length() == 0) return null;
+        if (typeName.toString().endsWith("...")) {
+            typeName.setLength(typeName.length() - "...".length());
+            dimensions++;
+        }
+        return getArrayType(ClassNameResolver.getClassForName(typeName.toString(), classLoader), dimensions);
+    }
+
+    /**
+     * Parses the parameter types of a JVM method descriptor (e.g. "ILjava/lang/String;[I").
+     *
+     * @param descriptor  the parameter part of the descriptor without braces
+     * @param classLoader the class loader to load the parameter types with
+     * @return the parameter types
+     * @throws ClassNotFoundException if the descriptor is malformed or one of the parameter types can't be found
+     */
+    private static Class<?>[] parseDescriptor(final String descriptor, final ClassLoader classLoader) throws ClassNotFoundException {
+        List<Class<?>> types = new ArrayList<Class<?>>();
+        int index = 0;
+        while (index < descriptor.length()) {
+            int dimensions = 0;
+            while ((index < descriptor.length()) && (descriptor.charAt(index) == '[')) {
+                dimensions++;
+                index++;
+            }
+            if (index == descriptor.length()) throw new ClassNotFoundException(descriptor);
+
+            Class<?> type;
+            char character = descriptor.charAt(index);
+            if (character == 'L') {
+                int end = descriptor.indexOf(';', index);
+                if (end == -1) throw new ClassNotFoundException(descriptor);
+                type = ClassNameResolver.getClassForName(descriptor.substring(index + 1, end).replace('/', '.'), classLoader);
+                index = end + 1;
+            } else {
+                type = getPrimitiveType(character);
+                if (type == null) throw new ClassNotFoundException(descriptor);
+                index++;
+            }
+            types.add(getArrayType(type, dimensions));
+        }
+        return types.toArray(new Class<?>[types.size()]);
+    }
+
+    /**
+     * Gets the primitive type for the given descriptor character.
+     *
+     * @param descriptor the descriptor character (e.g. 'I' for int)
+     * @return the primitive type or null if the given character doesn't denote a (non-void) primitive
+     */
+    private static Class<?> getPrimitiveType(final char descriptor) {
+        switch (descriptor) {
+            case 'Z': return Boolean.TYPE;
+            case 'B': return Byte.TYPE;
+            case 'C': return Character.TYPE;
+            case 'S': return Short.TYPE;
+            case 'I': return Integer.TYPE;
+            case 'J': return Long.TYPE;
+            case 'F': return Float.TYPE;
+            case 'D': return Double.TYPE;
+            default: return null;
+        }
+    }
+
+    /**
+     * Gets the array type with the given number of dimensions of the given component type.
+     *
+     * @param componentType the component type
+     * @param dimensions    the number of dimensions, 0 for the component type itself
+     * @return the array type
+     */
+    private static Class<?> getArrayType(final Class<?> componentType, final int dimensions) {
+        Class<?> type = componentType;
+        for (int dimension = 0; dimension < dimensions; dimension++) {
+            type = Array.newInstance(type, 0).getClass();
+        }
+        return type;
+    }
+}
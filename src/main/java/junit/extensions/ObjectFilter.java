@@ -0,0 +1,32 @@
+/*
+ * Copyright 2004-2012 Sebastian Dietrich (Sebastian.Dietrich@e-movimento.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package junit.extensions;
+
+/**
+ * Decides which objects PA is looking for when it searches an object graph, e.g. in
+ * {@link PA#findPaths(Object, ObjectFilter, int)}.
+ *
+ * @author Sebastian Dietrich (sebastian.dietrich@e-movimento.com)
+ */
+public interface ObjectFilter {
+    /**
+     * Checks if the given object is one of the objects looked for.
+     *
+     * @param object the object, never null
+     * @return true if the object is looked for, false otherwise
+     */
+    boolean accept(Object object);
+}
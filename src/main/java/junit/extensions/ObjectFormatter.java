@@ -0,0 +1,340 @@
+/*
+ * Copyright 2004-2012 Sebastian Dietrich (Sebastian.Dietrich@e-movimento.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package junit.extensions;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Writes string representations of objects including their private fields to an {@link Appendable}. The representation has the
+ * format "&lt;classname&gt; {&lt;attribute&gt;=&lt;value&gt;, ...}" and contains all fields of the object's class followed by the
+ * fields of its super classes (see {@link PA#fieldTable(Class)}).
+ * <p/>
+ * Field values are formatted recursively up to the maximum depth, deeper objects are abbreviated (e.g. "mypackage.MyClass {...}").
+ * Arrays, collections and maps are formatted element by element up to the maximum number of elements. Strings, numbers, enums and
+ * all other types of the JDK are formatted via their own toString(). An object that is already being formatted (i.e. a reference
+ * cycle) is formatted as "&lt;cycle&gt;". Output exceeding the maximum length is cut off and ends with "...".
+ * <p/>
+ * ObjectFormatters are immutable and thread-safe:
+ * <p/>
+ * <pre>
+ * ObjectFormatter formatter = new ObjectFormatter(3, 10, 1000);
+ * formatter.format(myObj, System.out);
+ * </pre>
+ *
+ * @author Sebastian Dietrich (sebastian.dietrich@e-movimento.com)
+ * @see PA#toString(Object)
+ */
+public final class ObjectFormatter {
+    /**
+     * Formats field values up to a depth of 2, up to 100 elements per array, collection or map and up to 64k characters.
+     */
+    public static final ObjectFormatter DEFAULT = new ObjectFormatter(2, 100, 64 * 1024);
+
+    private final int maxDepth;
+    private final int maxElements;
+    private final int maxLength;
+
+    /**
+     * Creates a formatter with the given limits.
+     *
+     * @param maxDepth    the number of levels of fields, elements and entries to format, deeper objects are abbreviated
+     * @param maxElements the maximum number of elements to format per array, collection or map
+     * @param maxLength   the maximum number of characters to write
+     * @throws IllegalArgumentException if a limit is negative
+     */
+    public ObjectFormatter(final int maxDepth, final int maxElements, final int maxLength) {
+        if ((maxDepth < 0) || (maxElements < 0) || (maxLength < 0)) {
+            throw new IllegalArgumentException("Limits must not be negative: " + maxDepth + ", " + maxElements + ", " + maxLength);
+        }
+        this.maxDepth = maxDepth;
+        this.maxElements = maxElements;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Returns a string representation of the given object. If instanceOrClass is a class, its static fields are formatted.
+     *
+     * @param instanceOrClass the object or class to get a string representation of
+     * @return a string representation of the given object
+     */
+    public String format(final Object instanceOrClass) {
+        StringBuilder buf = new StringBuilder();
+        try {
+            format(instanceOrClass, buf);
+        } catch (IOException e) {
+            assert false : "A StringBuilder should never throw an IOException";
+        }
+        return buf.toString();
+    }
+
+    /**
+     * Writes a string representation of the given object to the given appendable. If instanceOrClass is a class, its static fields
+     * are formatted.
+     *
+     * @param instanceOrClass the object or class to write a string representation of
+     * @param out             the appendable to write to
+     * @throws IOException if the appendable throws an IOException
+     */
+    public void format(final Object instanceOrClass, final Appendable out) throws IOException {
+        Output output = new Output(out, maxLength);
+        try {
+            if (instanceOrClass instanceof Class) {
+                formatFields((Class<?>) instanceOrClass, null, output, 0);
+            } else {
+                formatValue(instanceOrClass, output, 0);
+            }
+        } catch (LengthExceeded e) {
+            out.append("...");
+        }
+    }
+
+    /**
+     * Formats the given value.
+     *
+     * @param value  the value to format
+     * @param output the output to write to
+     * @param depth  the level of the value, 0 for the object to format
+     * @throws IOException if the appendable throws an IOException
+     */
+    private void formatValue(final Object value, final Output output, final int depth) throws IOException {
+        if (value == null) {
+            output.append("null");
+            return;
+        }
+
+        Class<?> type = value.getClass();
+        boolean isContainer = type.isArray() || (value instanceof Collection) || (value instanceof Map);
+        if (!isContainer && isFormattedByToString(type)) {
+            output.append(String.valueOf(value));
+        } else if (output.isBeingFormatted(value)) {
+            output.append("<cycle>");
+        } else if (depth >= maxDepth) {
+            output.append(isContainer ? ((value instanceof Map) ? "{...}" : "[...]") : type.getName() + " {...}");
+        } else {
+            output.enter(value);
+            if (type.isArray()) {
+                formatArray(value, output, depth);
+            } else if (value instanceof Collection) {
+                output.append("[");
+                formatElements(((Collection<?>) value).iterator(), ((Collection<?>) value).size(), output, depth);
+                output.append("]");
+            } else if (value instanceof Map) {
+                output.append("{");
+                formatElements(((Map<?, ?>) value).entrySet().iterator(), ((Map<?, ?>) value).size(), output, depth);
+                output.append("}");
+            } else {
+                formatFields(type, value, output, depth);
+            }
+            output.leave(value);
+        }
+    }
+
+    /**
+     * Formats the fields of the given instance (or the static fields of the given class if instance is null) as
+     * "&lt;classname&gt; {&lt;attribute&gt;=&lt;value&gt;, ...}". If there are no fields only the class name is formatted.
+     *
+     * @param type     the class of the instance
+     * @param instance the instance to format, null to format the static fields of type
+     * @param output   the output to write to
+     * @param depth    the level of the instance
+     * @throws IOException if the appendable throws an IOException
+     */
+    private void formatFields(final Class<?> type, final Object instance, final Output output, final int depth) throws IOException {
+        FieldTable<Object> fields = FieldTable.forInstanceOrClass(type);
+        output.append(type.getName());
+
+        String separator = " {";
+        for (int i = 0; i < fields.size(); i++) {
+            if ((instance == null) && !fields.isStatic(i)) continue;
+
+            output.append(separator).append(fields.getName(i)).append("=");
+            separator = ", ";
+            Object value;
+            try {
+                value = fields.get(instance, i);
+            } catch (IllegalArgumentException e) {
+                output.append("<inaccessible>");
+                continue;
+            }
+            formatValue(value, output, depth + 1);
+        }
+        if (separator.equals(", ")) output.append("}");
+    }
+
+    /**
+     * Formats the elements of the given array as "[&lt;element&gt;, ...]".
+     *
+     * @param array  the array to format
+     * @param output the output to write to
+     * @param depth  the level of the array
+     * @throws IOException if the appendable throws an IOException
+     */
+    private void formatArray(final Object array, final Output output, final int depth) throws IOException {
+        int length = Array.getLength(array);
+        output.append("[");
+        for (int i = 0; (i < length) && (i < maxElements); i++) {
+            if (i > 0) output.append(", ");
+            formatValue(Array.get(array, i), output, depth + 1);
+        }
+        formatRemainder(length, output);
+        output.append("]");
+    }
+
+    /**
+     * Formats the given elements of a collection or the given entries of a map (as "&lt;key&gt;=&lt;value&gt;"), separated by
+     * commas.
+     *
+     * @param elements the elements or entries to format
+     * @param size     the number of elements or entries
+     * @param output   the output to write to
+     * @param depth    the level of the collection or map
+     * @throws IOException if the appendable throws an IOException
+     */
+    private void formatElements(final Iterator<?> elements, final int size, final Output output, final int depth) throws IOException {
+        for (int i = 0; elements.hasNext() && (i < maxElements); i++) {
+            if (i > 0) output.append(", ");
+            Object element = elements.next();
+            if (element instanceof Map.Entry) {
+                formatValue(((Map.Entry<?, ?>) element).getKey(), output, depth + 1);
+                output.append("=");
+                formatValue(((Map.Entry<?, ?>) element).getValue(), output, depth + 1);
+            } else {
+                formatValue(element, output, depth + 1);
+            }
+        }
+        formatRemainder(size, output);
+    }
+
+    /**
+     * Formats the number of elements that are left out because of the maximum number of elements, e.g. ", ... (5 more)".
+     *
+     * @param size   the number of elements
+     * @param output the output to write to
+     * @throws IOException if the appendable throws an IOException
+     */
+    private void formatRemainder(final int size, final Output output) throws IOException {
+        if (size <= maxElements) return;
+        output.append((maxElements > 0) ? ", ... (" : "... (").append(String.valueOf(size - maxElements)).append(" more)");
+    }
+
+    /**
+     * Checks if objects of the given type are formatted via their own toString() instead of their fields. This is the case for
+     * strings, numbers, enums, classes and all other types of the JDK (except Object).
+     *
+     * @param type the type to check
+     * @return true if the type is formatted via toString(), false otherwise
+     */
+    private static boolean isFormattedByToString(final Class<?> type) {
+        if (type == Object.class) return false;
+        if (CharSequence.class.isAssignableFrom(type) || Number.class.isAssignableFrom(type) || Enum.class.isAssignableFrom(type))
+            return true;
+        return type.getName().startsWith("java.") || type.getName().startsWith("javax.");
+    }
+
+    /**
+     * Writes to an appendable up to a maximum number of characters and keeps track of the objects being formatted.
+     */
+    private static final class Output {
+        private final Appendable out;
+        private final int maxLength;
+        private int length;
+
+        /**
+         * The objects currently being formatted (i.e. the path from the formatted object to the current value), compared by
+         * identity.
+         */
+        private final Map<Object, Object> beingFormatted = new IdentityHashMap<Object, Object>();
+
+        /**
+         * Creates an output writing to the given appendable.
+         *
+         * @param out       the appendable to write to
+         * @param maxLength the maximum number of characters to write
+         */
+        private Output(final Appendable out, final int maxLength) {
+            this.out = out;
+            this.maxLength = maxLength;
+        }
+
+        /**
+         * Writes the given characters. If they exceed the maximum length, only the characters up to the maximum length are written.
+         *
+         * @param csq the characters to write
+         * @return this output
+         * @throws IOException     if the appendable throws an IOException
+         * @throws LengthExceeded if the maximum length has been exceeded
+         */
+        private Output append(final CharSequence csq) throws IOException {
+            if (length + csq.length() > maxLength) {
+                out.append(csq, 0, maxLength - length);
+                length = maxLength;
+                throw new LengthExceeded();
+            }
+            out.append(csq);
+            length += csq.length();
+            return this;
+        }
+
+        /**
+         * Checks if the given object is currently being formatted, i.e. if formatting it again would result in a cycle.
+         *
+         * @param value the object to check
+         * @return true if the object is being formatted, false otherwise
+         */
+        private boolean isBeingFormatted(final Object value) {
+            return beingFormatted.containsKey(value);
+        }
+
+        /**
+         * Marks the given object as being formatted.
+         *
+         * @param value the object whose formatting starts
+         */
+        private void enter(final Object value) {
+            beingFormatted.put(value, value);
+        }
+
+        /**
+         * Marks the given object as no longer being formatted.
+         *
+         * @param value the object whose formatting is finished
+         */
+        private void leave(final Object value) {
+            beingFormatted.remove(value);
+        }
+    }
+
+    /**
+     * Thrown to stop formatting as soon as the maximum length has been exceeded.
+     */
+    private static final class LengthExceeded extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Does not fill in the stack trace, since this exception is always caught by the formatter.
+         *
+         * @return this exception
+         */
+        public Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
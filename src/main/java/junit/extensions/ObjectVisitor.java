@@ -0,0 +1,35 @@
+/*
+ * Copyright 2004-2012 Sebastian Dietrich (Sebastian.Dietrich@e-movimento.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package junit.extensions;
+
+/**
+ * Gets called for each object reachable from the root of a walk over an object graph (see {@link PA#walk(Object, ObjectVisitor)}).
+ * <p/>
+ * Each object is visited only once, even if it is referenced several times. Visitors used in a parallel walk get called by several
+ * threads concurrently and must therefore be thread-safe.
+ *
+ * @author Sebastian Dietrich (sebastian.dietrich@e-movimento.com)
+ */
+public interface ObjectVisitor {
+    /**
+     * Visits the given object.
+     *
+     * @param object the object reached, never null
+     * @return true to walk on to the objects referenced by the given object, false to skip them (unless they are reachable via
+     *         other objects)
+     */
+    boolean visit(Object object);
+}
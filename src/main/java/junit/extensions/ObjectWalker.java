@@ -0,0 +1,369 @@
+/*
+ * Copyright 2004-2012 Sebastian Dietrich (Sebastian.Dietrich@e-movimento.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package junit.extensions;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Walks over all objects reachable from a root object via instance fields (no matter what their access modifiers are, including
+ * the fields of all super classes) and elements of arrays, and passes each object exactly once to an {@link ObjectVisitor}.
+ * <p/>
+ * The walk keeps the objects still to visit on a stack instead of recursing, so even long chains of objects (e.g. linked lists)
+ * don't cause a StackOverflowError. Objects already reached are tracked in an {@link IdentitySet} (or a
+ * {@link ConcurrentIdentitySet} in a parallel walk).
+ * <p/>
+ * A parallel walk is done by the calling thread together with helpers running in a given executor. Whenever a walker has more
+ * objects on its stack than it can handle alone, it moves a chunk of them to a queue shared by all walkers. The calling thread
+ * returns as soon as all reachable objects have been visited, no matter if the helpers ever got started, so even a busy
+ * executor can't block the walk.
+ * <p/>
+ * Objects of class Class are visited but not walked into, since their fields belong to the JVM. Fields that can't be made
+ * accessible (e.g. of classes in modules that are not open) are skipped. Collections and maps with such fields (e.g. ArrayList or
+ * HashMap on Java 16+) are walked into via their public methods instead, so their elements (or keys and values) are still reached.
+ *
+ * @author Sebastian Dietrich (sebastian.dietrich@e-movimento.com)
+ * @see PA#walk(Object, ObjectVisitor)
+ */
+final class ObjectWalker {
+    /**
+     * The number of objects a walker moves to the shared queue at once.
+     */
+    private static final int CHUNK_SIZE = 256;
+
+    private static final Field[] NO_FIELDS = new Field[0];
+
+    /**
+     * Caches the accessible instance fields per class, including the fields of all super classes.
+     */
+    private static final WeakCache<Class<?>, Field[]> INSTANCE_FIELDS = new WeakCache<Class<?>, Field[]>() {
+        protected Field[] computeValue(final Class<?> type) {
+            List<Field> instanceFields = new ArrayList<Field>();
+            for (Field field : FieldIndex.of(type)) {
+                if (Modifier.isStatic(field.getModifiers())) continue;
+                try {
+                    field.setAccessible(true);
+                    instanceFields.add(field);
+                } catch (RuntimeException e) {
+                    // the field can't be made accessible (e.g. since its module is not open), so it is skipped
+                }
+            }
+            return instanceFields.isEmpty() ? NO_FIELDS : instanceFields.toArray(new Field[instanceFields.size()]);
+        }
+    };
+
+    /**
+     * Caches the accessible instance fields of reference types per class, including the fields of all super classes.
+     */
+    private static final WeakCache<Class<?>, Field[]> REFERENCE_FIELDS = new WeakCache<Class<?>, Field[]>() {
+        protected Field[] computeValue(final Class<?> type) {
+            List<Field> referenceFields = new ArrayList<Field>();
+            for (Field field : INSTANCE_FIELDS.get(type)) {
+                if (!field.getType().isPrimitive()) referenceFields.add(field);
+            }
+            return referenceFields.isEmpty() ? NO_FIELDS : referenceFields.toArray(new Field[referenceFields.size()]);
+        }
+    };
+
+    /**
+     * Caches per class if the contents of its instances are walked via their public methods, which is the case for collections and
+     * maps with instance fields that can't be made accessible.
+     */
+    private static final WeakCache<Class<?>, Boolean> WALKS_CONTENTS = new WeakCache<Class<?>, Boolean>() {
+        protected Boolean computeValue(final Class<?> type) {
+            if (!Collection.class.isAssignableFrom(type) && !Map.class.isAssignableFrom(type)) return Boolean.FALSE;
+
+            int instanceFields = 0;
+            for (Field field : FieldIndex.of(type)) {
+                if (!Modifier.isStatic(field.getModifiers())) instanceFields++;
+            }
+            return instanceFields > INSTANCE_FIELDS.get(type).length;
+        }
+    };
+
+    private final ObjectVisitor visitor;
+    private final int parallelism;
+
+    /**
+     * The objects reached so far in a sequential walk, null for a parallel walk.
+     */
+    private final IdentitySet reached;
+
+    /**
+     * The objects reached so far in a parallel walk, null for a sequential walk.
+     */
+    private final ConcurrentIdentitySet sharedReached;
+
+    /**
+     * The chunks of objects shared by the walkers of a parallel walk, null for a sequential walk.
+     */
+    private final ConcurrentLinkedQueue<Object[]> sharedObjects;
+    private final AtomicInteger sharedChunks = new AtomicInteger();
+
+    /**
+     * The number of walkers holding objects to visit plus the number of shared chunks. The walk is finished as soon as this drops to
+     * zero, since then there are no objects left that could reach further objects.
+     */
+    private final AtomicInteger outstanding = new AtomicInteger(1);
+
+    private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+    /**
+     * Creates a walk.
+     *
+     * @param visitor     the visitor to pass the reachable objects to
+     * @param parallelism the number of threads walking concurrently
+     */
+    private ObjectWalker(final ObjectVisitor visitor, final int parallelism) {
+        this.visitor = visitor;
+        this.parallelism = parallelism;
+        this.reached = (parallelism == 1) ? new IdentitySet() : null;
+        this.sharedReached = (parallelism == 1) ? null : new ConcurrentIdentitySet();
+        this.sharedObjects = (parallelism == 1) ? null : new ConcurrentLinkedQueue<Object[]>();
+    }
+
+    /**
+     * Walks over all objects reachable from the given root in the calling thread.
+     *
+     * @param root    the object to start with, nothing is visited if root is null
+     * @param visitor the visitor to pass the reachable objects to
+     */
+    static void walk(final Object root, final ObjectVisitor visitor) {
+        if (root == null) return;
+        new ObjectWalker(visitor, 1).walkFrom(root);
+    }
+
+    /**
+     * Walks over all objects reachable from the given root in the calling thread and up to parallelism - 1 helpers started in the
+     * given executor.
+     *
+     * @param root        the object to start with, nothing is visited if root is null
+     * @param visitor     the (thread-safe) visitor to pass the reachable objects to
+     * @param executor    the executor to start the helpers in
+     * @param parallelism the maximum number of threads walking concurrently
+     */
+    static void walk(final Object root, final ObjectVisitor visitor, final Executor executor, final int parallelism) {
+        if (root == null) return;
+        if (parallelism == 1) {
+            walk(root, visitor);
+            return;
+        }
+
+        final ObjectWalker walker = new ObjectWalker(visitor, parallelism);
+        for (int i = 1; i < parallelism; i++) {
+            try {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        walker.help();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                break; // walking with fewer helpers is slower, but still works
+            }
+        }
+        walker.walkFrom(root);
+    }
+
+    /**
+     * Gets the accessible instance fields of the given class, including the fields of all super classes.
+     *
+     * @param type the class to get the fields of
+     * @return the fields, shared and therefore not to be modified
+     */
+    static Field[] getInstanceFields(final Class<?> type) {
+        return INSTANCE_FIELDS.get(type);
+    }
+
+    /**
+     * Gets the accessible instance fields of reference types of the given class, including the fields of all super classes.
+     *
+     * @param type the class to get the fields of
+     * @return the fields, shared and therefore not to be modified
+     */
+    static Field[] getReferenceFields(final Class<?> type) {
+        return REFERENCE_FIELDS.get(type);
+    }
+
+    /**
+     * Checks if the contents of the instances of the given class are walked via their public methods, since some of their fields
+     * can't be made accessible.
+     *
+     * @param type the class to check
+     * @return true if the class is a collection or map whose contents are walked via {@link #getContents(Object)}, false otherwise
+     */
+    static boolean walksContents(final Class<?> type) {
+        return WALKS_CONTENTS.get(type);
+    }
+
+    /**
+     * Gets the contents of the given collection or map via its public methods.
+     *
+     * @param object the collection or map
+     * @return the elements of the collection or the keys and values of the map (alternating)
+     * @throws IllegalArgumentException if the contents can't be read
+     */
+    static Object[] getContents(final Object object) {
+        try {
+            if (object instanceof Collection) return ((Collection<?>) object).toArray();
+
+            Map<?, ?> map = (Map<?, ?>) object;
+            List<Object> keysAndValues = new ArrayList<Object>(2 * map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                keysAndValues.add(entry.getKey());
+                keysAndValues.add(entry.getValue());
+            }
+            return keysAndValues.toArray();
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Can't get the contents of " + object.getClass().getName(), e);
+        }
+    }
+
+    /**
+     * Walks from the given root until all reachable objects have been visited and rethrows the first exception thrown by the
+     * visitor (in any thread).
+     *
+     * @param root the object to start with
+     */
+    private void walkFrom(final Object root) {
+        List<Object> stack = new ArrayList<Object>();
+        markReached(root);
+        stack.add(root);
+        try {
+            work(stack, true);
+        } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+        }
+
+        Throwable e = failure.get();
+        if (e instanceof RuntimeException) throw (RuntimeException) e;
+        if (e instanceof Error) throw (Error) e;
+        if (e != null) throw new IllegalArgumentException("Walking the objects reachable from " + root.getClass().getName() + " failed", e);
+    }
+
+    /**
+     * Helps walking by taking over shared objects until the walk is finished.
+     */
+    private void help() {
+        try {
+            work(new ArrayList<Object>(), false);
+        } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+        }
+    }
+
+    /**
+     * Visits the objects on the given stack (and the objects reachable from them) and, in a parallel walk, takes over shared objects
+     * until no objects are left or some walker failed.
+     *
+     * @param stack     the objects reached but not yet visited
+     * @param holdsWork true if the stack is counted as outstanding
+     */
+    private void work(final List<Object> stack, final boolean holdsWork) {
+        boolean isCounted = holdsWork;
+        while (failure.get() == null) {
+            if (!stack.isEmpty()) {
+                visit(stack.remove(stack.size() - 1), stack);
+                if ((sharedObjects != null) && (stack.size() >= 2 * CHUNK_SIZE) && (sharedChunks.get() < parallelism)) share(stack);
+                continue;
+            }
+
+            Object[] chunk = (sharedObjects == null) ? null : sharedObjects.poll();
+            if (chunk != null) {
+                sharedChunks.decrementAndGet();
+                if (isCounted) outstanding.decrementAndGet(); // the chunk was counted already
+                isCounted = true;
+                for (Object object : chunk) {
+                    stack.add(object);
+                }
+                continue;
+            }
+
+            if (isCounted) outstanding.decrementAndGet();
+            isCounted = false;
+            if (outstanding.get() == 0) return;
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Visits the given object and pushes the objects it references that haven't been reached before onto the stack.
+     *
+     * @param object the object to visit
+     * @param stack  the objects reached but not yet visited
+     */
+    private void visit(final Object object, final List<Object> stack) {
+        if (!visitor.visit(object) || (object instanceof Class)) return;
+
+        Class<?> type = object.getClass();
+        if (type.isArray()) {
+            if (type.getComponentType().isPrimitive()) return;
+            for (Object element : (Object[]) object) {
+                if ((element != null) && markReached(element)) stack.add(element);
+            }
+            return;
+        }
+
+        for (Field field : getReferenceFields(type)) {
+            Object value;
+            try {
+                value = field.get(object);
+            } catch (IllegalAccessException e) {
+                continue;
+            }
+            if ((value != null) && markReached(value)) stack.add(value);
+        }
+
+        if (walksContents(type)) {
+            for (Object element : getContents(object)) {
+                if ((element != null) && markReached(element)) stack.add(element);
+            }
+        }
+    }
+
+    /**
+     * Moves a chunk of objects from the top of the given stack to the shared queue.
+     *
+     * @param stack the objects reached but not yet visited
+     */
+    private void share(final List<Object> stack) {
+        List<Object> top = stack.subList(stack.size() - CHUNK_SIZE, stack.size());
+        Object[] chunk = top.toArray();
+        top.clear();
+
+        outstanding.incrementAndGet();
+        sharedChunks.incrementAndGet();
+        sharedObjects.offer(chunk);
+    }
+
+    /**
+     * Marks the given object as reached.
+     *
+     * @param object the object reached
+     * @return true if the object hasn't been reached before, false otherwise
+     */
+    private boolean markReached(final Object object) {
+        return (reached != null) ? reached.add(object) : sharedReached.add(object);
+    }
+}
@@ -15,8 +15,14 @@
  */
 package junit.extensions;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * This class is used to access a method or field of an object no matter what the access modifier of the method or field. The syntax
@@ -72,11 +78,13 @@ public class PA<T> {
     /**
      * Returns a string representation of the given object. The string has the following format: "<classname> {<attributes and values>}"
      * whereas <attributes and values> is a comma separated list with <attributeName>=<attributeValue> <atributes and values> includes
-     * all attributes of the objects class followed by the attributes of its superclass (if any) and so on.
+     * all attributes of the objects class followed by the attributes of its superclass (if any) and so on. Use an
+     * {@link ObjectFormatter} to write the string to an Appendable or to change the limits of depth, elements and length.
      *
      * @param instanceOrClass the object or class to get a string representation of
      * @return a string representation of the given object
      * @see PrivilegedAccessor#toString(Object)
+     * @see ObjectFormatter#DEFAULT
      * @deprecated use org.apache.commons.lang3.builder.ToStringBuilder instead
      */
     @Deprecated
@@ -87,17 +95,61 @@ public class PA<T> {
 
     /**
      * Gets the name of all fields (public, private, protected, default) of the given instance or class. This includes as well all
-     * fields (public, private, protected, default) of all its super classes.
+     * fields (public, private, protected, default) of all its super classes. The names are in the order of their declaration, starting
+     * with the class itself, names declared more than once in the hierarchy are contained only once.
+     * <p/>
+     * The fields are looked up only once per class, each call returns a new set that can be modified by the caller.
      *
      * @param instanceOrClass the instance or class to get the fields of
      * @return the collection of field names of the given instance or class
      * @see PrivilegedAccessor#getFieldNames(Object)
+     * @see PA#getFields(Object)
      */
     @SuppressWarnings("deprecation")
     public static Collection<String> getFieldNames(final Object instanceOrClass) {
         return PrivilegedAccessor.getFieldNames(instanceOrClass);
     }
 
+    /**
+     * Gets all fields (public, private, protected, default) of the given instance or class, including the fields of all its super
+     * classes. The fields are in the order of their declaration, starting with the class itself. Other than
+     * {@link #getFieldNames(Object)} this includes fields hidden by a field with the same name in a sub class, so each of them can be
+     * accessed via its declaring class - e.g. <code>PA.field(field.getDeclaringClass(), field.getName())</code>.
+     * <p/>
+     * Each call returns a new list of new Field objects, so neither modifying the list nor making its fields accessible or
+     * inaccessible affects other callers or PA itself.
+     *
+     * @param instanceOrClass the instance or class to get the fields of
+     * @return the list of fields of the given instance or class, empty if instanceOrClass is null
+     */
+    public static List<Field> getFields(final Object instanceOrClass) {
+        if (instanceOrClass == null) return FieldIndex.copyOf(null);
+
+        return FieldIndex.copyOf((instanceOrClass instanceof Class) ? (Class<?>) instanceOrClass : instanceOrClass.getClass());
+    }
+
+    /**
+     * Gets a reference to the named field of the given class (or one of its super classes). The field is looked up only once, the
+     * returned reference can be used to read and write the field of any instance of the given class as often as needed - e.g.
+     * <p/>
+     * <pre>
+     * private static final FieldRef&lt;MyClass, String&gt; NAME = PA.field(MyClass.class, &quot;name&quot;);
+     * </pre>
+     *
+     * @param type      the class to get the field of
+     * @param fieldName the name of the field
+     * @return a reference to the field
+     * @throws IllegalArgumentException if the field does not exist
+     */
+    @SuppressWarnings("deprecation")
+    public static <T, V> FieldRef<T, V> field(final Class<T> type, final String fieldName) {
+        try {
+            return new FieldRef<T, V>(type, fieldName, PrivilegedAccessor.getFieldAccessor(type, fieldName));
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Can't find field " + fieldName + " in " + type, e);
+        }
+    }
+
     /**
      * Gets the type of the field with the given fieldName in the given instance or class. If not found in the given instance or class
      * checks as well its super classes.
@@ -119,16 +171,48 @@ public class PA<T> {
     /**
      * Gets the signatures (including return types) of all methods (public, private, protected, default) of the given instance or class. This includes as well
      * all methods (public, private, protected, default) of all its super classes. This does not include constructors.
+     * <p/>
+     * The methods and their signatures are looked up only once per class, each call returns a new set that can be modified by the
+     * caller.
      *
      * @param instanceOrClass the instance or class to get the method signatures of
      * @return the collection of method signatures of the given instance or class
      * @see PrivilegedAccessor#getMethodSignatures(Object)
+     * @see PA#getMethods(Object)
      */
     @SuppressWarnings("deprecation")
     public static Collection<String> getMethodSignatures(final Object instanceOrClass) {
         return PrivilegedAccessor.getMethodSignatures(instanceOrClass);
     }
 
+    /**
+     * Gets all methods (public, private, protected, default) of the given instance or class, including the methods of all its super
+     * classes that are not overridden. The methods declared by the class itself come first. This does not include constructors.
+     * <p/>
+     * The methods are looked up only once per class, the returned list is shared and can't be modified.
+     *
+     * @param instanceOrClass the instance or class to get the methods of
+     * @return the unmodifiable list of methods of the given instance or class, empty if instanceOrClass is null
+     * @see PA#getMethodSignatures(Object)
+     */
+    public static List<MethodInfo> getMethods(final Object instanceOrClass) {
+        if (instanceOrClass == null) return MethodIndex.of(null).getMethods();
+
+        return MethodIndex.of((instanceOrClass instanceof Class) ? (Class<?>) instanceOrClass : instanceOrClass.getClass()).getMethods();
+    }
+
+    /**
+     * Adds the given package to the packages searched for classes given by their short name in method signatures. By default
+     * java.lang and java.util are searched, so you can use e.g. "setName(String)" instead of "setName(java.lang.String)". After
+     * calling <code>PA.addDefaultImport("java.io")</code> you can use e.g. "setFile(File)" as well.
+     *
+     * @param packageName the name of the package (e.g. "java.io")
+     * @see PA#invokeMethod(Object, String, Object...)
+     */
+    public static void addDefaultImport(final String packageName) {
+        ClassNameResolver.addDefaultImport(packageName);
+    }
+
     /**
      * Gets the value of the named field and returns it as an object. If instanceOrClass is a class then a static field is returned.
      *
@@ -147,6 +231,381 @@ public class PA<T> {
         }
     }
 
+    /**
+     * Gets the values of all fields of the given instance (including the fields of all its super classes) in one pass. If
+     * instanceOrClass is a class then the values of all its static fields are returned.
+     *
+     * @param instanceOrClass the instance or class to get the fields from
+     * @return the values of the fields mapped by their names, in the order of the fields in {@link PA#fieldTable(Class)}
+     * @throws IllegalArgumentException if instanceOrClass is null
+     * @see PA#getValue(Object, String)
+     */
+    public static Map<String, Object> getValues(final Object instanceOrClass) {
+        if (instanceOrClass == null) throw new IllegalArgumentException("Can't get values of null object/class");
+
+        FieldTable<Object> fields = FieldTable.forInstanceOrClass(instanceOrClass);
+        Object instance = (instanceOrClass instanceof Class) ? null : instanceOrClass;
+        Map<String, Object> values = new LinkedHashMap<String, Object>();
+        for (int i = 0; i < fields.size(); i++) {
+            if ((instance != null) || fields.isStatic(i)) values.put(fields.getName(i), fields.get(instance, i));
+        }
+        return values;
+    }
+
+    /**
+     * Gets the values of the named fields of the given instance in one pass. If instanceOrClass is a class then the values of static
+     * fields are returned.
+     *
+     * @param instanceOrClass the instance or class to get the fields from
+     * @param fieldNames      the names of the fields
+     * @return the values of the fields, the value of a field is stored at the same index as its name in fieldNames
+     * @throws IllegalArgumentException if instanceOrClass is null or a field does not exist
+     * @see PA#getValue(Object, String)
+     */
+    public static Object[] getValues(final Object instanceOrClass, final String... fieldNames) {
+        if (instanceOrClass == null) throw new IllegalArgumentException("Can't get values of null object/class");
+
+        FieldTable<Object> fields = FieldTable.forInstanceOrClass(instanceOrClass);
+        Object instance = (instanceOrClass instanceof Class) ? null : instanceOrClass;
+        Object[] values = new Object[fieldNames.length];
+        for (int i = 0; i < fieldNames.length; i++) {
+            int index = fields.indexOf(fieldNames[i]);
+            if (index < 0) {
+                throw new IllegalArgumentException("Can't get value of " + fieldNames[i] + " from " + instanceOrClass,
+                        new NoSuchFieldException(fieldNames[i]));
+            }
+            values[i] = fields.get(instance, index);
+        }
+        return values;
+    }
+
+    /**
+     * Gets the value of the named boolean field without boxing it. If instanceOrClass is a class then a static field is returned.
+     *
+     * @param instanceOrClass the instance or class to get the field from
+     * @param fieldName       the name of the field
+     * @return the value of the field
+     * @throws IllegalArgumentException if the field does not exist or is not of type boolean
+     * @see PA#getValue(Object, String)
+     */
+    @SuppressWarnings("deprecation")
+    public static boolean getBoolean(final Object instanceOrClass, final String fieldName) {
+        try {
+            return PrivilegedAccessor.getFieldAccessor(instanceOrClass, fieldName).getBoolean(instanceOrClass);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Can't get value of " + fieldName + " from " + instanceOrClass, e);
+        }
+    }
+
+    /**
+     * Gets the value of the named byte field without boxing it. If instanceOrClass is a class then a static field is returned.
+     *
+     * @param instanceOrClass the instance or class to get the field from
+     * @param fieldName       the name of the field
+     * @return the value of the field
+     * @throws IllegalArgumentException if the field does not exist or is not of type byte (or of a type convertible to byte by a
+     *                                  widening conversion)
+     * @see PA#getValue(Object, String)
+     */
+    @SuppressWarnings("deprecation")
+    public static byte getByte(final Object instanceOrClass, final String fieldName) {
+        try {
+            return PrivilegedAccessor.getFieldAccessor(instanceOrClass, fieldName).getByte(instanceOrClass);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Can't get value of " + fieldName + " from " + instanceOrClass, e);
+        }
+    }
+
+    /**
+     * Gets the value of the named char field without boxing it. If instanceOrClass is a class then a static field is returned.
+     *
+     * @param instanceOrClass the instance or class to get the field from
+     * @param fieldName       the name of the field
+     * @return the value of the field
+     * @throws IllegalArgumentException if the field does not exist or is not of type char (or of a type convertible to char by a
+     *                                  widening conversion)
+     * @see PA#getValue(Object, String)
+     */
+    @SuppressWarnings("deprecation")
+    public static char getChar(final Object instanceOrClass, final String fieldName) {
+        try {
+            return PrivilegedAccessor.getFieldAccessor(instanceOrClass, fieldName).getChar(instanceOrClass);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Can't get value of " + fieldName + " from " + instanceOrClass, e);
+        }
+    }
+
+    /**
+     * Gets the value of the named short field without boxing it. If instanceOrClass is a class then a static field is returned.
+     *
+     * @param instanceOrClass the instance or class to get the field from
+     * @param fieldName       the name of the field
+     * @return the value of the field
+     * @throws IllegalArgumentException if the field does not exist or is not of type short (or of a type convertible to short by a
+     *                                  widening conversion)
+     * @see PA#getValue(Object, String)
+     */
+    @SuppressWarnings("deprecation")
+    public static short getShort(final Object instanceOrClass, final String fieldName) {
+        try {
+            return PrivilegedAccessor.getFieldAccessor(instanceOrClass, fieldName).getShort(instanceOrClass);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Can't get value of " + fieldName + " from " + instanceOrClass, e);
+        }
+    }
+
+    /**
+     * Gets the value of the named int field without boxing it. If instanceOrClass is a class then a static field is returned.
+     *
+     * @param instanceOrClass the instance or class to get the field from
+     * @param fieldName       the name of the field
+     * @return the value of the field
+     * @throws IllegalArgumentException if the field does not exist or is not of type int (or of a type convertible to int by a
+     *                                  widening conversion)
+     * @see PA#getValue(Object, String)
+     */
+    @SuppressWarnings("deprecation")
+    public static int getInt(final Object instanceOrClass, final String fieldName) {
+        try {
+            return PrivilegedAccessor.getFieldAccessor(instanceOrClass, fieldName).getInt(instanceOrClass);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Can't get value of " + fieldName + " from " + instanceOrClass, e);
+        }
+    }
+
+    /**
+     * Gets the value of the named long field without boxing it. If instanceOrClass is a class then a static field is returned.
+     *
+     * @param instanceOrClass the instance or class to get the field from
+     * @param fieldName       the name of the field
+     * @return the value of the field
+     * @throws IllegalArgumentException if the field does not exist or is not of type long (or of a type convertible to long by a
+     *                                  widening conversion)
+     * @see PA#getValue(Object, String)
+     */
+    @SuppressWarnings("deprecation")
+    public static long getLong(final Object instanceOrClass, final String fieldName) {
+        try {
+            return PrivilegedAccessor.getFieldAccessor(instanceOrClass, fieldName).getLong(instanceOrClass);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Can't get value of " + fieldName + " from " + instanceOrClass, e);
+        }
+    }
+
+    /**
+     * Gets the value of the named float field without boxing it. If instanceOrClass is a class then a static field is returned.
+     *
+     * @param instanceOrClass the instance or class to get the field from
+     * @param fieldName       the name of the field
+     * @return the value of the field
+     * @throws IllegalArgumentException if the field does not exist or is not of type float (or of a type convertible to float by a
+     *                                  widening conversion)
+     * @see PA#getValue(Object, String)
+     */
+    @SuppressWarnings("deprecation")
+    public static float getFloat(final Object instanceOrClass, final String fieldName) {
+        try {
+            return PrivilegedAccessor.getFieldAccessor(instanceOrClass, fieldName).getFloat(instanceOrClass);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Can't get value of " + fieldName + " from " + instanceOrClass, e);
+        }
+    }
+
+    /**
+     * Gets the value of the named double field without boxing it. If instanceOrClass is a class then a static field is returned.
+     *
+     * @param instanceOrClass the instance or class to get the field from
+     * @param fieldName       the name of the field
+     * @return the value of the field
+     * @throws IllegalArgumentException if the field does not exist or is not of type double (or of a type convertible to double by a
+     *                                  widening conversion)
+     * @see PA#getValue(Object, String)
+     */
+    @SuppressWarnings("deprecation")
+    public static double getDouble(final Object instanceOrClass, final String fieldName) {
+        try {
+            return PrivilegedAccessor.getFieldAccessor(instanceOrClass, fieldName).getDouble(instanceOrClass);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Can't get value of " + fieldName + " from " + instanceOrClass, e);
+        }
+    }
+
+    /**
+     * Sets the value of the named boolean field without boxing it. If fieldName denotes a static field, provide a class, otherwise
+     * provide an instance. Other than {@link #setValue(Object, String, Object)} this method does not return a PA for method chaining,
+     * so it does not allocate anything.
+     *
+     * @param instanceOrClass the instance or class to set the field
+     * @param fieldName       the name of the field
+     * @param value           the new value of the field
+     * @throws IllegalArgumentException if the value could not be set. This could be the case if no field with the given
+     *                                  <code>fieldName</code> can be found; if the field is not of type boolean; or if the field
+     *                                  was final
+     * @see PA#setValue(Object, String, Object)
+     */
+    @SuppressWarnings("deprecation")
+    public static void setBoolean(final Object instanceOrClass, final String fieldName, final boolean value) {
+        try {
+            PrivilegedAccessor.getFieldAccessor(instanceOrClass, fieldName).setBoolean(instanceOrClass, value);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Can't set value " + value + " at " + fieldName + " in " + instanceOrClass, e);
+        }
+    }
+
+    /**
+     * Sets the value of the named byte field without boxing it. If fieldName denotes a static field, provide a class, otherwise
+     * provide an instance. Other than {@link #setValue(Object, String, Object)} this method does not return a PA for method chaining,
+     * so it does not allocate anything.
+     *
+     * @param instanceOrClass the instance or class to set the field
+     * @param fieldName       the name of the field
+     * @param value           the new value of the field
+     * @throws IllegalArgumentException if the value could not be set. This could be the case if no field with the given
+     *                                  <code>fieldName</code> can be found; if the field is not of type byte (or of a type byte
+     *                                  is convertible to by a widening conversion); or if the field was final
+     * @see PA#setValue(Object, String, Object)
+     */
+    @SuppressWarnings("deprecation")
+    public static void setByte(final Object instanceOrClass, final String fieldName, final byte value) {
+        try {
+            PrivilegedAccessor.getFieldAccessor(instanceOrClass, fieldName).setByte(instanceOrClass, value);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Can't set value " + value + " at " + fieldName + " in " + instanceOrClass, e);
+        }
+    }
+
+    /**
+     * Sets the value of the named char field without boxing it. If fieldName denotes a static field, provide a class, otherwise
+     * provide an instance. Other than {@link #setValue(Object, String, Object)} this method does not return a PA for method chaining,
+     * so it does not allocate anything.
+     *
+     * @param instanceOrClass the instance or class to set the field
+     * @param fieldName       the name of the field
+     * @param value           the new value of the field
+     * @throws IllegalArgumentException if the value could not be set. This could be the case if no field with the given
+     *                                  <code>fieldName</code> can be found; if the field is not of type char (or of a type char
+     *                                  is convertible to by a widening conversion); or if the field was final
+     * @see PA#setValue(Object, String, Object)
+     */
+    @SuppressWarnings("deprecation")
+    public static void setChar(final Object instanceOrClass, final String fieldName, final char value) {
+        try {
+            PrivilegedAccessor.getFieldAccessor(instanceOrClass, fieldName).setChar(instanceOrClass, value);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Can't set value " + value + " at " + fieldName + " in " + instanceOrClass, e);
+        }
+    }
+
+    /**
+     * Sets the value of the named short field without boxing it. If fieldName denotes a static field, provide a class, otherwise
+     * provide an instance. Other than {@link #setValue(Object, String, Object)} this method does not return a PA for method chaining,
+     * so it does not allocate anything.
+     *
+     * @param instanceOrClass the instance or class to set the field
+     * @param fieldName       the name of the field
+     * @param value           the new value of the field
+     * @throws IllegalArgumentException if the value could not be set. This could be the case if no field with the given
+     *                                  <code>fieldName</code> can be found; if the field is not of type short (or of a type short
+     *                                  is convertible to by a widening conversion); or if the field was final
+     * @see PA#setValue(Object, String, Object)
+     */
+    @SuppressWarnings("deprecation")
+    public static void setShort(final Object instanceOrClass, final String fieldName, final short value) {
+        try {
+            PrivilegedAccessor.getFieldAccessor(instanceOrClass, fieldName).setShort(instanceOrClass, value);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Can't set value " + value + " at " + fieldName + " in " + instanceOrClass, e);
+        }
+    }
+
+    /**
+     * Sets the value of the named int field without boxing it. If fieldName denotes a static field, provide a class, otherwise
+     * provide an instance. Other than {@link #setValue(Object, String, Object)} this method does not return a PA for method chaining,
+     * so it does not allocate anything.
+     *
+     * @param instanceOrClass the instance or class to set the field
+     * @param fieldName       the name of the field
+     * @param value           the new value of the field
+     * @throws IllegalArgumentException if the value could not be set. This could be the case if no field with the given
+     *                                  <code>fieldName</code> can be found; if the field is not of type int (or of a type int
+     *                                  is convertible to by a widening conversion); or if the field was final
+     * @see PA#setValue(Object, String, Object)
+     */
+    @SuppressWarnings("deprecation")
+    public static void setInt(final Object instanceOrClass, final String fieldName, final int value) {
+        try {
+            PrivilegedAccessor.getFieldAccessor(instanceOrClass, fieldName).setInt(instanceOrClass, value);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Can't set value " + value + " at " + fieldName + " in " + instanceOrClass, e);
+        }
+    }
+
+    /**
+     * Sets the value of the named long field without boxing it. If fieldName denotes a static field, provide a class, otherwise
+     * provide an instance. Other than {@link #setValue(Object, String, Object)} this method does not return a PA for method chaining,
+     * so it does not allocate anything.
+     *
+     * @param instanceOrClass the instance or class to set the field
+     * @param fieldName       the name of the field
+     * @param value           the new value of the field
+     * @throws IllegalArgumentException if the value could not be set. This could be the case if no field with the given
+     *                                  <code>fieldName</code> can be found; if the field is not of type long (or of a type long
+     *                                  is convertible to by a widening conversion); or if the field was final
+     * @see PA#setValue(Object, String, Object)
+     */
+    @SuppressWarnings("deprecation")
+    public static void setLong(final Object instanceOrClass, final String fieldName, final long value) {
+        try {
+            PrivilegedAccessor.getFieldAccessor(instanceOrClass, fieldName).setLong(instanceOrClass, value);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Can't set value " + value + " at " + fieldName + " in " + instanceOrClass, e);
+        }
+    }
+
+    /**
+     * Sets the value of the named float field without boxing it. If fieldName denotes a static field, provide a class, otherwise
+     * provide an instance. Other than {@link #setValue(Object, String, Object)} this method does not return a PA for method chaining,
+     * so it does not allocate anything.
+     *
+     * @param instanceOrClass the instance or class to set the field
+     * @param fieldName       the name of the field
+     * @param value           the new value of the field
+     * @throws IllegalArgumentException if the value could not be set. This could be the case if no field with the given
+     *                                  <code>fieldName</code> can be found; if the field is not of type float (or of a type float
+     *                                  is convertible to by a widening conversion); or if the field was final
+     * @see PA#setValue(Object, String, Object)
+     */
+    @SuppressWarnings("deprecation")
+    public static void setFloat(final Object instanceOrClass, final String fieldName, final float value) {
+        try {
+            PrivilegedAccessor.getFieldAccessor(instanceOrClass, fieldName).setFloat(instanceOrClass, value);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Can't set value " + value + " at " + fieldName + " in " + instanceOrClass, e);
+        }
+    }
+
+    /**
+     * Sets the value of the named double field without boxing it. If fieldName denotes a static field, provide a class, otherwise
+     * provide an instance. Other than {@link #setValue(Object, String, Object)} this method does not return a PA for method chaining,
+     * so it does not allocate anything.
+     *
+     * @param instanceOrClass the instance or class to set the field
+     * @param fieldName       the name of the field
+     * @param value           the new value of the field
+     * @throws IllegalArgumentException if the value could not be set. This could be the case if no field with the given
+     *                                  <code>fieldName</code> can be found; if the field is not of type double (or of a type double
+     *                                  is convertible to by a widening conversion); or if the field was final
+     * @see PA#setValue(Object, String, Object)
+     */
+    @SuppressWarnings("deprecation")
+    public static void setDouble(final Object instanceOrClass, final String fieldName, final double value) {
+        try {
+            PrivilegedAccessor.getFieldAccessor(instanceOrClass, fieldName).setDouble(instanceOrClass, value);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Can't set value " + value + " at " + fieldName + " in " + instanceOrClass, e);
+        }
+    }
+
     /**
      * Instantiates an object of the given class with the given arguments and the given argument types. If you want to instantiate a
      * member class, you must provide the object it is a member of as first argument.
@@ -196,6 +655,56 @@ public class PA<T> {
         }
     }
 
+    /**
+     * Gets a reference to the constructor of the given class with the given argument types. The constructor is looked up only once,
+     * the returned reference can be used to instantiate the given class as often as needed - e.g.
+     * <p/>
+     * <pre>
+     * private static final ConstructorRef&lt;MyClass&gt; NEW_MY_CLASS = PA.constructor(MyClass.class, String.class);
+     * </pre>
+     * <p/>
+     * The type of the object a member class is a member of may be omitted from the argument types, the object itself has to be
+     * passed as first argument when instantiating the member class nevertheless.
+     *
+     * @param type          the class to get the constructor of
+     * @param argumentTypes the types of the arguments of the constructor
+     * @return a reference to the constructor
+     * @throws IllegalArgumentException if no constructor with the given argument types could be found
+     * @see PA#instantiate(Class, Class[], Object...)
+     */
+    @SuppressWarnings("deprecation")
+    public static <T> ConstructorRef<T> constructor(final Class<T> type, final Class<?>... argumentTypes) {
+        try {
+            return new ConstructorRef<T>(type, PrivilegedAccessor.getConstructor(type, argumentTypes));
+        } catch (NoSuchMethodException e) {
+            if (!isMemberClass(type)) {
+                throw new IllegalArgumentException("Can't find constructor of " + type + " for arguments of types "
+                        + Arrays.toString(argumentTypes), e);
+            }
+        }
+
+        Class<?>[] memberArgumentTypes = new Class<?>[argumentTypes.length + 1];
+        memberArgumentTypes[0] = type.getEnclosingClass();
+        System.arraycopy(argumentTypes, 0, memberArgumentTypes, 1, argumentTypes.length);
+        try {
+            return new ConstructorRef<T>(type, PrivilegedAccessor.getConstructor(type, memberArgumentTypes));
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("Can't find constructor of " + type + " for arguments of types "
+                    + Arrays.toString(argumentTypes), e);
+        }
+    }
+
+    /**
+     * Checks if the given type is a (non static) member class, i.e. its constructors take the object it is a member of as first
+     * argument.
+     *
+     * @param type the type to check
+     * @return true if the type is a member class, false otherwise
+     */
+    private static boolean isMemberClass(final Class<?> type) {
+        return type.isMemberClass() && !Modifier.isStatic(type.getModifiers());
+    }
+
     /**
      * Calls a method on the given object instance with the given arguments. Arguments can be object types or representations for
      * primitives.
@@ -228,6 +737,396 @@ public class PA<T> {
         }
     }
 
+    /**
+     * Copies the values of all instance fields from the given source to the given target. If source and target are of different
+     * classes, only the fields they have in common (i.e. the fields of a common super class) are copied. Fields of super classes
+     * hidden by a field with the same name are copied as well. Which fields are copied is determined once per pair of classes,
+     * primitive values are copied without boxing.
+     *
+     * @param source the object to copy the values from
+     * @param target the object to copy the values to
+     * @return the target
+     * @throws IllegalArgumentException if source or target is null or a value can't be copied
+     * @see PA#copyState(Object, Object, FieldFilter)
+     */
+    public static <T> T copyState(final Object source, final T target) {
+        return copyState(source, target, null);
+    }
+
+    /**
+     * Copies the values of all instance fields accepted by the given filter from the given source to the given target. If source and
+     * target are of different classes, only the fields they have in common (i.e. the fields of a common super class) are considered.
+     *
+     * @param source the object to copy the values from
+     * @param target the object to copy the values to
+     * @param filter decides which fields are copied, null to copy all fields
+     * @return the target
+     * @throws IllegalArgumentException if source or target is null or a value can't be copied
+     */
+    public static <T> T copyState(final Object source, final T target, final FieldFilter filter) {
+        if ((source == null) || (target == null)) throw new IllegalArgumentException("Can't copy from " + source + " to " + target);
+
+        FieldTable.forInstanceOrClass(source).copyState(source, target, filter);
+        return target;
+    }
+
+    /**
+     * Checks if the given objects are of the same class and all their instance fields (including the fields of all super classes)
+     * are equal. Primitive fields are compared without boxing, arrays are compared by their elements and all other fields via
+     * equals(). Fields of super classes hidden by a field with the same name are compared as well. Which fields to compare is
+     * determined once per class.
+     *
+     * @param instance       the first object
+     * @param otherInstance  the second object
+     * @param excludedFields the names of the fields not to compare, excluding a name excludes all fields with that name
+     * @return true if both objects are null or of the same class with equal fields, false otherwise
+     * @throws IllegalArgumentException if a field can't be read
+     * @see PA#reflectionHashCode(Object, String...)
+     */
+    public static boolean reflectionEquals(final Object instance, final Object otherInstance, final String... excludedFields) {
+        if (instance == otherInstance) return true;
+        if ((instance == null) || (otherInstance == null) || (instance.getClass() != otherInstance.getClass())) return false;
+        if (instance instanceof Class) return false;
+
+        return FieldTable.forInstanceOrClass(instance).reflectionEquals(instance, otherInstance, excludedFields);
+    }
+
+    /**
+     * Gets a hash code of the given object that is computed from all its instance fields (including the fields of all super
+     * classes, including hidden fields). Objects that are equal according to {@link #reflectionEquals(Object, Object, String...)}
+     * (with the same excluded fields) have the same hash code.
+     *
+     * @param instance       the object
+     * @param excludedFields the names of the fields not to include
+     * @return the hash code, 0 if instance is null
+     * @throws IllegalArgumentException if a field can't be read
+     */
+    public static int reflectionHashCode(final Object instance, final String... excludedFields) {
+        if (instance == null) return 0;
+        if (instance instanceof Class) return instance.hashCode();
+
+        return FieldTable.forInstanceOrClass(instance).reflectionHashCode(instance, excludedFields);
+    }
+
+    /**
+     * Walks over all objects reachable from the given root via instance fields (no matter what their access modifiers are, including
+     * the fields of all super classes) and elements of arrays, and passes each of them (including the root) exactly once to the
+     * given visitor - e.g.
+     * <p/>
+     * <pre>
+     * final int[] count = new int[1];
+     * PA.walk(myObj, new ObjectVisitor() {
+     *     public boolean visit(Object object) {
+     *         count[0]++;
+     *         return true;
+     *     }
+     * });
+     * </pre>
+     * <p/>
+     * Objects are compared by identity, so objects referenced several times (or in cycles) are visited only once. Classes are visited
+     * but not walked into.
+     * <p/>
+     * Fields that can't be made accessible are skipped. On Java 9 and later these are the private fields of JDK classes whose
+     * packages aren't opened to PA (e.g. via <code>--add-opens java.base/java.util=ALL-UNNAMED</code>). Collections and maps with
+     * such fields are walked into via their public methods instead, so e.g. the elements of an ArrayList and the keys and values of
+     * a HashMap are always reached, but not the internal objects holding them.
+     *
+     * @param root    the object to start with, nothing is visited if root is null
+     * @param visitor the visitor to pass the reachable objects to
+     * @see PA#walk(Object, ObjectVisitor, Executor, int)
+     */
+    public static void walk(final Object root, final ObjectVisitor visitor) {
+        ObjectWalker.walk(root, visitor);
+    }
+
+    /**
+     * Walks over all objects reachable from the given root like {@link #walk(Object, ObjectVisitor)}, but with up to parallelism
+     * threads: the calling thread and parallelism - 1 helpers started in the given executor. This pays off for object graphs with
+     * millions of objects. The visitor gets called by several threads concurrently and must therefore be thread-safe.
+     * <p/>
+     * The calling thread returns as soon as all objects have been visited. If the executor doesn't start (or rejects) the helpers,
+     * the calling thread visits all objects on its own.
+     *
+     * @param root        the object to start with, nothing is visited if root is null
+     * @param visitor     the (thread-safe) visitor to pass the reachable objects to
+     * @param executor    the executor to start the helpers in
+     * @param parallelism the maximum number of threads walking concurrently
+     * @throws IllegalArgumentException if parallelism is less than 1
+     */
+    public static void walk(final Object root, final ObjectVisitor visitor, final Executor executor, final int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("Can't walk with a parallelism of " + parallelism);
+        ObjectWalker.walk(root, visitor, executor, parallelism);
+    }
+
+    /**
+     * Compares the given object graphs field by field (no matter what the access modifiers of the fields are, including the fields of
+     * all super classes) and returns up to 100 differences - e.g.
+     * <p/>
+     * <pre>
+     * List&lt;Difference&gt; differences = PA.deepDiff(expectedOrder, actualOrder);
+     * assertTrue(differences.toString(), differences.isEmpty());
+     * </pre>
+     *
+     * @param expected the expected object graph
+     * @param actual   the actual object graph
+     * @return the differences found, empty if the object graphs are equal
+     * @throws IllegalArgumentException if a field can't be read
+     * @see PA#deepDiff(Object, Object, int)
+     */
+    public static List<Difference> deepDiff(final Object expected, final Object actual) {
+        return deepDiff(expected, actual, 100);
+    }
+
+    /**
+     * Compares the given object graphs field by field (no matter what the access modifiers of the fields are, including the fields of
+     * all super classes) and returns the differences found until maxDifferences differences have been found. Each difference
+     * contains the path to the differing values, e.g. "orders[3].lines[0].price".
+     * <p/>
+     * Objects of the same class are compared by their instance fields. Arrays, collections and maps (including their subclasses) are
+     * compared element by element, sets and the keys of maps by matching equal or deeply equal elements. Strings, numbers, enums and
+     * all other types of the JDK are compared via equals(), classes by identity. Cycles are compared only once.
+     *
+     * @param expected       the expected object graph
+     * @param actual         the actual object graph
+     * @param maxDifferences the number of differences after which to stop comparing
+     * @return the differences found, empty if the object graphs are equal
+     * @throws IllegalArgumentException if maxDifferences is less than 1 or a field can't be read
+     */
+    public static List<Difference> deepDiff(final Object expected, final Object actual, final int maxDifferences) {
+        if (maxDifferences < 1) throw new IllegalArgumentException("Can't compare with a maximum of " + maxDifferences + " differences");
+        return DeepDiff.diff(expected, actual, maxDifferences);
+    }
+
+    /**
+     * Estimates the memory footprint of the objects reachable from the given root via instance fields (no matter what their access
+     * modifiers are, including the fields of all super classes) and array elements - e.g.
+     * <p/>
+     * <pre>
+     * Footprint footprint = PA.deepSizeOf(myCache);
+     * assertTrue(footprint.toString(), footprint.getRetainedSize() &lt; 10 * 1024 * 1024);
+     * </pre>
+     * <p/>
+     * The sizes of objects are estimated from the sizes of object headers and references, the object alignment and the offsets of
+     * fields detected on the running JVM. The footprint contains the shallow size of the root, the retained size of all reachable
+     * objects and a histogram of the number and size of the objects per class.
+     * <p/>
+     * The objects are reached like by {@link #walk(Object, ObjectVisitor)}, so the elements of collections and the keys and values of
+     * maps are always counted. The internal objects holding them (e.g. the entries of a HashMap) are only counted if their fields can
+     * be made accessible, e.g. via <code>--add-opens java.base/java.util=ALL-UNNAMED</code> on Java 16 and later.
+     *
+     * @param root the root of the object graph
+     * @return the footprint of the object graph, empty if root is null
+     * @see PA#walk(Object, ObjectVisitor)
+     */
+    public static Footprint deepSizeOf(final Object root) {
+        return Footprint.measure(root);
+    }
+
+    /**
+     * Gets the layout of the instances of the given class on the running JVM: all instance fields (including the fields of all super
+     * classes, like {@link #getFieldNames(Object)}) with their offset and size, the gaps between them and the instance size - e.g.
+     * <p/>
+     * <pre>
+     * ClassLayout layout = PA.layout(MyValue.class);
+     * assertEquals(layout.toString(), 0, layout.getPadding());
+     * </pre>
+     *
+     * @param type the class to get the layout of
+     * @return the layout of the class
+     * @throws IllegalArgumentException if type is null, an array class or a primitive class
+     * @see PA#deepSizeOf(Object)
+     */
+    public static ClassLayout layout(final Class<?> type) {
+        if ((type == null) || type.isArray() || type.isPrimitive()) throw new IllegalArgumentException("Can't get layout of " + type);
+        return ClassLayout.of(type);
+    }
+
+    /**
+     * Finds the shortest paths from the given root to the objects accepted by the given filter via instance fields (no matter what
+     * their access modifiers are, including the fields of all super classes) and array elements - e.g.
+     * <p/>
+     * <pre>
+     * List&lt;String&gt; paths = PA.findPaths(registry, new ObjectFilter() {
+     *     public boolean accept(Object object) {
+     *         return object == leakedOwner;
+     *     }
+     * }, 10);
+     * assertTrue(&quot;still reachable via &quot; + paths, paths.isEmpty());
+     * </pre>
+     * <p/>
+     * The paths consist of field names, indexes of array and collection elements and keys of maps, e.g. "registry.listeners[12].owner"
+     * or "registry.owners[Charlie].name". Collections and maps are searched via their public methods, the keys of a map are reached
+     * via its key set, e.g. "registry.owners.keySet()[3]". Each accepted object is reported only once with one of its shortest paths,
+     * the root itself with the empty path. The paths are ordered by their length.
+     *
+     * @param root     the object to start with
+     * @param filter   the filter accepting the objects to find
+     * @param maxPaths the number of paths after which to stop searching
+     * @return the paths found, empty if root is null or no object reachable from root is accepted
+     * @throws IllegalArgumentException if maxPaths is less than 1
+     * @see PA#findPaths(Object, ObjectFilter, int, Executor, int)
+     */
+    public static List<String> findPaths(final Object root, final ObjectFilter filter, final int maxPaths) {
+        if (maxPaths < 1) throw new IllegalArgumentException("Can't find a maximum of " + maxPaths + " paths");
+        return PathFinder.findPaths(root, filter, maxPaths, null, 1);
+    }
+
+    /**
+     * Finds the shortest paths from the given root to the objects accepted by the given filter like
+     * {@link #findPaths(Object, ObjectFilter, int)}, but with up to parallelism threads: the calling thread and parallelism - 1
+     * helpers started in the given executor. The filter gets called by several threads concurrently and must therefore be
+     * thread-safe.
+     *
+     * @param root        the object to start with
+     * @param filter      the (thread-safe) filter accepting the objects to find
+     * @param maxPaths    the number of paths after which to stop searching
+     * @param executor    the executor to start the helpers in
+     * @param parallelism the maximum number of threads searching concurrently
+     * @return the paths found, empty if root is null or no object reachable from root is accepted
+     * @throws IllegalArgumentException if maxPaths or parallelism is less than 1
+     */
+    public static List<String> findPaths(final Object root, final ObjectFilter filter, final int maxPaths, final Executor executor,
+                                         final int parallelism) {
+        if (maxPaths < 1) throw new IllegalArgumentException("Can't find a maximum of " + maxPaths + " paths");
+        if (parallelism < 1) throw new IllegalArgumentException("Can't find paths with a parallelism of " + parallelism);
+        return PathFinder.findPaths(root, filter, maxPaths, executor, parallelism);
+    }
+
+    /**
+     * Takes a snapshot of the state of the given object, i.e. of all its instance fields (no matter what their access modifiers are,
+     * including the fields of all super classes). The snapshot can be restored as often as needed, each time writing the captured
+     * values back into the object.
+     *
+     * @param instance the object to take a snapshot of
+     * @return the snapshot
+     * @throws IllegalArgumentException if instance is null or a class, or if a field can't be made accessible or read
+     * @see PA#snapshot(Object, boolean)
+     */
+    public static Snapshot snapshot(final Object instance) {
+        return snapshot(instance, false);
+    }
+
+    /**
+     * Takes a snapshot of the state of the given object or, if deep is true, of all objects reachable from it via instance fields (no
+     * matter what their access modifiers are, including the fields of all super classes) and array elements - e.g.
+     * <p/>
+     * <pre>
+     * Snapshot initialState = PA.snapshot(myFixture, true);
+     * ...
+     * initialState.restore();
+     * </pre>
+     * <p/>
+     * Restoring a deep snapshot writes the captured values back into all captured objects, so the whole object graph is in the
+     * captured state again (except for strings, boxed primitives and enums, which are immutable).
+     * <p/>
+     * Every instance field of a captured object must be accessible. On Java 9 and later the private fields of JDK classes are only
+     * accessible if their package is opened to PA (e.g. via <code>--add-opens java.base/java.util=ALL-UNNAMED</code>), otherwise
+     * taking the snapshot fails instead of silently leaving these fields out. Only the contents of collections and maps are captured
+     * via their public methods in that case.
+     *
+     * @param instance the object to take a snapshot of
+     * @param deep     true to capture all objects reachable from instance, false to capture only instance itself
+     * @return the snapshot
+     * @throws IllegalArgumentException if instance is null or a class, or if a field can't be made accessible or read
+     */
+    public static Snapshot snapshot(final Object instance, final boolean deep) {
+        if (instance == null) throw new IllegalArgumentException("Can't take snapshot of null");
+        if (instance instanceof Class) throw new IllegalArgumentException("Can't take snapshot of class " + instance);
+        return Snapshot.capture(instance, deep);
+    }
+
+    /**
+     * Takes a snapshot of all static fields (including static final fields, no matter what their access modifiers are) of the given
+     * classes and their super classes. Restoring the snapshot resets the fields to the captured values, which isolates tests that
+     * modify singletons or other static state from each other without starting a new JVM per test class - e.g.
+     * <p/>
+     * <pre>
+     * private static final Snapshot STATICS = PA.captureStatics(MyRegistry.class, MyConfiguration.class);
+     * ...
+     * &#64;After
+     * public void tearDown() {
+     *     STATICS.restore();
+     * }
+     * </pre>
+     * <p/>
+     * Only the fields whose values have changed are written when restoring. Changed static final fields are made writable like in
+     * {@link #setValue(Object, String, Object)}, which might not be possible on the running JVM. In this case restoring fails before
+     * any field is written.
+     *
+     * @param types the classes whose static fields to capture
+     * @return the snapshot of the static fields
+     * @throws IllegalArgumentException if a class is null or a field can't be made accessible or read
+     * @see PA#captureStatics(boolean, Class[])
+     */
+    public static Snapshot captureStatics(final Class<?>... types) {
+        return captureStatics(false, types);
+    }
+
+    /**
+     * Takes a snapshot of all static fields of the given classes and their super classes like {@link #captureStatics(Class[])} and,
+     * if deep is true, of all objects reachable from these fields (like {@link #snapshot(Object, boolean)}). A deep snapshot also
+     * resets the contents of static caches and the state of singletons. Caches held in JDK collections or maps are restored via
+     * their public methods if their fields can't be made accessible, so this works on Java 9 and later without opening java.util.
+     *
+     * @param deep  true to capture all objects reachable from the static fields, false to capture only the fields
+     * @param types the classes whose static fields to capture
+     * @return the snapshot of the static fields
+     * @throws IllegalArgumentException if a class is null or a field can't be made accessible or read
+     */
+    public static Snapshot captureStatics(final boolean deep, final Class<?>... types) {
+        for (Class<?> type : types) {
+            if (type == null) throw new IllegalArgumentException("Can't capture static fields of null class");
+        }
+        return Snapshot.captureStatics(types, deep);
+    }
+
+    /**
+     * Gets the table of all fields of the given class (including the fields of all its super classes). The fields are looked up only
+     * once, the returned table can be used to read and write all fields of any instance of the given class by their index - e.g.
+     * <p/>
+     * <pre>
+     * FieldTable&lt;MyClass&gt; fields = PA.fieldTable(MyClass.class);
+     * int nameIndex = fields.indexOf(&quot;name&quot;);
+     * fields.set(myObj, nameIndex, &quot;myNewName&quot;);
+     * </pre>
+     * <p/>
+     * Fields that can't be made accessible (e.g. private fields inherited from JDK classes on Java 9 and later) are not contained.
+     *
+     * @param type the class to get the fields of
+     * @return the table of fields
+     * @throws IllegalArgumentException if type is null
+     * @see PA#getFieldNames(Object)
+     */
+    public static <T> FieldTable<T> fieldTable(final Class<T> type) {
+        if (type == null) throw new IllegalArgumentException("Can't get fields of null class");
+        return FieldTable.of(type);
+    }
+
+    /**
+     * Gets a reference to the method with the given signature of the given class (or one of its super classes). The method is looked
+     * up only once, the returned reference can be used to invoke the method on any instance of the given class as often as needed -
+     * e.g.
+     * <p/>
+     * <pre>
+     * private static final MethodRef&lt;MyClass&gt; SET_NAME = PA.method(MyClass.class, &quot;setName(java.lang.String)&quot;);
+     * </pre>
+     *
+     * @param type            the class to get the method of
+     * @param methodSignature the name of the method and the parameters <br>
+     *                        (e.g. "myMethod(java.lang.String, com.company.project.MyObject)")
+     * @return a reference to the method
+     * @throws IllegalArgumentException if no method with the given <code>methodSignature</code> could be found
+     * @see PA#invokeMethod(Object, String, Object...)
+     */
+    @SuppressWarnings("deprecation")
+    public static <T> MethodRef<T> method(final Class<T> type, final String methodSignature) {
+        try {
+            return new MethodRef<T>(type, methodSignature, PrivilegedAccessor.getMethod(type, methodSignature));
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("Can't find method " + methodSignature + " in " + type, e);
+        }
+    }
+
     /**
      * Corrects varargs to their initial form. If you call a method with an object-array as last argument the Java varargs mechanism
      * converts this array in single arguments. This method returns an object array if the arguments are all of the same type.
@@ -235,7 +1134,7 @@ public class PA<T> {
      * @param arguments the possibly converted arguments of a vararg method
      * @return arguments possibly converted
      */
-    private static Object[] correctVarargs(final Object... arguments) {
+    static Object[] correctVarargs(final Object... arguments) {
         if ((arguments == null) || changedByVararg(arguments)) return new Object[]{arguments};
         return arguments;
     }
@@ -294,6 +1193,60 @@ public class PA<T> {
         return new PA<T>(instanceOrClass);
     }
 
+    /**
+     * Sets the values of the named fields in one pass. If instanceOrClass is a class then static fields are set. All values are
+     * checked before any field is written, so if a value can't be set none of the fields is changed.
+     *
+     * @param instanceOrClass the instance or class to set the fields in
+     * @param values          the new values of the fields mapped by the names of the fields
+     * @throws IllegalArgumentException if instanceOrClass or values is null, a field does not exist or a value can't be set
+     * @see PA#setValue(Object, String, Object)
+     */
+    public static void setValues(final Object instanceOrClass, final Map<String, ?> values) {
+        if (values == null) throw new IllegalArgumentException("Can't set null values in " + instanceOrClass);
+
+        String[] fieldNames = new String[values.size()];
+        Object[] fieldValues = new Object[values.size()];
+        int i = 0;
+        for (Map.Entry<String, ?> value : values.entrySet()) {
+            fieldNames[i] = value.getKey();
+            fieldValues[i++] = value.getValue();
+        }
+        setValues(instanceOrClass, fieldNames, fieldValues);
+    }
+
+    /**
+     * Sets the values of the named fields in one pass. If instanceOrClass is a class then static fields are set. All values are
+     * checked before any field is written, so if a value can't be set none of the fields is changed.
+     *
+     * @param instanceOrClass the instance or class to set the fields in
+     * @param fieldNames      the names of the fields
+     * @param values          the new values of the fields, the value of a field is stored at the same index as its name in fieldNames
+     * @throws IllegalArgumentException if instanceOrClass, fieldNames or values is null, the number of names and values differ, a
+     *                                  field does not exist or a value can't be set
+     * @see PA#setValue(Object, String, Object)
+     */
+    public static void setValues(final Object instanceOrClass, final String[] fieldNames, final Object[] values) {
+        if (instanceOrClass == null) throw new IllegalArgumentException("Can't set values of null object/class");
+        if ((fieldNames == null) || (values == null)) {
+            throw new IllegalArgumentException("Can't set values " + values + " at fields " + fieldNames + " in " + instanceOrClass);
+        }
+        if (fieldNames.length != values.length) {
+            throw new IllegalArgumentException("Can't set " + values.length + " values at " + fieldNames.length + " fields");
+        }
+
+        FieldTable<Object> fields = FieldTable.forInstanceOrClass(instanceOrClass);
+        int[] indexes = new int[fieldNames.length];
+        for (int i = 0; i < fieldNames.length; i++) {
+            indexes[i] = fields.indexOf(fieldNames[i]);
+            if (indexes[i] < 0) {
+                throw new IllegalArgumentException("Can't set value " + values[i] + " at " + fieldNames[i] + " in " + instanceOrClass,
+                        new NoSuchFieldException(fieldNames[i]));
+            }
+        }
+        fields.setValues((instanceOrClass instanceof Class) ? null : instanceOrClass, indexes, values);
+    }
+
     /**
      * Gets the value of the named field and returns it as an object.
      *
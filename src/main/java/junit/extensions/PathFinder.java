@@ -0,0 +1,311 @@
+/*
+ * Copyright 2004-2012 Sebastian Dietrich (Sebastian.Dietrich@e-movimento.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package junit.extensions;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Finds the shortest paths from a root object to the objects accepted by an {@link ObjectFilter} via instance fields (no matter
+ * what their access modifiers are, including the fields of all super classes), array elements, elements of collections and entries
+ * of maps, e.g. "registry.listeners[12].owner" or "registry.owners[Charlie].name".
+ * <p/>
+ * Collections and maps (including subclasses) are searched via their public methods, so the paths don't depend on whether their
+ * internal fields can be made accessible: the elements of a collection are reached by their position in its iterator, the values
+ * of a map by their keys and the keys of a map by their position in its key set, e.g. "registry.owners.keySet()[3]". Fields that
+ * collections and maps declare outside the JDK are searched as well.
+ * <p/>
+ * The object graph is searched breadth first, one level (i.e. one distance from the root) after the other, so the first path found to
+ * an object is a shortest one. Objects already reached are tracked in an {@link IdentitySet}. Only the objects of the current and the
+ * next level are referenced by the search, together with the links to the objects they have been reached from.
+ * <p/>
+ * In a parallel search large levels are split into slices, which are searched by the calling thread together with helpers running in
+ * a given executor. The calling thread searches all slices no helper has started on, so even a busy executor can't block the search.
+ * <p/>
+ * Like the {@link ObjectWalker}, the search doesn't walk into classes and skips all other fields that can't be made accessible.
+ *
+ * @author Sebastian Dietrich (sebastian.dietrich@e-movimento.com)
+ * @see PA#findPaths(Object, ObjectFilter, int)
+ */
+final class PathFinder {
+    /**
+     * The minimum number of objects per slice of a level searched in parallel.
+     */
+    private static final int MIN_SLICE_SIZE = 512;
+
+    private final ObjectFilter filter;
+    private final int maxPaths;
+    private final IdentitySet reached;
+    private final ConcurrentIdentitySet sharedReached;
+
+    /**
+     * Creates a search.
+     *
+     * @param filter      the filter accepting the objects to find
+     * @param maxPaths    the number of paths after which to stop searching
+     * @param parallelism the number of threads searching concurrently
+     */
+    private PathFinder(final ObjectFilter filter, final int maxPaths, final int parallelism) {
+        this.filter = filter;
+        this.maxPaths = maxPaths;
+        this.reached = (parallelism == 1) ? new IdentitySet() : null;
+        this.sharedReached = (parallelism == 1) ? null : new ConcurrentIdentitySet();
+    }
+
+    /**
+     * Finds the shortest paths from the given root to the objects accepted by the given filter.
+     *
+     * @param root        the object to start with
+     * @param filter      the filter accepting the objects to find
+     * @param maxPaths    the number of paths after which to stop searching
+     * @param executor    the executor to start the helpers in, null for a sequential search
+     * @param parallelism the maximum number of threads searching concurrently
+     * @return the paths found, shortest first, empty if no object reachable from root is accepted
+     */
+    static List<String> findPaths(final Object root, final ObjectFilter filter, final int maxPaths, final Executor executor,
+                                  final int parallelism) {
+        List<String> paths = new ArrayList<String>();
+        if (root == null) return paths;
+
+        PathFinder finder = new PathFinder(filter, maxPaths, (executor == null) ? 1 : parallelism);
+        finder.markReached(root);
+        List<Node> level = new ArrayList<Node>();
+        level.add(new Node(null, null, false, root));
+        while (!level.isEmpty() && (paths.size() < maxPaths)) {
+            int slices = (executor == null) ? 1 : Math.min(parallelism, level.size() / MIN_SLICE_SIZE);
+            Level search = new Level(finder, level, Math.max(1, slices));
+            search.searchWith(executor);
+
+            level = new ArrayList<Node>();
+            for (Slice slice : search.slices) {
+                for (int i = 0; (i < slice.paths.size()) && (paths.size() < maxPaths); i++) {
+                    paths.add(slice.paths.get(i));
+                }
+                level.addAll(slice.nextLevel);
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * Checks the given objects of a level and collects the objects they reference that haven't been reached before.
+     *
+     * @param nodes the objects to check
+     * @param slice the slice to collect the paths found and the next level in
+     */
+    private void search(final List<Node> nodes, final Slice slice) {
+        for (Node node : nodes) {
+            Object object = node.object;
+            if (filter.accept(object) && (slice.paths.size() < maxPaths)) slice.paths.add(node.getPath());
+            if (object instanceof Class) continue;
+
+            Class<?> type = object.getClass();
+            if (type.isArray()) {
+                if (type.getComponentType().isPrimitive()) continue;
+                Object[] elements = (Object[]) object;
+                for (int i = 0; i < elements.length; i++) {
+                    if ((elements[i] != null) && markReached(elements[i])) slice.nextLevel.add(new Node(node, i, true, elements[i]));
+                }
+                continue;
+            }
+
+            boolean isContainer = (object instanceof Collection) || (object instanceof Map);
+            for (Field field : ObjectWalker.getReferenceFields(type)) {
+                if (isContainer && isJdkClass(field.getDeclaringClass())) continue; // the contents are searched below instead
+                Object value;
+                try {
+                    value = field.get(object);
+                } catch (IllegalAccessException e) {
+                    continue;
+                }
+                if ((value != null) && markReached(value)) slice.nextLevel.add(new Node(node, field.getName(), false, value));
+            }
+            if (isContainer) searchContents(node, slice);
+        }
+    }
+
+    /**
+     * Collects the elements of the given collection or the keys and values of the given map that haven't been reached before.
+     *
+     * @param node  the node of the collection or map
+     * @param slice the slice to collect the next level in
+     */
+    private void searchContents(final Node node, final Slice slice) {
+        Object[] contents = ObjectWalker.getContents(node.object);
+        if (node.object instanceof Collection) {
+            for (int i = 0; i < contents.length; i++) {
+                if ((contents[i] != null) && markReached(contents[i])) slice.nextLevel.add(new Node(node, i, true, contents[i]));
+            }
+            return;
+        }
+
+        for (int i = 0; i < contents.length; i += 2) {
+            Object key = contents[i];
+            Object value = contents[i + 1];
+            if ((value != null) && markReached(value)) slice.nextLevel.add(new Node(node, key, true, value));
+            if ((key != null) && markReached(key)) slice.nextLevel.add(new Node(node, "keySet()[" + (i / 2) + "]", false, key));
+        }
+    }
+
+    /**
+     * Checks if the given class belongs to the JDK.
+     *
+     * @param type the class to check
+     * @return true if the class is in a java or javax package, false otherwise
+     */
+    private static boolean isJdkClass(final Class<?> type) {
+        return type.getName().startsWith("java.") || type.getName().startsWith("javax.");
+    }
+
+    /**
+     * Marks the given object as reached.
+     *
+     * @param object the object reached
+     * @return true if the object hasn't been reached before, false otherwise
+     */
+    private boolean markReached(final Object object) {
+        return (reached != null) ? reached.add(object) : sharedReached.add(object);
+    }
+
+    /**
+     * An object reached by the search, together with the way to reach it from the root.
+     */
+    private static final class Node {
+        private final Node parent;
+        private final Object segment;
+        private final boolean isIndex;
+        private final Object object;
+
+        /**
+         * Creates a node.
+         *
+         * @param parent  the node of the object referencing the object, null for the root
+         * @param segment the name of the field, the index of the element or the key of the map entry referencing the object
+         * @param isIndex true if segment is an index or key, false if it is the name of a field
+         * @param object  the object reached
+         */
+        private Node(final Node parent, final Object segment, final boolean isIndex, final Object object) {
+            this.parent = parent;
+            this.segment = segment;
+            this.isIndex = isIndex;
+            this.object = object;
+        }
+
+        /**
+         * Gets the path from the root to the object, e.g. "registry.listeners[12].owner".
+         *
+         * @return the path, empty for the root
+         */
+        private String getPath() {
+            if (parent == null) return "";
+
+            String parentPath = parent.getPath();
+            if (isIndex) return parentPath + "[" + segment + "]";
+            return (parentPath.length() == 0) ? String.valueOf(segment) : parentPath + "." + segment;
+        }
+    }
+
+    /**
+     * The paths found and the next level collected by searching a slice of a level.
+     */
+    private static final class Slice {
+        private final List<String> paths = new ArrayList<String>();
+        private final List<Node> nextLevel = new ArrayList<Node>();
+    }
+
+    /**
+     * The search of one level, split into slices that can be searched concurrently.
+     */
+    private static final class Level implements Runnable {
+        private final PathFinder finder;
+        private final List<Node> nodes;
+        private final Slice[] slices;
+        private final AtomicInteger nextSlice = new AtomicInteger();
+        private final CountDownLatch searchedSlices;
+        private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+        /**
+         * Creates the search of a level.
+         *
+         * @param finder the search the level belongs to
+         * @param nodes  the objects of the level
+         * @param slices the number of slices to split the level into
+         */
+        private Level(final PathFinder finder, final List<Node> nodes, final int slices) {
+            this.finder = finder;
+            this.nodes = nodes;
+            this.slices = new Slice[slices];
+            for (int i = 0; i < slices; i++) {
+                this.slices[i] = new Slice();
+            }
+            this.searchedSlices = new CountDownLatch(slices);
+        }
+
+        /**
+         * Searches all slices in the calling thread together with helpers started in the given executor and rethrows the first
+         * exception thrown by the filter (in any thread).
+         *
+         * @param executor the executor to start the helpers in, only used if there are several slices
+         */
+        private void searchWith(final Executor executor) {
+            for (int i = 1; i < slices.length; i++) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    break; // searching with fewer helpers is slower, but still works
+                }
+            }
+            run();
+
+            try {
+                searchedSlices.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while finding paths", e);
+            }
+
+            Throwable e = failure.get();
+            if (e instanceof RuntimeException) throw (RuntimeException) e;
+            if (e instanceof Error) throw (Error) e;
+            if (e != null) throw new IllegalArgumentException("Finding paths failed", e);
+        }
+
+        /**
+         * Searches slices until all slices have been started.
+         */
+        public void run() {
+            for (int i = nextSlice.getAndIncrement(); i < slices.length; i = nextSlice.getAndIncrement()) {
+                try {
+                    int from = (int) ((long) nodes.size() * i / slices.length);
+                    int to = (int) ((long) nodes.size() * (i + 1) / slices.length);
+                    finder.search(nodes.subList(from, to), slices[i]);
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    searchedSlices.countDown();
+                }
+            }
+        }
+    }
+}
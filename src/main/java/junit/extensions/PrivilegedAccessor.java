@@ -18,6 +18,8 @@ package junit.extensions;
 import java.lang.reflect.*;
 import java.security.InvalidParameterException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 
 /**
@@ -43,22 +45,45 @@ import java.util.*;
 @Deprecated
 public final class PrivilegedAccessor {
     /**
-     * Maps string representation of primitives to their corresponding classes.
+     * Caches accessors for all fields (including the fields of all super classes) per class. Accessors are mapped by the names of
+     * their fields, which are made accessible if possible. If a field is declared more than once in the hierarchy, the one declared
+     * furthest down the hierarchy is cached. Accessors are kept in the order of their declaration, starting with the class itself.
      */
-    private static final Map<String, Class<?>> PRIMITIVE_MAPPER = new HashMap<String, Class<?>>(8);
+    private static final WeakCache<Class<?>, Map<String, FieldAccessor>> FIELDS =
+            new WeakCache<Class<?>, Map<String, FieldAccessor>>() {
+        protected Map<String, FieldAccessor> computeValue(final Class<?> type) {
+            Map<String, FieldAccessor> fields = new LinkedHashMap<String, FieldAccessor>();
+            for (Field field : FieldIndex.of(type)) {
+                if (!fields.containsKey(field.getName())) fields.put(field.getName(), new FieldAccessor(field));
+            }
+            return fields;
+        }
+    };
+
     /**
-     * Fills the map with all java primitives and their corresponding classes.
+     * Caches the (accessible) methods already resolved per class. Methods are mapped by their parsed signature, i.e. by their name
+     * and the parameter types loaded by the context class loader the method was invoked with. So calling the same method again
+     * neither parses the signature (which is cached per class loader) nor searches the class hierarchy, while the same signature
+     * resolved by another class loader might map to another method. The methods are cached together with their parameter types, so
+     * invoking them doesn't copy the parameter types either.
      */
-    static {
-        PRIMITIVE_MAPPER.put("int", Integer.TYPE);
-        PRIMITIVE_MAPPER.put("float", Float.TYPE);
-        PRIMITIVE_MAPPER.put("double", Double.TYPE);
-        PRIMITIVE_MAPPER.put("short", Short.TYPE);
-        PRIMITIVE_MAPPER.put("long", Long.TYPE);
-        PRIMITIVE_MAPPER.put("byte", Byte.TYPE);
-        PRIMITIVE_MAPPER.put("char", Character.TYPE);
-        PRIMITIVE_MAPPER.put("boolean", Boolean.TYPE);
-    }
+    private static final WeakCache<Class<?>, ConcurrentMap<MethodSignature, MethodInfo>> METHODS =
+            new WeakCache<Class<?>, ConcurrentMap<MethodSignature, MethodInfo>>() {
+        protected ConcurrentMap<MethodSignature, MethodInfo> computeValue(final Class<?> type) {
+            return new ConcurrentHashMap<MethodSignature, MethodInfo>();
+        }
+    };
+
+    /**
+     * Caches the (accessible) constructors already resolved per class. Constructors are mapped by the argument types they were
+     * looked up with, so instantiating the same class again neither scans its constructors nor compares their parameter types.
+     */
+    private static final WeakCache<Class<?>, ConcurrentMap<List<Class<?>>, Constructor<?>>> CONSTRUCTORS =
+            new WeakCache<Class<?>, ConcurrentMap<List<Class<?>>, Constructor<?>>>() {
+        protected ConcurrentMap<List<Class<?>>, Constructor<?>> computeValue(final Class<?> type) {
+            return new ConcurrentHashMap<List<Class<?>>, Constructor<?>>();
+        }
+    };
 
     /**
      * Private constructor to make it impossible to instantiate this class.
@@ -70,7 +95,8 @@ public final class PrivilegedAccessor {
     /**
      * Returns a string representation of the given object. The string has the following format: "<classname> {<attributes and values>}"
      * whereas <attributes and values> is a comma separated list with <attributeName>=<attributeValue> <atributes and values> includes
-     * all attributes of the objects class followed by the attributes of its superclass (if any) and so on.
+     * all attributes of the objects class followed by the attributes of its superclass (if any) and so on. The string is created by
+     * {@link ObjectFormatter#DEFAULT}, so it is limited in depth and length and safe against reference cycles.
      *
      * @param instanceOrClass the object or class to get a string representation of
      * @return a string representation of the given object
@@ -79,27 +105,15 @@ public final class PrivilegedAccessor {
      */
     @Deprecated
     public static String toString(final Object instanceOrClass) {
-        Collection<String> fields = getFieldNames(instanceOrClass);
-        if (fields.isEmpty()) return getClass(instanceOrClass).getName();
-
-        StringBuilder stringBuilder = new StringBuilder();
-        stringBuilder.append(getClass(instanceOrClass).getName()).append(" {");
-
-        for (String fieldName : fields) {
-            try {
-                stringBuilder.append(fieldName).append("=").append(getValue(instanceOrClass, fieldName)).append(", ");
-            } catch (NoSuchFieldException e) {
-                assert false : "It should always be possible to get a field that was just here";
-            }
-        }
-
-        stringBuilder.replace(stringBuilder.lastIndexOf(", "), stringBuilder.length(), "}");
-        return stringBuilder.toString();
+        return ObjectFormatter.DEFAULT.format(instanceOrClass);
     }
 
     /**
      * Gets the name of all fields (public, private, protected, default) of the given instance or class. This includes as well all
-     * fields (public, private, protected, default) of all its super classes.
+     * fields (public, private, protected, default) of all its super classes. The names are in the order of their declaration, starting
+     * with the class itself, names declared more than once in the hierarchy are contained only once.
+     * <p/>
+     * The fields are looked up only once per class, each call returns a new set that can be modified by the caller.
      *
      * @param instanceOrClass the instance or class to get the fields of
      * @return the collection of field names of the given instance or class
@@ -107,19 +121,15 @@ public final class PrivilegedAccessor {
     public static Collection<String> getFieldNames(final Object instanceOrClass) {
         if (instanceOrClass == null) return new HashSet<String>();
 
-        Class<?> clazz = getClass(instanceOrClass);
-        Field[] fields = clazz.getDeclaredFields();
-
-        Collection<String> fieldNames = getFieldNames(clazz.getSuperclass());
-        for (Field field : fields) {
-            fieldNames.add(field.getName());
-        }
-        return fieldNames;
+        return new LinkedHashSet<String>(FieldIndex.of(getClass(instanceOrClass)).getNames());
     }
 
     /**
      * Gets the signatures (including return types) of all methods (public, private, protected, default) of the given instance or class. This includes as well
      * all methods (public, private, protected, default) of all its super classes. This does not include constructors.
+     * <p/>
+     * The methods and their signatures are looked up only once per class, each call returns a new set that can be modified by the
+     * caller.
      *
      * @param instanceOrClass the instance or class to get the method signatures of
      * @return the collection of method signatures of the given instance or class
@@ -127,15 +137,7 @@ public final class PrivilegedAccessor {
     public static Collection<String> getMethodSignatures(final Object instanceOrClass) {
         if (instanceOrClass == null) return new HashSet<String>();
 
-        Class<?> clazz = getClass(instanceOrClass);
-        Method[] methods = clazz.getDeclaredMethods();
-        Collection<String> methodSignatures = getMethodSignatures(clazz.getSuperclass());
-
-        for (Method method : methods) {
-            methodSignatures.add(method.getReturnType().getName() + " " + method.getName() + "(" + getParameterTypesAsString(method.getParameterTypes()) + ")");
-        }
-
-        return methodSignatures;
+        return new HashSet<String>(MethodIndex.of(getClass(instanceOrClass)).getSignatures());
     }
 
     /**
@@ -144,14 +146,15 @@ public final class PrivilegedAccessor {
      * @param instanceOrClass the instance or class to get the field from
      * @param fieldName       the name of the field
      * @return an object representing the value of the field
-     * @throws NoSuchFieldException if the field does not exist
+     * @throws NoSuchFieldException     if the field does not exist
+     * @throws IllegalArgumentException if the field can't be made accessible
      */
     public static Object getValue(final Object instanceOrClass, final String fieldName) throws NoSuchFieldException {
-        Field field = getField(instanceOrClass, fieldName);
+        FieldAccessor field = getFieldAccessor(instanceOrClass, fieldName);
         try {
             return field.get(instanceOrClass);
         } catch (IllegalAccessException e) {
-            assert false : "getField() should have setAccessible(true), so an IllegalAccessException should not occur in this place";
+            assert false : "getFieldAccessor() only returns accessible fields, so an IllegalAccessException should not occur here";
             return null;
         }
     }
@@ -218,13 +221,25 @@ public final class PrivilegedAccessor {
      */
     public static Object invokeMethod(final Object instanceOrClass, final String methodSignature, final Object[] arguments)
             throws Throwable {
-        if ((methodSignature.indexOf('(') == -1) || (methodSignature.indexOf('(') >= methodSignature.indexOf(')')))
-            throw new NoSuchMethodException(methodSignature);
-        Class<?>[] parameterTypes = getParameterTypes(methodSignature);
+        MethodInfo method = getMethodInfo(instanceOrClass, methodSignature);
+        return invoke(method.getMethod(), instanceOrClass, getCorrectedArguments(method.getSharedParameterTypes(), arguments));
+    }
 
+    /**
+     * Invokes the given (accessible) method and rethrows whatever the method throws as it is (i.e. not wrapped in an
+     * InvocationTargetException).
+     *
+     * @param method          the method to invoke
+     * @param instanceOrClass the instance to invoke the method on, ignored for static methods
+     * @param arguments       the arguments to pass to the method, already corrected to match its parameters
+     * @return the return value of the method or null if void
+     * @throws IllegalAccessException   if the method is inaccessible
+     * @throws IllegalArgumentException if the arguments don't match the parameters of the method
+     * @throws Throwable                whatever the invoked method throws
+     */
+    static Object invoke(final Method method, final Object instanceOrClass, final Object[] arguments) throws Throwable {
         try {
-            return getMethod(instanceOrClass, getMethodName(methodSignature), parameterTypes).invoke(instanceOrClass,
-                    getCorrectedArguments(parameterTypes, arguments));
+            return method.invoke(instanceOrClass, arguments);
         } catch (InvocationTargetException e) {
             throw e.getCause();
         }
@@ -238,7 +253,7 @@ public final class PrivilegedAccessor {
      * @param arguments      the arguments that should be corrected
      * @return the corrected arguments
      */
-    private static Object[] getCorrectedArguments(Class<?>[] parameterTypes, Object[] arguments) {
+    static Object[] getCorrectedArguments(Class<?>[] parameterTypes, Object[] arguments) {
         if (arguments == null) return arguments;
         if (parameterTypes.length > arguments.length) return arguments;
         if (parameterTypes.length < arguments.length)
@@ -310,86 +325,13 @@ public final class PrivilegedAccessor {
      * @param instanceOrClass the instance or class to set the field
      * @param fieldName       the name of the field
      * @param value           the new value of the field
-     * @throws NoSuchFieldException   if no field with the given <code>fieldName</code> can be found
-     * @throws IllegalAccessException possibly if the field was final
+     * @throws NoSuchFieldException     if no field with the given <code>fieldName</code> can be found
+     * @throws IllegalAccessException   possibly if the field was final
+     * @throws IllegalArgumentException if the field can't be made accessible
      */
     public static void setValue(final Object instanceOrClass, final String fieldName, final Object value) throws NoSuchFieldException,
             IllegalAccessException {
-        Field field = getField(instanceOrClass, fieldName);
-        if (Modifier.isFinal(field.getModifiers())) {
-            PrivilegedAccessor.setValue(field, "modifiers", field.getModifiers() ^ Modifier.FINAL);
-        }
-        field.set(instanceOrClass, value);
-    }
-
-    /**
-     * Gets the class with the given className. Can handle arrays, varargs, primitives, ...
-     *
-     * @param className the name of the class to get
-     * @return the class for the given className
-     * @throws ClassNotFoundException if the class could not be found
-     */
-    private static Class<?> getClassForName(final String className) throws ClassNotFoundException {
-        if (className.contains("[")) {
-            Class<?> clazz = getClassForName(className.substring(0, className.indexOf('[')));
-            return Array.newInstance(clazz, 0).getClass();
-        }
-
-        if (className.contains("...")) {
-            Class<?> clazz = getClassForName(className.substring(0, className.indexOf("...")));
-            return Array.newInstance(clazz, 0).getClass();
-        }
-
-        try {
-            return Class.forName(className, false, Thread.currentThread().getContextClassLoader());
-        } catch (ClassNotFoundException e) {
-            return getSpecialClassForName(className);
-        }
-    }
-
-    /**
-     * Gets special classes for the given className. Special classes are primitives and "standard" Java types (like String)
-     *
-     * @param className the name of the class to get
-     * @return the class for the given className
-     * @throws ClassNotFoundException if the class could not be found
-     */
-    private static Class<?> getSpecialClassForName(final String className) throws ClassNotFoundException {
-        if (PRIMITIVE_MAPPER.containsKey(className)) return PRIMITIVE_MAPPER.get(className);
-
-        if (missesPackageName(className)) return getStandardClassForName(className);
-
-        throw new ClassNotFoundException(className);
-    }
-
-    /**
-     * Gets a 'standard' java class for the given className.
-     *
-     * @param className the className
-     * @return the class for the given className (if any)
-     * @throws ClassNotFoundException of no 'standard' java class was found for the given className
-     */
-    private static Class<?> getStandardClassForName(String className) throws ClassNotFoundException {
-        try {
-            return Class.forName("java.lang." + className, false, Thread.currentThread().getContextClassLoader());
-        } catch (ClassNotFoundException e) {
-            try {
-                return Class.forName("java.util." + className, false, Thread.currentThread().getContextClassLoader());
-            } catch (ClassNotFoundException e1) {
-                throw new ClassNotFoundException(className);
-            }
-        }
-    }
-
-    /**
-     * Tests if the given className possibly misses its package name.
-     *
-     * @param className the className
-     * @return true if the className might miss its package name, otherwise false
-     */
-    private static boolean missesPackageName(String className) {
-        if (className.contains(".")) return false;
-        return className.startsWith(className.substring(0, 1).toUpperCase());
+        getFieldAccessor(instanceOrClass, fieldName).set(instanceOrClass, value);
     }
 
     /**
@@ -400,10 +342,16 @@ public final class PrivilegedAccessor {
      * @return the constructor
      * @throws NoSuchMethodException if the method could not be found
      */
-    private static <T> Constructor<?> getConstructor(final Class<T> type, final Class<?>[] parameterTypes) throws NoSuchMethodException {
+    static <T> Constructor<?> getConstructor(final Class<T> type, final Class<?>[] parameterTypes) throws NoSuchMethodException {
+        ConcurrentMap<List<Class<?>>, Constructor<?>> constructors = CONSTRUCTORS.get(type);
+        List<Class<?>> key = Arrays.asList(parameterTypes.clone());
+        Constructor<?> cachedConstructor = constructors.get(key);
+        if (cachedConstructor != null) return cachedConstructor;
+
         for (Constructor<?> constructor : type.getDeclaredConstructors()) {
             if (autoboxingEquals(constructor.getParameterTypes(), parameterTypes)) {
                 constructor.setAccessible(true);
+                constructors.putIfAbsent(key, constructor);
                 return constructor;
             }
         }
@@ -442,6 +390,30 @@ public final class PrivilegedAccessor {
         return true;
     }
 
+    /**
+     * Checks if the given argument can be passed to a parameter of the given type. Considers unboxing and widening of primitives
+     * like Method.invoke() and Field.set() do.
+     *
+     * @param parameterType the type of the parameter
+     * @param argument      the argument
+     * @return true if the argument can be passed, false otherwise
+     */
+    static boolean isAssignable(final Class<?> parameterType, final Object argument) {
+        if (!parameterType.isPrimitive()) return (argument == null) || parameterType.isInstance(argument);
+        if (argument == null) return false;
+
+        Class<?> argumentType = argument.getClass();
+        if (parameterType == Boolean.TYPE) return argumentType == Boolean.class;
+        if (parameterType == Character.TYPE) return argumentType == Character.class;
+        if (parameterType == Byte.TYPE) return argumentType == Byte.class;
+        if (parameterType == Short.TYPE) return (argumentType == Short.class) || (argumentType == Byte.class);
+        if (parameterType == Integer.TYPE) return (argumentType == Integer.class) || (argumentType == Character.class)
+                || isAssignable(Short.TYPE, argument);
+        if (parameterType == Long.TYPE) return (argumentType == Long.class) || isAssignable(Integer.TYPE, argument);
+        if (parameterType == Float.TYPE) return (argumentType == Float.class) || isAssignable(Long.TYPE, argument);
+        return (argumentType == Double.class) || isAssignable(Float.TYPE, argument);
+    }
+
     /**
      * Checks if the given type1 is assignable from the given other type2. Consideres autoboxing - i.e. on the contrary to
      * Class.isAssignableFrom an int is assignable from an integer
@@ -468,42 +440,48 @@ public final class PrivilegedAccessor {
     }
 
     /**
-     * Return the named field from the given instance or class. Returns a static field if instanceOrClass is a class.
+     * Return the accessor for the named field from the given instance or class. Returns the accessor for a static field if
+     * instanceOrClass is a class.
      *
      * @param instanceOrClass the instance or class to get the field from
      * @param fieldName       the name of the field to get
-     * @return the field
+     * @return the accessor for the field, which is always accessible
      * @throws NoSuchFieldException      if no such field can be found
      * @throws InvalidParameterException if instanceOrClass was null
+     * @throws IllegalArgumentException  if the field can't be made accessible (e.g. a field of a JDK class on Java 16+)
      */
-    private static Field getField(final Object instanceOrClass, final String fieldName) throws NoSuchFieldException,
+    static FieldAccessor getFieldAccessor(final Object instanceOrClass, final String fieldName) throws NoSuchFieldException,
             InvalidParameterException {
         if (instanceOrClass == null) throw new InvalidParameterException("Can't get field on null object/class");
 
-        Class<?> type = getClass(instanceOrClass);
-
-        try {
-            Field field = type.getDeclaredField(fieldName);
-            field.setAccessible(true);
-            return field;
-        } catch (NoSuchFieldException e) {
-            if (type.getSuperclass() == null) throw e;
-            return getField(type.getSuperclass(), fieldName);
+        FieldAccessor accessor = FIELDS.get(getClass(instanceOrClass)).get(fieldName);
+        if (accessor == null) throw new NoSuchFieldException(fieldName);
+        if (!accessor.isAccessible()) {
+            throw new IllegalArgumentException("Can't access " + fieldName + " of " + accessor.getField().getDeclaringClass()
+                    + ", since the field can't be made accessible");
         }
+        return accessor;
+    }
+
+    /**
+     * Returns the accessors for all fields of the given class (including the fields of all its super classes), mapped by the names
+     * of their fields. If a field is declared more than once in the hierarchy, only the one declared furthest down the hierarchy is
+     * included.
+     *
+     * @param type the class to get the fields of
+     * @return the unmodifiable map of field names to accessors in the order of their declaration, starting with the given class
+     */
+    static Map<String, FieldAccessor> getFieldAccessors(final Class<?> type) {
+        return Collections.unmodifiableMap(FIELDS.get(type));
     }
 
     public static Class<?> getFieldType(final Object instanceOrClass, final String fieldName) throws NoSuchFieldException,
             InvalidParameterException {
         if (instanceOrClass == null) throw new InvalidParameterException("Can't get field type on null object/class");
-        Class<?> type = getClass(instanceOrClass);
 
-        try {
-            Field field = type.getDeclaredField(fieldName);
-            return field.getType();
-        } catch (NoSuchFieldException e) {
-            if (type.getSuperclass() == null) throw e;
-            return getFieldType(type.getSuperclass(), fieldName);
-        }
+        FieldAccessor accessor = FIELDS.get(getClass(instanceOrClass)).get(fieldName);
+        if (accessor == null) throw new NoSuchFieldException(fieldName);
+        return accessor.getType();
     }
 
     /**
@@ -559,18 +537,37 @@ public final class PrivilegedAccessor {
     }
 
     /**
-     * Gets the name of a method.
+     * Gets the method with the given signature from the given instance or class. If instanceOrClass is a class, then we get a static
+     * method. The parameter types are loaded by the context class loader. Methods are resolved only once per class and parsed
+     * signature, later calls get the method from the cache.
      *
-     * @param methodSignature the signature of the method
-     * @return the name of the method
+     * @param instanceOrClass the instance or class to get the method of
+     * @param methodSignature the name of the method and the parameters (e.g. "myMethod(java.lang.String, int)")
+     * @return the method
+     * @throws NoSuchMethodException if the method could not be found
      */
-    private static String getMethodName(final String methodSignature) {
-        try {
-            return methodSignature.substring(0, methodSignature.indexOf('(')).trim();
-        } catch (StringIndexOutOfBoundsException e) {
-            assert false : "Signature must have been checked before this method was called";
-            return null;
-        }
+    static Method getMethod(final Object instanceOrClass, final String methodSignature) throws NoSuchMethodException {
+        return getMethodInfo(instanceOrClass, methodSignature).getMethod();
+    }
+
+    /**
+     * Gets the method with the given signature from the given instance or class like {@link #getMethod(Object, String)}, together
+     * with its parameter types.
+     *
+     * @param instanceOrClass the instance or class to get the method of
+     * @param methodSignature the name of the method and the parameters (e.g. "myMethod(java.lang.String, int)")
+     * @return the cached info of the (accessible) method
+     * @throws NoSuchMethodException if the method could not be found
+     */
+    private static MethodInfo getMethodInfo(final Object instanceOrClass, final String methodSignature) throws NoSuchMethodException {
+        MethodSignature signature = MethodSignature.parse(methodSignature, Thread.currentThread().getContextClassLoader());
+        ConcurrentMap<MethodSignature, MethodInfo> methods = METHODS.get(getClass(instanceOrClass));
+        MethodInfo method = methods.get(signature);
+        if (method != null) return method;
+
+        method = new MethodInfo(getMethod(instanceOrClass, signature.getName(), signature.getParameterTypes()));
+        methods.putIfAbsent(signature, method);
+        return method;
     }
 
     /**
@@ -590,67 +587,4 @@ public final class PrivilegedAccessor {
         return typesOfParameters;
     }
 
-    /**
-     * Gets the types of the given parameters. If the parameters don't match the given methodSignature an IllegalArgumentException is
-     * thrown.
-     *
-     * @param methodSignature the signature of the method
-     * @return the parameter types as class[]
-     * @throws NoSuchMethodException    if the method could not be found
-     * @throws IllegalArgumentException if one of the given parameters doesn't math the given methodSignature
-     */
-    private static Class<?>[] getParameterTypes(final String methodSignature) throws NoSuchMethodException, IllegalArgumentException {
-        String signature = getSignatureWithoutBraces(methodSignature);
-
-        StringTokenizer tokenizer = new StringTokenizer(signature, ", *");
-        Class<?>[] typesInSignature = new Class[tokenizer.countTokens()];
-
-        for (int x = 0; tokenizer.hasMoreTokens(); x++) {
-            String className = tokenizer.nextToken();
-            try {
-                typesInSignature[x] = getClassForName(className);
-            } catch (ClassNotFoundException e) {
-                NoSuchMethodException noSuchMethodException = new NoSuchMethodException(methodSignature);
-                noSuchMethodException.initCause(e);
-                throw noSuchMethodException;
-            }
-        }
-        return typesInSignature;
-    }
-
-    /**
-     * Gets the parameter types as a string.
-     *
-     * @param classTypes the types to get as names.
-     * @return the parameter types as a string
-     * @see java.lang.Class#argumentTypesToString(Class[])
-     */
-    private static String getParameterTypesAsString(final Class<?>[] classTypes) {
-        assert classTypes != null : "getParameterTypes() should have been called before this method and should have provided not-null classTypes";
-        if (classTypes.length == 0) return "";
-
-        StringBuilder parameterTypes = new StringBuilder();
-        for (Class<?> clazz : classTypes) {
-            assert clazz != null : "getParameterTypes() should have been called before this method and should have provided not-null classTypes";
-            parameterTypes.append(clazz.getName()).append(", ");
-        }
-
-        return parameterTypes.substring(0, parameterTypes.length() - 2);
-    }
-
-    /**
-     * Removes the braces around the methods signature.
-     *
-     * @param methodSignature the signature with braces
-     * @return the signature without braces
-     */
-    private static String getSignatureWithoutBraces(final String methodSignature) {
-        try {
-            return methodSignature.substring(methodSignature.indexOf('(') + 1, methodSignature.indexOf(')'));
-        } catch (IndexOutOfBoundsException e) {
-            assert false : "signature must have been checked before this method";
-            return null;
-        }
-    }
-
 }
@@ -0,0 +1,666 @@
+/*
+ * Copyright 2004-2012 Sebastian Dietrich (Sebastian.Dietrich@e-movimento.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package junit.extensions;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The state of an object (or of all objects reachable from it) at a certain time, taken by {@link PA#snapshot(Object, boolean)}. The
+ * state can be restored as often as needed, e.g. to reset an expensive fixture between tests:
+ * <p/>
+ * <pre>
+ * private static final MyFixture FIXTURE = createExpensiveFixture();
+ * private static final Snapshot INITIAL_STATE = PA.snapshot(FIXTURE, true);
+ * ...
+ * &#64;After
+ * public void tearDown() {
+ *     INITIAL_STATE.restore();
+ * }
+ * </pre>
+ * <p/>
+ * A snapshot contains the values of all instance fields (including the fields of all super classes, no matter what their access
+ * modifiers are) of each captured object and the elements of each captured array. Primitive values are stored without boxing in a
+ * single long[], references in a single Object[]. The fields of each class are looked up only once.
+ * <p/>
+ * Restoring writes the captured values back into the very same objects, so references to them stay valid. Objects that have been
+ * created after the snapshot was taken are not touched, but are no longer referenced by the captured objects. Immutable objects
+ * (strings, boxed primitives, enums, classes and common value types of the JDK like BigDecimal) are neither captured nor walked
+ * into.
+ * <p/>
+ * Taking a snapshot fails with an IllegalArgumentException naming the field if an instance field of a captured object can't be
+ * made accessible, since restoring the snapshot would silently leave that field as it is. On Java 9 and later this is the case for
+ * the private fields of JDK classes whose packages aren't opened to PA (e.g. via
+ * <code>--add-opens java.base/java.util=ALL-UNNAMED</code>). Collections and maps are the exception: if their fields can't be made
+ * accessible, their contents are captured and restored via their public methods (toArray(), clear(), addAll() and put()) instead.
+ * Their contents are only written back if they have changed, so unmodifiable collections can be captured as well.
+ * <p/>
+ * A snapshot of static fields (see {@link PA#captureStatics(Class[])}) restores only the fields whose values have changed since.
+ * Changed static final fields are made writable like in {@link PA#setValue(Object, String, Object)}, before any field is written.
+ *
+ * @author Sebastian Dietrich (sebastian.dietrich@e-movimento.com)
+ * @see PA#snapshot(Object)
+ * @see PA#captureStatics(Class[])
+ */
+public final class Snapshot {
+    /**
+     * Caches the plans to capture and restore the objects per class.
+     */
+    private static final WeakCache<Class<?>, Plan> PLANS = new WeakCache<Class<?>, Plan>() {
+        protected Plan computeValue(final Class<?> type) {
+            return new Plan(type);
+        }
+    };
+
+    private static final FieldAccessor[] NO_STATIC_FIELDS = new FieldAccessor[0];
+
+    private final Object[] objects;
+    private final long[] primitives;
+    private final Object[] references;
+    private final FieldAccessor[] staticFields;
+    private final Object[] staticValues;
+
+    /**
+     * Takes a snapshot of the given objects and static fields.
+     *
+     * @param objects      the objects to capture
+     * @param staticFields the static fields to capture
+     */
+    private Snapshot(final Object[] objects, final FieldAccessor[] staticFields) {
+        this.objects = objects;
+        this.staticFields = staticFields;
+        this.staticValues = new Object[staticFields.length];
+        for (int i = 0; i < staticFields.length; i++) {
+            staticValues[i] = getStaticValue(staticFields[i]);
+        }
+
+        int primitiveCount = 0;
+        int referenceCount = 0;
+        for (Object object : objects) {
+            if (object.getClass().isArray()) {
+                referenceCount++;
+            } else {
+                Plan plan = PLANS.get(object.getClass());
+                primitiveCount += plan.primitiveFields.length;
+                referenceCount += plan.referenceFields.length + (plan.hasContents() ? 1 : 0);
+            }
+        }
+        this.primitives = new long[primitiveCount];
+        this.references = new Object[referenceCount];
+
+        int primitiveIndex = 0;
+        int referenceIndex = 0;
+        for (Object object : objects) {
+            if (object.getClass().isArray()) {
+                references[referenceIndex++] = copyOf(object);
+            } else {
+                Plan plan = PLANS.get(object.getClass());
+                if (plan.hasContents()) references[referenceIndex++] = plan.captureContents(object);
+                primitiveIndex = plan.capturePrimitives(object, primitives, primitiveIndex);
+                referenceIndex = plan.captureReferences(object, references, referenceIndex);
+            }
+        }
+    }
+
+    /**
+     * Takes a snapshot of the given object or of all objects reachable from it.
+     *
+     * @param root the object to capture
+     * @param deep true to capture all objects reachable from root, false to capture only root itself
+     * @return the snapshot
+     */
+    static Snapshot capture(final Object root, final boolean deep) {
+        if (!deep) return new Snapshot(new Object[]{root}, NO_STATIC_FIELDS);
+        return new Snapshot(collectMutableObjects(root, null), NO_STATIC_FIELDS);
+    }
+
+    /**
+     * Takes a snapshot of all static fields of the given classes (including the static fields of their super classes) and, if deep is
+     * true, of all objects reachable from these fields.
+     *
+     * @param types the classes to capture
+     * @param deep  true to capture all objects reachable from the static fields, false to capture only the fields
+     * @return the snapshot
+     * @throws IllegalArgumentException if a static field or an instance field of a captured object can't be made accessible
+     */
+    @SuppressWarnings("deprecation")
+    static Snapshot captureStatics(final Class<?>[] types, final boolean deep) {
+        Map<Field, FieldAccessor> fields = new LinkedHashMap<Field, FieldAccessor>();
+        for (Class<?> type : types) {
+            for (Class<?> declaringClass = type; declaringClass != null; declaringClass = declaringClass.getSuperclass()) {
+                for (FieldAccessor accessor : PrivilegedAccessor.getFieldAccessors(declaringClass).values()) {
+                    Field field = accessor.getField();
+                    if (!accessor.isStatic() || (field.getDeclaringClass() != declaringClass)) continue;
+                    if (!accessor.isAccessible()) {
+                        throw new IllegalArgumentException("Can't capture " + field.getName() + " of " + declaringClass.getName()
+                                + ", since the field can't be made accessible");
+                    }
+                    fields.put(field, accessor);
+                }
+            }
+        }
+        FieldAccessor[] staticFields = fields.values().toArray(new FieldAccessor[fields.size()]);
+        if (!deep) return new Snapshot(new Object[0], staticFields);
+
+        Object[] values = new Object[staticFields.length];
+        for (int i = 0; i < staticFields.length; i++) {
+            values[i] = getStaticValue(staticFields[i]);
+        }
+        return new Snapshot(collectMutableObjects(values, values), staticFields);
+    }
+
+    /**
+     * Collects all objects reachable from the given root that are not immutable. Unlike {@link ObjectWalker} this follows the
+     * contents of collections and maps whose fields can't be made accessible, so these contents are captured as well.
+     *
+     * @param root        the object to start with
+     * @param ignoredRoot the root if it is not to be collected itself, null otherwise
+     * @return the objects
+     * @throws IllegalArgumentException if an instance field of a reachable object can't be made accessible
+     */
+    private static Object[] collectMutableObjects(final Object root, final Object ignoredRoot) {
+        List<Object> objects = new ArrayList<Object>();
+        IdentitySet reached = new IdentitySet();
+        List<Object> stack = new ArrayList<Object>();
+        stack.add(root);
+        while (!stack.isEmpty()) {
+            Object object = stack.remove(stack.size() - 1);
+            if ((object == null) || isImmutable(object) || !reached.add(object)) continue;
+
+            if (object != ignoredRoot) objects.add(object);
+            if (object instanceof Object[]) {
+                Collections.addAll(stack, (Object[]) object);
+            } else if (!object.getClass().isArray()) {
+                PLANS.get(object.getClass()).collectReferences(object, stack);
+            }
+        }
+        return objects.toArray();
+    }
+
+    /**
+     * Writes the captured state back into the captured objects and static fields.
+     *
+     * @throws IllegalArgumentException if a value can't be written
+     */
+    public void restore() {
+        FieldAccessor[] changedFields = getChangedStaticFields();
+
+        int primitiveIndex = 0;
+        int referenceIndex = 0;
+        for (Object object : objects) {
+            if (object.getClass().isArray()) {
+                Object copy = references[referenceIndex++];
+                System.arraycopy(copy, 0, object, 0, Array.getLength(copy));
+            } else {
+                Plan plan = PLANS.get(object.getClass());
+                if (plan.hasContents()) plan.restoreContents(object, (Object[]) references[referenceIndex++]);
+                primitiveIndex = plan.restorePrimitives(object, primitives, primitiveIndex);
+                referenceIndex = plan.restoreReferences(object, references, referenceIndex);
+            }
+        }
+
+        for (int i = 0; i < staticFields.length; i++) {
+            if (changedFields[i] == null) continue;
+            try {
+                changedFields[i].set(null, staticValues[i]);
+            } catch (Exception e) {
+                throw cantSet(i, e);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of objects (including arrays) whose state has been captured.
+     *
+     * @return the number of captured objects
+     */
+    public int getObjectCount() {
+        return objects.length;
+    }
+
+    /**
+     * Gets the number of static fields whose values have been captured.
+     *
+     * @return the number of captured static fields
+     */
+    public int getStaticFieldCount() {
+        return staticFields.length;
+    }
+
+    /**
+     * Returns a string representation of this snapshot, e.g. "Snapshot(15 objects, 42 primitives, 30 references, 2 static fields)".
+     *
+     * @return a string representation of this snapshot
+     */
+    public String toString() {
+        return "Snapshot(" + objects.length + " objects, " + primitives.length + " primitives, " + references.length + " references, "
+                + staticFields.length + " static fields)";
+    }
+
+    /**
+     * Gets the static fields whose values have changed since the snapshot was taken and makes them writable, so restoring them
+     * either fails before any field is written or writes all of them.
+     *
+     * @return the accessors of the changed fields at the positions of the captured fields, null for unchanged fields
+     * @throws IllegalArgumentException if a changed field can't be made writable
+     */
+    private FieldAccessor[] getChangedStaticFields() {
+        FieldAccessor[] changedFields = new FieldAccessor[staticFields.length];
+        for (int i = 0; i < staticFields.length; i++) {
+            Object value = getStaticValue(staticFields[i]);
+            boolean isUnchanged = staticFields[i].getType().isPrimitive() ? value.equals(staticValues[i]) : (value == staticValues[i]);
+            if (isUnchanged) continue;
+
+            try {
+                staticFields[i].makeWritable();
+            } catch (Exception e) {
+                throw cantSet(i, e);
+            }
+            changedFields[i] = staticFields[i];
+        }
+        return changedFields;
+    }
+
+    /**
+     * Gets the value of the given static field.
+     *
+     * @param accessor the accessor of the field
+     * @return the value of the field (boxed if the field is a primitive)
+     * @throws IllegalArgumentException if the field can't be read
+     */
+    private static Object getStaticValue(final FieldAccessor accessor) {
+        try {
+            return accessor.get(null);
+        } catch (IllegalAccessException e) {
+            Field field = accessor.getField();
+            throw new IllegalArgumentException("Can't get value of " + field.getName() + " from " + field.getDeclaringClass(), e);
+        }
+    }
+
+    /**
+     * Creates the exception thrown if a captured static field can't be restored.
+     *
+     * @param index the index of the field
+     * @param cause the exception thrown when restoring the field
+     * @return the exception to throw
+     */
+    private IllegalArgumentException cantSet(final int index, final Exception cause) {
+        Field field = staticFields[index].getField();
+        return new IllegalArgumentException("Can't set value " + staticValues[index] + " at " + field.getName() + " in "
+                + field.getDeclaringClass(), cause);
+    }
+
+    /**
+     * Checks if the given object is immutable and therefore doesn't need to be captured.
+     *
+     * @param object the object to check
+     * @return true if the object is a string, a boxed primitive, an enum, a class or a value type of the JDK, false otherwise
+     */
+    private static boolean isImmutable(final Object object) {
+        if ((object instanceof String) || (object instanceof Class) || (object instanceof Enum) || (object instanceof Boolean)
+                || (object instanceof Character)) {
+            return true;
+        }
+
+        String className = object.getClass().getName();
+        if (object instanceof Number) return className.startsWith("java.lang.") || className.startsWith("java.math.");
+        return className.startsWith("java.time.") || className.equals("java.util.UUID") || className.equals("java.util.Locale")
+                || className.equals("java.net.URI") || className.equals("java.io.File");
+    }
+
+    /**
+     * Copies the given array (without copying its elements).
+     *
+     * @param array the array to copy
+     * @return the copy
+     */
+    private static Object copyOf(final Object array) {
+        int length = Array.getLength(array);
+        Object copy = Array.newInstance(array.getClass().getComponentType(), length);
+        System.arraycopy(array, 0, copy, 0, length);
+        return copy;
+    }
+
+    /**
+     * The plan to capture and restore the instance fields of the objects of a class. Primitive fields are stored as longs, floats
+     * and doubles via their raw bits. The contents of collections and maps whose fields can't be made accessible are stored as an
+     * Object[] of their elements (or of their keys and values, alternating).
+     */
+    private static final class Plan {
+        private static final int BOOLEAN = 0;
+        private static final int BYTE = 1;
+        private static final int CHAR = 2;
+        private static final int SHORT = 3;
+        private static final int INT = 4;
+        private static final int LONG = 5;
+        private static final int FLOAT = 6;
+        private static final int DOUBLE = 7;
+
+        private static final int NO_CONTENTS = 0;
+        private static final int COLLECTION_CONTENTS = 1;
+        private static final int MAP_CONTENTS = 2;
+
+        private final Field[] primitiveFields;
+        private final int[] primitiveKinds;
+        private final Field[] referenceFields;
+
+        /**
+         * How the contents of the objects are captured besides their accessible fields, e.g. COLLECTION_CONTENTS.
+         */
+        private final int contents;
+
+        /**
+         * Creates the plan for the given class.
+         *
+         * @param type the class, not an array class
+         * @throws IllegalArgumentException if an instance field of the class can't be made accessible and the class is neither a
+         *                                  collection nor a map
+         */
+        private Plan(final Class<?> type) {
+            List<Field> primitiveFieldList = new ArrayList<Field>();
+            List<Field> referenceFieldList = new ArrayList<Field>();
+            boolean hasInaccessibleFields = false;
+            for (Field field : FieldIndex.of(type)) {
+                if (Modifier.isStatic(field.getModifiers())) continue;
+                try {
+                    field.setAccessible(true);
+                } catch (RuntimeException e) {
+                    if (!Collection.class.isAssignableFrom(type) && !Map.class.isAssignableFrom(type)) {
+                        throw new IllegalArgumentException("Can't capture " + field.getName() + " of " + type.getName()
+                                + ", since the field can't be made accessible", e);
+                    }
+                    hasInaccessibleFields = true;
+                    continue;
+                }
+
+                if (field.getType().isPrimitive()) {
+                    primitiveFieldList.add(field);
+                } else {
+                    referenceFieldList.add(field);
+                }
+            }
+            this.primitiveFields = primitiveFieldList.toArray(new Field[primitiveFieldList.size()]);
+            this.referenceFields = referenceFieldList.toArray(new Field[referenceFieldList.size()]);
+
+            this.primitiveKinds = new int[primitiveFields.length];
+            for (int i = 0; i < primitiveFields.length; i++) {
+                primitiveKinds[i] = getKind(primitiveFields[i].getType());
+            }
+
+            if (!hasInaccessibleFields) {
+                this.contents = NO_CONTENTS;
+            } else {
+                this.contents = Map.class.isAssignableFrom(type) ? MAP_CONTENTS : COLLECTION_CONTENTS;
+            }
+        }
+
+        /**
+         * Checks if the contents of the objects are captured via their public methods, since their fields can't be made accessible.
+         *
+         * @return true if the objects are collections or maps whose contents are captured separately, false otherwise
+         */
+        private boolean hasContents() {
+            return contents != NO_CONTENTS;
+        }
+
+        /**
+         * Gets the contents of the given collection or map via its public methods.
+         *
+         * @param object the collection or map
+         * @return the elements of the collection or the keys and values of the map (alternating)
+         * @throws IllegalArgumentException if the contents can't be read
+         */
+        private Object[] captureContents(final Object object) {
+            try {
+                if (contents == COLLECTION_CONTENTS) return ((Collection<?>) object).toArray();
+
+                Map<?, ?> map = (Map<?, ?>) object;
+                Object[] keysAndValues = new Object[2 * map.size()];
+                int i = 0;
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    keysAndValues[i++] = entry.getKey();
+                    keysAndValues[i++] = entry.getValue();
+                }
+                return keysAndValues;
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Can't get the contents of " + object.getClass().getName(), e);
+            }
+        }
+
+        /**
+         * Writes the stored contents back into the given collection or map via its public methods, if the contents have changed.
+         *
+         * @param object        the collection or map to restore
+         * @param savedContents the stored contents, as returned by {@link #captureContents(Object)}
+         * @throws IllegalArgumentException if the contents have changed and can't be written, e.g. since the collection is
+         *                                  unmodifiable
+         */
+        @SuppressWarnings("unchecked")
+        private void restoreContents(final Object object, final Object[] savedContents) {
+            Object[] currentContents = captureContents(object);
+            if (isSame(currentContents, savedContents)) return;
+
+            try {
+                if (contents == COLLECTION_CONTENTS) {
+                    Collection<Object> collection = (Collection<Object>) object;
+                    collection.clear();
+                    collection.addAll(Arrays.asList(savedContents));
+                } else {
+                    Map<Object, Object> map = (Map<Object, Object>) object;
+                    map.clear();
+                    for (int i = 0; i < savedContents.length; i += 2) {
+                        map.put(savedContents[i], savedContents[i + 1]);
+                    }
+                }
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Can't restore the contents of " + object.getClass().getName(), e);
+            }
+        }
+
+        /**
+         * Adds the objects referenced by the given object (via its fields and, for collections and maps, via their contents) to the
+         * given stack.
+         *
+         * @param object the object
+         * @param stack  the stack of objects still to collect
+         * @throws IllegalArgumentException if a field or the contents can't be read
+         */
+        private void collectReferences(final Object object, final List<Object> stack) {
+            int i = 0;
+            try {
+                for (; i < referenceFields.length; i++) {
+                    stack.add(referenceFields[i].get(object));
+                }
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException("Can't get value of " + referenceFields[i].getName() + " from " + object, e);
+            }
+            if (hasContents()) Collections.addAll(stack, captureContents(object));
+        }
+
+        /**
+         * Stores the values of the primitive fields of the given object.
+         *
+         * @param object     the object to capture
+         * @param primitives the buffer to store the values in
+         * @param index      the index of the first value in the buffer
+         * @return the index after the last value stored
+         */
+        private int capturePrimitives(final Object object, final long[] primitives, final int index) {
+            int i = 0;
+            try {
+                for (; i < primitiveFields.length; i++) {
+                    Field field = primitiveFields[i];
+                    switch (primitiveKinds[i]) {
+                        case BOOLEAN:
+                            primitives[index + i] = field.getBoolean(object) ? 1 : 0;
+                            break;
+                        case BYTE:
+                            primitives[index + i] = field.getByte(object);
+                            break;
+                        case CHAR:
+                            primitives[index + i] = field.getChar(object);
+                            break;
+                        case SHORT:
+                            primitives[index + i] = field.getShort(object);
+                            break;
+                        case INT:
+                            primitives[index + i] = field.getInt(object);
+                            break;
+                        case LONG:
+                            primitives[index + i] = field.getLong(object);
+                            break;
+                        case FLOAT:
+                            primitives[index + i] = Float.floatToRawIntBits(field.getFloat(object));
+                            break;
+                        default:
+                            primitives[index + i] = Double.doubleToRawLongBits(field.getDouble(object));
+                    }
+                }
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException("Can't get value of " + primitiveFields[i].getName() + " from " + object, e);
+            }
+            return index + primitiveFields.length;
+        }
+
+        /**
+         * Stores the values of the reference fields of the given object.
+         *
+         * @param object     the object to capture
+         * @param references the buffer to store the values in
+         * @param index      the index of the first value in the buffer
+         * @return the index after the last value stored
+         */
+        private int captureReferences(final Object object, final Object[] references, final int index) {
+            int i = 0;
+            try {
+                for (; i < referenceFields.length; i++) {
+                    references[index + i] = referenceFields[i].get(object);
+                }
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException("Can't get value of " + referenceFields[i].getName() + " from " + object, e);
+            }
+            return index + referenceFields.length;
+        }
+
+        /**
+         * Writes the stored values of the primitive fields back into the given object.
+         *
+         * @param object     the object to restore
+         * @param primitives the buffer containing the values
+         * @param index      the index of the first value in the buffer
+         * @return the index after the last value restored
+         */
+        private int restorePrimitives(final Object object, final long[] primitives, final int index) {
+            int i = 0;
+            try {
+                for (; i < primitiveFields.length; i++) {
+                    Field field = primitiveFields[i];
+                    long value = primitives[index + i];
+                    switch (primitiveKinds[i]) {
+                        case BOOLEAN:
+                            field.setBoolean(object, value != 0);
+                            break;
+                        case BYTE:
+                            field.setByte(object, (byte) value);
+                            break;
+                        case CHAR:
+                            field.setChar(object, (char) value);
+                            break;
+                        case SHORT:
+                            field.setShort(object, (short) value);
+                            break;
+                        case INT:
+                            field.setInt(object, (int) value);
+                            break;
+                        case LONG:
+                            field.setLong(object, value);
+                            break;
+                        case FLOAT:
+                            field.setFloat(object, Float.intBitsToFloat((int) value));
+                            break;
+                        default:
+                            field.setDouble(object, Double.longBitsToDouble(value));
+                    }
+                }
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException("Can't set value " + primitives[index + i] + " at " + primitiveFields[i].getName()
+                        + " in " + object, e);
+            }
+            return index + primitiveFields.length;
+        }
+
+        /**
+         * Writes the stored values of the reference fields back into the given object.
+         *
+         * @param object     the object to restore
+         * @param references the buffer containing the values
+         * @param index      the index of the first value in the buffer
+         * @return the index after the last value restored
+         */
+        private int restoreReferences(final Object object, final Object[] references, final int index) {
+            int i = 0;
+            try {
+                for (; i < referenceFields.length; i++) {
+                    referenceFields[i].set(object, references[index + i]);
+                }
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException("Can't set value " + references[index + i] + " at " + referenceFields[i].getName()
+                        + " in " + object, e);
+            }
+            return index + referenceFields.length;
+        }
+
+        /**
+         * Checks if the given arrays contain the same objects (by identity) in the same order.
+         *
+         * @param array      the first array
+         * @param otherArray the second array
+         * @return true if both arrays contain the same objects, false otherwise
+         */
+        private static boolean isSame(final Object[] array, final Object[] otherArray) {
+            if (array.length != otherArray.length) return false;
+            for (int i = 0; i < array.length; i++) {
+                if (array[i] != otherArray[i]) return false;
+            }
+            return true;
+        }
+
+        /**
+         * Gets the kind of the given primitive type.
+         *
+         * @param type the primitive type
+         * @return the kind of the type, e.g. INT
+         */
+        private static int getKind(final Class<?> type) {
+            if (type == boolean.class) return BOOLEAN;
+            if (type == byte.class) return BYTE;
+            if (type == char.class) return CHAR;
+            if (type == short.class) return SHORT;
+            if (type == int.class) return INT;
+            if (type == long.class) return LONG;
+            if (type == float.class) return FLOAT;
+            return DOUBLE;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2004-2012 Sebastian Dietrich (Sebastian.Dietrich@e-movimento.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package junit.extensions;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Lazily computes a value for a key (usually a class or a class loader) and caches it for subsequent calls (similar to
+ * java.lang.ClassValue, which is not available in Java 5).
+ * <p/>
+ * Keys are referenced weakly and values softly. Values that reference their key (e.g. the fields or methods of a class, which
+ * reference the class and therefore its class loader) keep the key alive until the garbage collector clears the soft reference, which
+ * it does at the latest before throwing an OutOfMemoryError. So a class (and its class loader) cached this way can be unloaded, but
+ * possibly not before memory gets low.
+ * <p/>
+ * Keys are compared by identity. Values are kept in a ConcurrentHashMap, so looking up a value that has already been computed takes
+ * no lock and threads asking for values concurrently don't block each other. Entries of keys that have been garbage collected are
+ * removed whenever a new value is stored.
+ *
+ * @param <K> the type of the keys, e.g. Class or ClassLoader
+ * @param <V> the type of the values cached per key
+ * @author Sebastian Dietrich (sebastian.dietrich@e-movimento.com)
+ */
+abstract class WeakCache<K, V> {
+    /**
+     * The values computed so far, mapped by weak references to their keys.
+     */
+    private final ConcurrentMap<Object, SoftReference<V>> values = new ConcurrentHashMap<Object, SoftReference<V>>();
+
+    /**
+     * The queue the references to garbage collected keys are enqueued in.
+     */
+    private final ReferenceQueue<Object> collectedKeys = new ReferenceQueue<Object>();
+
+    /**
+     * The value for the key null (e.g. for the bootstrap class loader), null if not computed yet.
+     */
+    private volatile SoftReference<V> nullKeyValue;
+
+    /**
+     * Gets the value for the given key. Computes the value if it wasn't computed before (or was garbage collected in the meantime).
+     *
+     * @param key the key to get the value for, might be null (e.g. for the bootstrap class loader)
+     * @return the value for the given key
+     */
+    final V get(final K key) {
+        SoftReference<V> reference = (key == null) ? nullKeyValue : values.get(new Lookup(key));
+        V value = (reference == null) ? null : reference.get();
+        if (value != null) return value;
+
+        value = computeValue(key);
+        if (key == null) {
+            nullKeyValue = new SoftReference<V>(value);
+        } else {
+            removeCollectedKeys();
+            values.put(new KeyReference(key, collectedKeys), new SoftReference<V>(value));
+        }
+        return value;
+    }
+
+    /**
+     * Removes all values, so they get computed again when they are asked for the next time.
+     */
+    final void clear() {
+        values.clear();
+        nullKeyValue = null;
+    }
+
+    /**
+     * Computes the value for the given key. Might be called more than once per key if several threads ask for the same key
+     * concurrently, so implementations must be idempotent.
+     *
+     * @param key the key to compute the value for
+     * @return the value for the given key, never null
+     */
+    protected abstract V computeValue(K key);
+
+    /**
+     * Removes the entries of all keys that have been garbage collected.
+     */
+    private void removeCollectedKeys() {
+        for (Reference<?> key = collectedKeys.poll(); key != null; key = collectedKeys.poll()) {
+            values.remove(key);
+        }
+    }
+
+    /**
+     * A weak reference to a key, equal to all other references to (and lookups of) the same key.
+     */
+    private static final class KeyReference extends WeakReference<Object> {
+        private final int hashCode;
+
+        /**
+         * Creates a reference to the given key.
+         *
+         * @param key   the key, not null
+         * @param queue the queue to enqueue the reference in when the key gets garbage collected
+         */
+        private KeyReference(final Object key, final ReferenceQueue<Object> queue) {
+            super(key, queue);
+            this.hashCode = System.identityHashCode(key);
+        }
+
+        /**
+         * Gets the identity hash code of the key, which stays the same after the key has been garbage collected.
+         *
+         * @return the hash code
+         */
+        public int hashCode() {
+            return hashCode;
+        }
+
+        /**
+         * Checks if the given object is a reference to or a lookup of the same key. A reference to a garbage collected key is only
+         * equal to itself.
+         *
+         * @param other the object to compare with
+         * @return true if the given object refers to the same key, false otherwise
+         */
+        public boolean equals(final Object other) {
+            if (other == this) return true;
+            Object key = get();
+            if (key == null) return false;
+            if (other instanceof Lookup) return ((Lookup) other).key == key;
+            return (other instanceof KeyReference) && (((KeyReference) other).get() == key);
+        }
+    }
+
+    /**
+     * A strong reference to a key that is looked up, equal to the references to the same key.
+     */
+    private static final class Lookup {
+        private final Object key;
+
+        /**
+         * Creates a lookup of the given key.
+         *
+         * @param key the key, not null
+         */
+        private Lookup(final Object key) {
+            this.key = key;
+        }
+
+        /**
+         * Gets the identity hash code of the key.
+         *
+         * @return the hash code
+         */
+        public int hashCode() {
+            return System.identityHashCode(key);
+        }
+
+        /**
+         * Checks if the given object is a reference to the same key.
+         *
+         * @param other the object to compare with
+         * @return true if the given object refers to the same key, false otherwise
+         */
+        public boolean equals(final Object other) {
+            return (other instanceof KeyReference) && (((KeyReference) other).get() == key);
+        }
+    }
+}
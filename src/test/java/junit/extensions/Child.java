@@ -225,8 +225,8 @@ public class Child extends Parent {
 
     @Override
     public String toString() {
-        return this.getClass().getName() + " {privateBoolean=" + isPrivateBoolean() + ", privateObjects=" + Arrays.toString(getPrivateObjects()) + ", privateShort=" +
-                + getPrivateShort() + ", privateStaticFinalInt=" + PA.getValue(this, "privateStaticFinalInt") + ", privateInts=" + Arrays.toString(getPrivateInts()) + ", privateLong=" + getPrivateLong() + ", privateStrings=" + Arrays.toString(getPrivateStrings()) + ", privateFloat=" + getPrivateFloat() + ", privateInt=" + getInt() + ", privateByte=" + getPrivateByte() + ", privateStaticInt=" + PA.getValue(this, "privateStaticInt") + ", privateObject=" + PA.getValue(this, "privateObject") + ", privateCollection=" + getPrivateCollection() + ", privateDouble=" + getPrivateDouble() + ", privateName=" + PA.getValue(this, "privateName") + ", privateStaticFinalString=" + PA.getValue(this, "privateStaticFinalString") + ", privateFinalString=" + PA.getValue(this, "privateFinalString") + ", privateChar=" + getPrivateChar() + ", privateFinalInt=" + PA.getValue(this, "privateFinalInt") + "}";
+        return this.getClass().getName() + " {privateInt=" + getInt() + ", privateLong=" + getPrivateLong() + ", privateShort=" + getPrivateShort() + ", privateByte=" + getPrivateByte() + ", privateChar=" + getPrivateChar() + ", privateBoolean=" + isPrivateBoolean() + ", privateFloat=" + getPrivateFloat() + ", privateDouble=" + getPrivateDouble() + ", privateInts=" + Arrays.toString(getPrivateInts()) + ", privateStrings=" + Arrays.toString(getPrivateStrings()) + ", privateObjects=" + Arrays.toString(getPrivateObjects()) + ", privateCollection=" + getPrivateCollection() +
+                ", privateStaticFinalInt=" + PA.getValue(this, "privateStaticFinalInt") + ", privateStaticFinalString=" + PA.getValue(this, "privateStaticFinalString") + ", privateStaticInt=" + PA.getValue(this, "privateStaticInt") + ", privateFinalInt=" + PA.getValue(this, "privateFinalInt") + ", privateFinalString=" + PA.getValue(this, "privateFinalString") + ", privateName=" + PA.getValue(this, "privateName") + ", privateObject=" + PA.getValue(this, "privateObject") + "}";
     }
 
     @SuppressWarnings("unused")
@@ -19,9 +19,14 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.security.InvalidParameterException;
 import java.security.cert.CertificateException;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
 
@@ -407,6 +412,403 @@ public class PATest {
         assertEquals(1.175, PA.getValue(this.child, "privateDouble"));
     }
 
+    /**
+     * Tests the primitive getters and setters (e.g. <code>getInt</code> and <code>setInt</code>).
+     *
+     * @see junit.extensions.PA#setInt(Object, String, int)
+     * @see junit.extensions.PA#getInt(Object, String)
+     */
+    @Test
+    public void testSetGetPrimitives() {
+        PA.setInt(this.child, "privateInt", 6);
+        assertEquals(6, PA.getInt(this.child, "privateInt"));
+        assertEquals(6L, PA.getLong(this.child, "privateInt"));
+
+        PA.setLong(this.child, "privateLong", 8L);
+        assertEquals(8L, PA.getLong(this.child, "privateLong"));
+
+        PA.setShort(this.child, "privateShort", (short) 6);
+        assertEquals((short) 6, PA.getShort(this.child, "privateShort"));
+
+        PA.setByte(this.child, "privateByte", (byte) 2);
+        assertEquals((byte) 2, PA.getByte(this.child, "privateByte"));
+
+        PA.setChar(this.child, "privateChar", 'F');
+        assertEquals('F', PA.getChar(this.child, "privateChar"));
+
+        PA.setBoolean(this.child, "privateBoolean", true);
+        assertTrue(PA.getBoolean(this.child, "privateBoolean"));
+
+        PA.setFloat(this.child, "privateFloat", 1.5f);
+        assertEquals(1.5f, PA.getFloat(this.child, "privateFloat"), 0);
+
+        PA.setDouble(this.child, "privateDouble", 1.175);
+        assertEquals(1.175, PA.getDouble(this.child, "privateDouble"), 0);
+
+        PA.setInt(Parent.class, "privateStaticInt", 4);
+        assertEquals(4, PA.getInt(Parent.class, "privateStaticInt"));
+
+        try {
+            PA.getInt(this.child, "privateLong");
+            fail("should throw IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected, since a long can't be converted to an int
+        }
+
+        try {
+            PA.setInt(this.child, "privateName", 3);
+            fail("should throw IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected, since privateName is a String
+        }
+    }
+
+    /**
+     * Tests the method <code>field</code>.
+     *
+     * @see junit.extensions.PA#field(Class, String)
+     */
+    @Test
+    public void testField() {
+        FieldRef<Parent, String> name = PA.field(Parent.class, "privateName");
+        assertEquals("privateName", name.getName());
+        assertEquals(String.class, name.getType());
+        assertEquals("Charlie", name.get(this.parent));
+        assertEquals("Charlie", name.get(this.child));
+
+        name.set(this.child, "Hubert");
+        assertEquals("Hubert", PA.getValue(this.child, "privateName"));
+
+        FieldRef<Child, Integer> privateInt = PA.field(Child.class, "privateInt");
+        privateInt.setInt(this.child, 6);
+        assertEquals(6, privateInt.getInt(this.child));
+        assertEquals(Integer.valueOf(6), privateInt.get(this.child));
+
+        FieldRef<Child, Object> privateObject = PA.field(Child.class, "privateObject");
+        assertEquals(Parent.class, privateObject.getDeclaringClass());
+
+        FieldRef<Parent, Integer> staticInt = PA.field(Parent.class, "privateStaticInt");
+        assertTrue(staticInt.isStatic());
+        staticInt.setStatic(4);
+        assertEquals(Integer.valueOf(4), staticInt.getStatic());
+        assertEquals(4, staticInt.getInt(null));
+
+        try {
+            PA.field(Parent.class, "noSuchField");
+            fail("should throw IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals(NoSuchFieldException.class, e.getCause().getClass());
+        }
+
+        try {
+            name.get(null);
+            fail("should throw IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected, since privateName is not static
+        }
+    }
+
+    /**
+     * Tests the methods <code>getValues</code>.
+     *
+     * @see junit.extensions.PA#getValues(Object)
+     * @see junit.extensions.PA#getValues(Object, String...)
+     */
+    @Test
+    public void testGetValues() {
+        Map<String, Object> values = PA.getValues(this.child);
+        assertEquals(new HashSet<String>(PA.getFieldNames(this.child)), values.keySet());
+        for (String fieldName : values.keySet()) {
+            assertEquals(PA.getValue(this.child, fieldName), values.get(fieldName));
+        }
+
+        Map<String, Object> staticValues = PA.getValues(Parent.class);
+        assertEquals(3, staticValues.size());
+        assertEquals(PA.getValue(Parent.class, "privateStaticInt"), staticValues.get("privateStaticInt"));
+        assertEquals("Tester", staticValues.get("privateStaticFinalString"));
+
+        Object[] namedValues = PA.getValues(this.child, "privateName", "privateInt", "privateStaticFinalInt");
+        assertEquals(3, namedValues.length);
+        assertEquals("Charlie", namedValues[0]);
+        assertEquals(8, namedValues[1]);
+        assertEquals(3, namedValues[2]);
+
+        Object[] tableValues = PA.fieldTable(Child.class).getValues(this.child);
+        assertEquals(new ArrayList<Object>(values.values()), Arrays.asList(tableValues));
+
+        try {
+            PA.getValues(this.child, "privateName", "noSuchField");
+            fail("should throw IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals(NoSuchFieldException.class, e.getCause().getClass());
+        }
+
+        try {
+            PA.getValues(Parent.class, "privateName");
+            fail("should throw IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected, since privateName is not static
+        }
+    }
+
+    /**
+     * Tests the methods <code>setValues</code>.
+     *
+     * @see junit.extensions.PA#setValues(Object, Map)
+     * @see junit.extensions.PA#setValues(Object, String[], Object[])
+     */
+    @Test
+    public void testSetValues() {
+        Map<String, Object> values = new HashMap<String, Object>();
+        values.put("privateName", "Hubert");
+        values.put("privateInt", 5);
+        values.put("privateLong", 6);
+        values.put("privateObject", this.parent);
+        PA.setValues(this.child, values);
+        assertEquals("Hubert", PA.getValue(this.child, "privateName"));
+        assertEquals(5, PA.getValue(this.child, "privateInt"));
+        assertEquals(6L, PA.getValue(this.child, "privateLong"));
+        assertEquals(this.parent, PA.getValue(this.child, "privateObject"));
+
+        PA.setValues(this.child, new String[]{"privateName", "privateBoolean"}, new Object[]{"Charlie", true});
+        assertEquals("Charlie", PA.getValue(this.child, "privateName"));
+        assertEquals(true, PA.getValue(this.child, "privateBoolean"));
+
+        PA.setValues(Parent.class, new String[]{"privateStaticInt"}, new Object[]{7});
+        assertEquals(7, PA.getValue(Parent.class, "privateStaticInt"));
+
+        try {
+            PA.setValues(this.child, new String[]{"privateName", "privateInt"}, new Object[]{"Hubert", "Browne"});
+            fail("should throw IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Charlie", PA.getValue(this.child, "privateName"));
+        }
+
+        try {
+            PA.setValues(this.child, new String[]{"privateName", "privateInt"}, new Object[]{"Hubert", null});
+            fail("should throw IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Charlie", PA.getValue(this.child, "privateName"));
+        }
+
+        try {
+            PA.setValues(this.child, new String[]{"privateName", "noSuchField"}, new Object[]{"Hubert", 1});
+            fail("should throw IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals(NoSuchFieldException.class, e.getCause().getClass());
+            assertEquals("Charlie", PA.getValue(this.child, "privateName"));
+        }
+
+        try {
+            PA.setValues(Parent.class, new String[]{"privateStaticInt", "privateName"}, new Object[]{8, "Hubert"});
+            fail("should throw IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals(7, PA.getValue(Parent.class, "privateStaticInt"));
+        }
+
+        try {
+            PA.setValues(this.child, new String[]{"privateName"}, new Object[0]);
+            fail("should throw IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected, since the number of names and values differ
+        }
+
+        try {
+            PA.setValues(this.child, (Map<String, Object>) null);
+            fail("should throw IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected, since there are no values
+        }
+
+        try {
+            PA.setValues(this.child, new String[]{"privateName"}, null);
+            fail("should throw IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected, since there are no values
+        }
+    }
+
+    /**
+     * Tests the methods <code>copyState</code>.
+     *
+     * @see junit.extensions.PA#copyState(Object, Object)
+     * @see junit.extensions.PA#copyState(Object, Object, FieldFilter)
+     */
+    @Test
+    public void testCopyState() {
+        Child source = PA.instantiate(Child.class, 4, 6f);
+        PA.setValue(source, "privateName", "Hubert");
+        PA.setValue(source, "privateLong", 7L);
+        PA.setValue(source, "privateChar", 'x');
+        PA.setValue(source, "privateInts", new int[]{1, 2});
+
+        Child target = PA.copyState(source, new Child("Charlie"));
+        for (String fieldName : PA.getFieldNames(Child.class)) {
+            assertEquals(PA.getValue(source, fieldName), PA.getValue(target, fieldName));
+        }
+        assertSame(PA.getValue(source, "privateInts"), PA.getValue(target, "privateInts"));
+
+        Parent parent = PA.copyState(source, new Parent("Charlie"));
+        assertEquals("Hubert", PA.getValue(parent, "privateName"));
+
+        target = PA.copyState(this.parent, new Child("Browne"));
+        assertEquals("Charlie", PA.getValue(target, "privateName"));
+        assertEquals(8, PA.getValue(target, "privateInt"));
+
+        target = PA.copyState(source, new Child("Charlie"), new FieldFilter() {
+            public boolean accept(final Field field) {
+                return field.getType().isPrimitive();
+            }
+        });
+        assertEquals(4, PA.getValue(target, "privateInt"));
+        assertEquals(7L, PA.getValue(target, "privateLong"));
+        assertEquals('x', PA.getValue(target, "privateChar"));
+        assertEquals("Charlie", PA.getValue(target, "privateName"));
+
+        HidingChild hidingSource = new HidingChild();
+        hidingSource.setName("Hubert");
+        HidingChild hidingTarget = PA.copyState(hidingSource, new HidingChild());
+        assertEquals("Hubert", PA.invokeMethod(hidingTarget, "getName()"));
+        assertEquals("Hidden", PA.getValue(hidingTarget, "privateName"));
+
+        Parent parentTarget = PA.copyState(hidingSource, new Parent("Charlie"));
+        assertEquals("Hubert", PA.getValue(parentTarget, "privateName"));
+
+        try {
+            PA.copyState(source, null);
+            fail("should throw IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected, since there is no target
+        }
+    }
+
+    /**
+     * Tests the methods <code>reflectionEquals</code> and <code>reflectionHashCode</code>.
+     *
+     * @see junit.extensions.PA#reflectionEquals(Object, Object, String...)
+     * @see junit.extensions.PA#reflectionHashCode(Object, String...)
+     */
+    @Test
+    public void testReflectionEqualsAndHashCode() {
+        Child other = new Child("Charlie");
+        assertTrue(PA.reflectionEquals(this.child, other));
+        assertEquals(PA.reflectionHashCode(this.child), PA.reflectionHashCode(other));
+        assertTrue(PA.reflectionEquals(null, null));
+        assertFalse(PA.reflectionEquals(this.child, null));
+        assertFalse(PA.reflectionEquals(this.parent, this.child));
+        assertEquals(0, PA.reflectionHashCode(null));
+
+        PA.setValue(this.child, "privateInts", new int[]{1, 2});
+        PA.setValue(other, "privateInts", new int[]{1, 2});
+        PA.setValue(this.child, "privateDouble", Double.NaN);
+        PA.setValue(other, "privateDouble", Double.NaN);
+        assertTrue(PA.reflectionEquals(this.child, other));
+        assertEquals(PA.reflectionHashCode(this.child), PA.reflectionHashCode(other));
+
+        PA.setValue(other, "privateLong", 5L);
+        assertFalse(PA.reflectionEquals(this.child, other));
+        assertTrue(PA.reflectionEquals(this.child, other, "privateLong"));
+        assertEquals(PA.reflectionHashCode(this.child, "privateLong"), PA.reflectionHashCode(other, "privateLong"));
+
+        PA.setValue(other, "privateName", "Hubert");
+        assertFalse(PA.reflectionEquals(this.child, other, "privateLong"));
+        assertTrue(PA.reflectionEquals(this.child, other, "privateLong", "privateName"));
+
+        HidingChild hiding = new HidingChild();
+        HidingChild otherHiding = new HidingChild();
+        assertTrue(PA.reflectionEquals(hiding, otherHiding));
+        otherHiding.setName("Hubert");
+        assertFalse(PA.reflectionEquals(hiding, otherHiding));
+        assertFalse(PA.reflectionHashCode(hiding) == PA.reflectionHashCode(otherHiding));
+        assertTrue(PA.reflectionEquals(hiding, otherHiding, "privateName"));
+    }
+
+    /**
+     * Tests the method <code>fieldTable</code>.
+     *
+     * @see junit.extensions.PA#fieldTable(Class)
+     */
+    @Test
+    public void testFieldTable() {
+        FieldTable<Child> fields = PA.fieldTable(Child.class);
+        assertSame(fields, PA.fieldTable(Child.class));
+        assertEquals(PA.getFieldNames(Child.class).size(), fields.size());
+        for (int i = 0; i < fields.size(); i++) {
+            assertEquals(i, fields.indexOf(fields.getName(i)));
+            assertTrue(PA.getFieldNames(Child.class).contains(fields.getName(i)));
+        }
+        assertEquals(-1, fields.indexOf("noSuchField"));
+
+        int privateName = fields.indexOf("privateName");
+        assertEquals(Parent.class, fields.getDeclaringClass(privateName));
+        assertEquals(String.class, fields.getType(privateName));
+        assertEquals("Charlie", fields.get(this.child, privateName));
+        fields.set(this.child, privateName, "Hubert");
+        assertEquals("Hubert", PA.getValue(this.child, "privateName"));
+
+        int privateLong = fields.indexOf("privateLong");
+        fields.setLong(this.child, privateLong, 8L);
+        assertEquals(8L, fields.getLong(this.child, privateLong));
+        assertEquals(8L, PA.getValue(this.child, "privateLong"));
+
+        int privateStaticInt = fields.indexOf("privateStaticInt");
+        assertTrue(fields.isStatic(privateStaticInt));
+        fields.setInt(null, privateStaticInt, 5);
+        assertEquals(5, fields.getInt(null, privateStaticInt));
+
+        try {
+            fields.set(this.child, privateLong, "Hubert");
+            fail("should throw IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected, since privateLong is no String
+        }
+
+        try {
+            fields.get(null, privateName);
+            fail("should throw IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected, since privateName is not static
+        }
+    }
+
+    /**
+     * Tests that a class extending a JDK class can be read, even if the private fields of the JDK class can't be made accessible
+     * (as on Java 9 and later).
+     *
+     * @see junit.extensions.PA#fieldTable(Class)
+     */
+    @Test
+    public void testFieldTableOfJdkSubclass() {
+        JdkSubclass exception = new JdkSubclass("Charlie");
+        FieldTable<JdkSubclass> fields = PA.fieldTable(JdkSubclass.class);
+        assertEquals("Charlie", fields.get(exception, fields.indexOf("detail")));
+        assertEquals("Charlie", PA.getValues(exception).get("detail"));
+        assertTrue(PA.toString(exception).contains("detail=Charlie"));
+        assertTrue(PA.reflectionEquals(exception, exception));
+
+        JdkSubclass copy = new JdkSubclass("Delta");
+        try {
+            PA.copyState(exception, copy);
+            assertEquals("Charlie", PA.getValue(copy, "detail"));
+        } catch (IllegalArgumentException e) {
+            // expected on Java 16 and later, since the fields of Throwable can't be made accessible
+            assertTrue(e.getMessage().contains(Throwable.class.getName()));
+        }
+        try {
+            assertFalse(PA.reflectionEquals(exception, new JdkSubclass("Charlie")));
+        } catch (IllegalArgumentException e) {
+            // expected on Java 16 and later, since the fields of Throwable can't be made accessible
+            assertTrue(e.getMessage().contains(Throwable.class.getName()));
+        }
+
+        copy = PA.copyState(exception, new JdkSubclass("Delta"), new FieldFilter() {
+            public boolean accept(final Field field) {
+                return field.getDeclaringClass() == JdkSubclass.class;
+            }
+        });
+        assertEquals("Charlie", PA.getValue(copy, "detail"));
+    }
+
     /**
      * Tests the method <code>setValue</code>.
      *
@@ -553,6 +955,40 @@ public class PATest {
 
     }
 
+    /**
+     * Tests the methods <code>getValue</code>, <code>getInt</code> and <code>setValue</code> with a field of a JDK class, which
+     * either can be made accessible or must not be silently read as null (e.g. on Java 16+ without --add-opens).
+     *
+     * @see junit.extensions.PA#getValue(java.lang.Object, java.lang.String)
+     */
+    @Test
+    public void testGetValueOfInaccessibleField() {
+        AtomicInteger counter = new AtomicInteger(1);
+        try {
+            assertEquals(1, PA.getValue(counter, "value"));
+        } catch (IllegalArgumentException e) {
+            // expected on Java 9 and later, since the fields of AtomicInteger can't be made accessible
+            assertEquals(IllegalArgumentException.class, e.getCause().getClass());
+            assertTrue(e.getCause().getMessage().contains("value"));
+        }
+
+        try {
+            assertEquals(1, PA.getInt(counter, "value"));
+        } catch (IllegalArgumentException e) {
+            // expected on Java 9 and later, since the fields of AtomicInteger can't be made accessible
+            assertTrue(e.getCause().getMessage().contains("value"));
+        }
+
+        try {
+            PA.setValue(counter, "value", 2);
+            assertEquals(2, counter.get());
+        } catch (IllegalArgumentException e) {
+            // expected on Java 9 and later, since the fields of AtomicInteger can't be made accessible
+            assertTrue(e.getCause().getMessage().contains("value"));
+            assertEquals(1, counter.get());
+        }
+    }
+
     /**
      * Tests the method <code>getValue</code> with a static field.
      *
@@ -588,6 +1024,50 @@ public class PATest {
         assertEquals(this.childInParent.toString(), PA.toString(this.childInParent));
     }
 
+    /**
+     * Tests the class <code>ObjectFormatter</code>.
+     *
+     * @throws Exception if something went wrong
+     * @see junit.extensions.ObjectFormatter#format(Object, Appendable)
+     */
+    @Test
+    public void testObjectFormatter() throws Exception {
+        ObjectFormatter formatter = new ObjectFormatter(2, 3, 1000);
+        assertEquals("null", formatter.format(null));
+        assertEquals("Charlie", formatter.format("Charlie"));
+        assertEquals("java.lang.Object", formatter.format(new Object()));
+        assertEquals("[1, 2, 3, ... (2 more)]", formatter.format(new int[]{1, 2, 3, 4, 5}));
+        assertEquals("[a, b]", formatter.format(Arrays.asList("a", "b")));
+        assertEquals("{a=1}", formatter.format(Collections.singletonMap("a", 1)));
+
+        String parent = formatter.format(this.parent);
+        assertTrue(parent, parent.startsWith("junit.extensions.Parent {"));
+        assertTrue(parent, parent.contains("privateName=Charlie"));
+        assertTrue(parent, parent.contains("privateStaticFinalInt=3"));
+
+        PA.setValue(this.parent, "privateObject", this.parent);
+        assertTrue(formatter.format(this.parent).contains("privateObject=<cycle>"));
+
+        PA.setValue(this.parent, "privateObject", this.child);
+        assertTrue(formatter.format(this.parent).contains("privateObject=junit.extensions.Child {privateInt=8"));
+        assertTrue(new ObjectFormatter(1, 3, 1000).format(this.parent).contains("privateObject=junit.extensions.Child {...}"));
+
+        PA.setValue(this.child, "privateInts", new int[]{1, 2, 3, 4});
+        assertTrue(formatter.format(this.child).contains("privateInts=[1, 2, 3, ... (1 more)]"));
+
+        String statics = formatter.format(Parent.class);
+        assertTrue(statics, statics.contains("privateStaticInt="));
+        assertFalse(statics, statics.contains("privateName"));
+
+        assertEquals("junit.extensions.Par...", new ObjectFormatter(2, 3, 20).format(this.parent));
+
+        StringBuilder out = new StringBuilder("parent: ");
+        formatter.format(this.parent, out);
+        assertEquals("parent: " + formatter.format(this.parent), out.toString());
+
+        assertEquals(ObjectFormatter.DEFAULT.format(this.child), PA.toString(this.child));
+    }
+
     /**
      * Tests the method <code>getFieldNames</code>.
      *
@@ -616,6 +1096,624 @@ public class PATest {
 
         assertEquals("getFieldNames didn't return all field names", testFieldNames, PA.getFieldNames(this.child));
         assertEquals("getFieldNames didn't return all field names", testFieldNames, PA.getFieldNames(this.childInParent));
+
+        PA.getFieldNames(this.child).remove("privateInt");
+        assertTrue(PA.getFieldNames(this.child).contains("privateInt"));
+    }
+
+    /**
+     * Tests the method <code>getFields</code>.
+     *
+     * @see junit.extensions.PA#getFields(Object)
+     */
+    @Test
+    public void testGetFields() {
+        assertTrue(PA.getFields(null).isEmpty());
+        assertTrue(PA.getFields(Object.class).isEmpty());
+        assertEquals(PA.getFields(this.child), PA.getFields(Child.class));
+        assertNotSame(PA.getFields(Child.class).get(0), PA.getFields(Child.class).get(0));
+        assertEquals(PA.getFieldNames(this.child), PA.getFieldNames(Child.class));
+
+        List<Field> parentFields = PA.getFields(Parent.class);
+        assertEquals(PA.getFieldNames(Parent.class).size(), parentFields.size());
+
+        List<Field> fields = PA.getFields(HidingChild.class);
+        assertEquals(parentFields.size() + 1, fields.size());
+        assertEquals("privateName", fields.get(0).getName());
+        assertEquals(HidingChild.class, fields.get(0).getDeclaringClass());
+        assertEquals(parentFields, fields.subList(1, fields.size()));
+        assertEquals(PA.getFieldNames(Parent.class), PA.getFieldNames(HidingChild.class));
+
+        HidingChild hidingChild = new HidingChild();
+        assertEquals("Hidden", PA.getValue(hidingChild, "privateName"));
+        assertEquals("Charlie", PA.field(Parent.class, "privateName").get(hidingChild));
+
+        // the fields are copies, so neither modifying the list nor the fields affects PA
+        fields.remove(0);
+        fields.get(0).setAccessible(false);
+        assertEquals(parentFields.size() + 1, PA.getFields(HidingChild.class).size());
+        assertEquals("Charlie", PA.field(Parent.class, "privateName").get(hidingChild));
+    }
+
+    /**
+     * Tests the method <code>walk</code>.
+     *
+     * @see junit.extensions.PA#walk(Object, ObjectVisitor)
+     */
+    @Test
+    public void testWalk() {
+        final Map<Object, Integer> visits = new IdentityHashMap<Object, Integer>();
+        ObjectVisitor countingVisitor = new ObjectVisitor() {
+            public boolean visit(final Object object) {
+                Integer count = visits.get(object);
+                visits.put(object, (count == null) ? 1 : count + 1);
+                return !(object instanceof String);
+            }
+        };
+
+        PA.walk(null, countingVisitor);
+        assertTrue(visits.isEmpty());
+
+        Child other = new Child("Other");
+        String[] strings = new String[]{"Alpha", null, "Beta"};
+        PA.setValue(this.child, "privateObject", this.child);
+        PA.setValue(this.child, "privateStrings", strings);
+        PA.setValue(this.child, "privateObjects", new Object[]{other, strings, Child.class});
+        PA.walk(this.child, countingVisitor);
+
+        assertEquals(Integer.valueOf(1), visits.get(this.child));
+        assertEquals(Integer.valueOf(1), visits.get(other));
+        assertEquals(Integer.valueOf(1), visits.get(strings));
+        assertEquals(Integer.valueOf(1), visits.get("Alpha"));
+        assertEquals(Integer.valueOf(1), visits.get(Child.class));
+        for (Integer count : visits.values()) {
+            assertEquals(Integer.valueOf(1), count);
+        }
+
+        visits.clear();
+        HidingChild hidingChild = new HidingChild();
+        PA.walk(hidingChild, countingVisitor);
+        assertTrue(visits.containsKey("Hidden"));
+        assertTrue(visits.containsKey("Charlie"));
+
+        try {
+            PA.walk(this.child, new ObjectVisitor() {
+                public boolean visit(final Object object) {
+                    throw new IllegalStateException("stop");
+                }
+            });
+            fail("should throw IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertEquals("stop", e.getMessage());
+        }
+    }
+
+    /**
+     * Tests the method <code>deepDiff</code>.
+     *
+     * @see junit.extensions.PA#deepDiff(Object, Object, int)
+     */
+    @Test
+    public void testDeepDiff() {
+        Child expected = new Child("Charlie");
+        Child actual = new Child("Charlie");
+        PA.setValue(expected, "privateObject", expected);
+        PA.setValue(actual, "privateObject", actual);
+        assertTrue(PA.deepDiff(null, null).isEmpty());
+        assertTrue(PA.deepDiff(expected, actual).isEmpty());
+
+        Map<String, Object> expectedMap = new HashMap<String, Object>();
+        expectedMap.put("a", Arrays.asList(new Child("Alpha"), new Child("Beta")));
+        Map<String, Object> actualMap = new HashMap<String, Object>();
+        actualMap.put("a", Arrays.asList(new Child("Alpha"), new Child("Gamma")));
+        PA.setValue(expected, "privateObjects", new Object[]{expectedMap, "same"});
+        PA.setValue(actual, "privateObjects", new Object[]{actualMap, new StringBuilder("same")});
+        PA.setValue(expected, "privateInts", new int[]{1, 2, 3});
+        PA.setValue(actual, "privateInts", new int[]{1, 5});
+        PA.setValue(actual, "privateInt", 9);
+
+        List<Difference> differences = PA.deepDiff(expected, actual);
+        assertEquals(differences.toString(), 5, differences.size());
+        assertEquals("privateInt", differences.get(0).getPath());
+        assertEquals(8, differences.get(0).getExpected());
+        assertEquals(9, differences.get(0).getActual());
+        assertEquals("privateInts.length", differences.get(1).getPath());
+        assertEquals("privateInts[1]", differences.get(2).getPath());
+        assertEquals("privateInts[1]: expected <2> but was <5>", differences.get(2).toString());
+        assertEquals("privateObjects[0][a][1].privateName", differences.get(3).getPath());
+        assertEquals("privateObjects[1]", differences.get(4).getPath());
+        assertEquals(String.class, differences.get(4).getExpected().getClass());
+
+        assertEquals(2, PA.deepDiff(expected, actual, 2).size());
+        assertEquals("", PA.deepDiff(expected, "Charlie").get(0).getPath());
+
+        try {
+            PA.deepDiff(expected, actual, 0);
+            fail("should throw IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Tests the method <code>deepDiff</code> with sets and map keys whose elements don't implement equals() and with a subclass of a
+     * JDK collection.
+     *
+     * @see junit.extensions.PA#deepDiff(Object, Object, int)
+     */
+    @Test
+    public void testDeepDiffOfCollections() {
+        Set<Node> expectedSet = new HashSet<Node>(Arrays.asList(new Node("Alpha"), new Node("Beta")));
+        Set<Node> actualSet = new HashSet<Node>(Arrays.asList(new Node("Beta"), new Node("Alpha")));
+        assertTrue(PA.deepDiff(expectedSet, actualSet).isEmpty());
+
+        actualSet = new HashSet<Node>(Arrays.asList(new Node("Alpha"), new Node("Gamma")));
+        List<Difference> differences = PA.deepDiff(expectedSet, actualSet);
+        assertEquals(differences.toString(), 2, differences.size());
+        assertEquals("Beta", ((Node) differences.get(0).getExpected()).name);
+        assertNull(differences.get(0).getActual());
+        assertNull(differences.get(1).getExpected());
+        assertEquals("Gamma", ((Node) differences.get(1).getActual()).name);
+
+        Map<Node, String> expectedMap = Collections.singletonMap(new Node("Alpha"), "first");
+        assertTrue(PA.deepDiff(expectedMap, Collections.singletonMap(new Node("Alpha"), "first")).isEmpty());
+        differences = PA.deepDiff(expectedMap, Collections.singletonMap(new Node("Alpha"), "second"));
+        assertEquals(differences.toString(), 1, differences.size());
+        assertEquals("first", differences.get(0).getExpected());
+        assertEquals("second", differences.get(0).getActual());
+
+        NamedList expectedList = new NamedList("list");
+        expectedList.add(new Node("Alpha"));
+        NamedList actualList = new NamedList("list");
+        actualList.add(new Node("Alpha"));
+        assertTrue(PA.deepDiff(expectedList, actualList).isEmpty());
+
+        actualList.add(new Node("Beta"));
+        PA.setValue(actualList, "name", "other");
+        PA.setValue(actualList.get(0), "name", "Gamma");
+        differences = PA.deepDiff(expectedList, actualList);
+        assertEquals(differences.toString(), 3, differences.size());
+        assertEquals("size()", differences.get(0).getPath());
+        assertEquals("name", differences.get(1).getPath());
+        assertEquals("[0].name", differences.get(2).getPath());
+    }
+
+    /**
+     * Tests the method <code>deepSizeOf</code>.
+     *
+     * @see junit.extensions.PA#deepSizeOf(Object)
+     */
+    @Test
+    public void testDeepSizeOf() {
+        Footprint empty = PA.deepSizeOf(null);
+        assertEquals(0, empty.getRetainedSize());
+        assertEquals(0, empty.getObjectCount());
+
+        Footprint ints = PA.deepSizeOf(new int[100]);
+        assertEquals(1, ints.getObjectCount());
+        assertEquals(ints.getShallowSize(), ints.getRetainedSize());
+        assertTrue(ints.getShallowSize() >= 400);
+        assertTrue(ints.getShallowSize() < 400 + 32);
+        assertEquals(0, ints.getShallowSize() % 8);
+
+        Object[] shared = new Object[]{new Object()};
+        Object[] root = new Object[]{shared, shared, new Object[]{shared}, new int[10]};
+        Footprint footprint = PA.deepSizeOf(root);
+        assertEquals(5, footprint.getObjectCount());
+        assertEquals(3, footprint.getObjectCount(Object[].class));
+        assertEquals(1, footprint.getObjectCount(Object.class));
+        assertEquals(0, footprint.getObjectCount(String.class));
+        assertEquals(PA.deepSizeOf(new Object[4]).getShallowSize(), footprint.getShallowSize());
+        assertEquals(footprint.getSize(Object[].class) + footprint.getSize(Object.class) + footprint.getSize(int[].class),
+                footprint.getRetainedSize());
+        assertEquals(Object[].class, footprint.getClasses().get(0));
+
+        Footprint child = PA.deepSizeOf(this.child);
+        assertTrue(child.getShallowSize() > 8 * 4);
+        assertTrue(child.getRetainedSize() > child.getShallowSize());
+        assertTrue(child.getObjectCount(String.class) > 0);
+        assertTrue(child.toString().contains("junit.extensions.Child"));
+    }
+
+    /**
+     * Tests that the retained size measured by <code>deepSizeOf</code> grows with the entries of a map, even if the fields of the map
+     * can't be made accessible (as on Java 16 and later).
+     *
+     * @see junit.extensions.PA#deepSizeOf(Object)
+     */
+    @Test
+    public void testDeepSizeOfMap() {
+        Map<String, Parent> cache = Collections.synchronizedMap(new HashMap<String, Parent>());
+        for (int i = 0; i < 10; i++) {
+            cache.put("Key" + i, new Parent("Cached" + i));
+        }
+        Footprint small = PA.deepSizeOf(cache);
+        assertEquals(10, small.getObjectCount(Parent.class));
+
+        for (int i = 10; i < 1000; i++) {
+            cache.put("Key" + i, new Parent("Cached" + i));
+        }
+        Footprint large = PA.deepSizeOf(cache);
+        assertEquals(1000, large.getObjectCount(Parent.class));
+        assertTrue(large.getObjectCount(String.class) >= 2000);
+        long parentSize = PA.deepSizeOf(new Parent("Cached")).getShallowSize();
+        assertTrue(large.toString(), large.getRetainedSize() > small.getRetainedSize() + 990 * parentSize);
+    }
+
+    /**
+     * Tests the method <code>layout</code>.
+     *
+     * @see junit.extensions.PA#layout(Class)
+     */
+    @Test
+    public void testLayout() {
+        ClassLayout layout = PA.layout(Child.class);
+        assertEquals(Child.class, layout.getType());
+        assertEquals(PA.deepSizeOf(this.child).getShallowSize(), layout.getInstanceSize());
+
+        int instanceFields = 0;
+        for (Field field : PA.getFields(Child.class)) {
+            if (!Modifier.isStatic(field.getModifiers())) instanceFields++;
+        }
+        assertEquals(instanceFields, layout.getFields().size());
+
+        long end = layout.getHeaderSize();
+        long usedBytes = layout.getHeaderSize();
+        for (FieldLayout field : layout.getFields()) {
+            assertTrue(field.toString(), field.getOffset() >= end);
+            assertEquals(field.getOffset() - end, field.getGap());
+            end = field.getOffset() + field.getSize();
+            usedBytes += field.getSize();
+        }
+        assertTrue(layout.getInstanceSize() >= end);
+        assertEquals(layout.getInstanceSize() - usedBytes, layout.getPadding());
+        assertTrue(layout.toString().contains("junit.extensions.Parent.privateName"));
+
+        assertEquals(0, PA.layout(Object.class).getFields().size());
+
+        try {
+            PA.layout(int[].class);
+            fail("should throw IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Tests the method <code>findPaths</code>.
+     *
+     * @throws Exception if something went wrong
+     * @see junit.extensions.PA#findPaths(Object, ObjectFilter, int)
+     */
+    @Test
+    public void testFindPaths() throws Exception {
+        final Child target = new Child("Target");
+        ObjectFilter isTarget = new ObjectFilter() {
+            public boolean accept(final Object object) {
+                return object == target;
+            }
+        };
+        assertTrue(PA.findPaths(null, isTarget, 1).isEmpty());
+        assertTrue(PA.findPaths(this.child, isTarget, 1).isEmpty());
+        assertEquals(Arrays.asList(""), PA.findPaths(target, isTarget, 1));
+
+        Child other = new Child("Other");
+        PA.setValue(other, "privateObject", target);
+        PA.setValue(this.child, "privateObjects", new Object[]{"a", new Object[]{target}, other});
+        PA.setValue(this.child, "privateObject", other);
+        assertEquals(Arrays.asList("privateObject.privateObject"), PA.findPaths(this.child, isTarget, 5));
+
+        ObjectFilter isChild = new ObjectFilter() {
+            public boolean accept(final Object object) {
+                return object instanceof Child;
+            }
+        };
+        assertEquals(Arrays.asList("", "privateObject", "privateObject.privateObject"), PA.findPaths(this.child, isChild, 5));
+        assertEquals(Arrays.asList("", "privateObject"), PA.findPaths(this.child, isChild, 2));
+
+        Object[] listeners = new Object[5000];
+        for (int i = 0; i < listeners.length; i++) {
+            listeners[i] = new Object[]{new Child("Listener" + i)};
+        }
+        listeners[1234] = new Object[]{new Child("Listener"), target};
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            assertEquals(Arrays.asList("[1234][1]"), PA.findPaths(listeners, isTarget, 5, executor, 4));
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(listeners.length + 1, PA.findPaths(listeners, isChild, 10000, executor, 4).size());
+
+        try {
+            PA.findPaths(this.child, isTarget, 0);
+            fail("should throw IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Tests that the method <code>findPaths</code> follows the elements of collections and the entries of maps, even if their fields
+     * can't be made accessible (as on Java 16 and later).
+     *
+     * @see junit.extensions.PA#findPaths(Object, ObjectFilter, int)
+     */
+    @Test
+    public void testFindPathsThroughCollections() {
+        final Child target = new Child("Target");
+        ObjectFilter isTarget = new ObjectFilter() {
+            public boolean accept(final Object object) {
+                return object == target;
+            }
+        };
+
+        List<Object> list = new ArrayList<Object>(Arrays.asList("a", new Child("Other"), target));
+        PA.setValue(this.child, "privateCollection", list);
+        assertEquals(Arrays.asList("privateCollection[2]"), PA.findPaths(this.child, isTarget, 5));
+
+        Map<String, Object> map = new HashMap<String, Object>();
+        map.put("Charlie", new Object[]{target});
+        PA.setValue(this.child, "privateCollection", null);
+        PA.setValue(this.child, "privateObject", map);
+        assertEquals(Arrays.asList("privateObject[Charlie][0]"), PA.findPaths(this.child, isTarget, 5));
+
+        Map<Object, String> keys = new HashMap<Object, String>();
+        keys.put(target, "Target");
+        assertEquals(Arrays.asList("keySet()[0]"), PA.findPaths(keys, isTarget, 5));
+    }
+
+    /**
+     * Tests the method <code>snapshot</code>.
+     *
+     * @see junit.extensions.PA#snapshot(Object, boolean)
+     */
+    @Test
+    public void testSnapshot() {
+        Child other = new Child("Other");
+        int[] ints = new int[]{1, 2, 3};
+        Object[] objects = new Object[]{other, "a"};
+        PA.setValue(this.child, "privateInts", ints);
+        PA.setValue(this.child, "privateObjects", objects);
+        PA.setValue(this.child, "privateDouble", -0.5);
+
+        Snapshot shallow = PA.snapshot(this.child);
+        Snapshot deep = PA.snapshot(this.child, true);
+        assertEquals(1, shallow.getObjectCount());
+        assertTrue(deep.getObjectCount() >= 4);
+
+        PA.setValue(this.child, "privateInt", 42);
+        PA.setValue(this.child, "privateDouble", 1.5);
+        PA.setValue(this.child, "privateName", "Changed");
+        PA.setValue(this.child, "privateInts", new int[0]);
+        PA.setValue(other, "privateInt", 43);
+        ints[0] = 44;
+        objects[1] = "b";
+
+        shallow.restore();
+        assertEquals(8, PA.getValue(this.child, "privateInt"));
+        assertEquals(-0.5, PA.getValue(this.child, "privateDouble"));
+        assertEquals("Charlie", PA.getValue(this.child, "privateName"));
+        assertSame(ints, PA.getValue(this.child, "privateInts"));
+        assertEquals(43, PA.getValue(other, "privateInt"));
+        assertEquals(44, ints[0]);
+
+        deep.restore();
+        assertEquals(8, PA.getValue(other, "privateInt"));
+        assertEquals(1, ints[0]);
+        assertEquals("a", objects[1]);
+        assertSame(objects, PA.getValue(this.child, "privateObjects"));
+
+        PA.setValue(this.child, "privateInt", 45);
+        deep.restore();
+        assertEquals(8, PA.getValue(this.child, "privateInt"));
+
+        Map<String, Child> children = new HashMap<String, Child>();
+        children.put("other", other);
+        Snapshot mapSnapshot = PA.snapshot(children, true);
+        children.put("leaked", this.child);
+        PA.setValue(other, "privateInt", 46);
+        mapSnapshot.restore();
+        assertEquals(1, children.size());
+        assertSame(other, children.get("other"));
+        assertEquals(8, PA.getValue(other, "privateInt"));
+
+        AtomicInteger counter = new AtomicInteger(1);
+        try {
+            Snapshot counterSnapshot = PA.snapshot(counter);
+            counter.set(2);
+            counterSnapshot.restore();
+            assertEquals(1, counter.get());
+        } catch (IllegalArgumentException e) {
+            // expected on Java 9 and later, since the fields of AtomicInteger can't be made accessible
+            assertTrue(e.getMessage().contains("value"));
+        }
+
+        try {
+            PA.snapshot(null);
+            fail("should throw IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Tests the method <code>captureStatics</code>.
+     *
+     * @see junit.extensions.PA#captureStatics(boolean, Class[])
+     */
+    @Test
+    public void testCaptureStatics() {
+        PA.setValue(Parent.class, "privateStaticInt", 1);
+        Snapshot statics = PA.captureStatics(Child.class);
+        assertEquals(3, statics.getStaticFieldCount());
+
+        PA.setValue(Parent.class, "privateStaticInt", 99);
+        statics.restore();
+        assertEquals(1, PA.getValue(Parent.class, "privateStaticInt"));
+        assertEquals("Tester", PA.getValue(Parent.class, "privateStaticFinalString"));
+
+        List<String> cache = StaticHolder.CACHE;
+        cache.add("initial");
+        Snapshot deepStatics = PA.captureStatics(true, StaticHolder.class);
+        assertEquals(2, deepStatics.getStaticFieldCount());
+
+        cache.add("leaked");
+        PA.setValue(StaticHolder.class, "name", "changed");
+        deepStatics.restore();
+        assertSame(cache, StaticHolder.CACHE);
+        assertEquals(Arrays.asList("initial"), StaticHolder.CACHE);
+        assertEquals("initial", PA.getValue(StaticHolder.class, "name"));
+
+        try {
+            PA.captureStatics(Child.class, null);
+            fail("should throw IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Tests the method <code>walk</code> with several threads.
+     *
+     * @throws Exception if something went wrong
+     * @see junit.extensions.PA#walk(Object, ObjectVisitor, java.util.concurrent.Executor, int)
+     */
+    @Test
+    public void testWalkInParallel() throws Exception {
+        Object[] root = new Object[10000];
+        for (int i = 0; i < root.length; i++) {
+            root[i] = new Object[]{new Child("Child" + i), root[(i * 7) % root.length], root};
+        }
+
+        final AtomicInteger visits = new AtomicInteger();
+        ObjectVisitor countingVisitor = new ObjectVisitor() {
+            public boolean visit(final Object object) {
+                visits.incrementAndGet();
+                return true;
+            }
+        };
+        PA.walk(root, countingVisitor);
+        int expectedVisits = visits.getAndSet(0);
+        assertTrue(expectedVisits > 3 * root.length);
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            PA.walk(root, countingVisitor, executor, 4);
+            assertEquals(expectedVisits, visits.getAndSet(0));
+        } finally {
+            executor.shutdown();
+        }
+
+        PA.walk(root, countingVisitor, executor, 4);
+        assertEquals(expectedVisits, visits.getAndSet(0));
+
+        try {
+            PA.walk(root, countingVisitor, executor, 0);
+            fail("should throw IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Tests that the method <code>walk</code> reaches the elements of JDK collections and the keys and values of JDK maps, even if
+     * their fields can't be made accessible (as on Java 16 and later).
+     *
+     * @see junit.extensions.PA#walk(Object, ObjectVisitor)
+     * @see junit.extensions.PA#walk(Object, ObjectVisitor, java.util.concurrent.Executor, int)
+     */
+    @Test
+    public void testWalkIntoCollections() {
+        List<Parent> list = new ArrayList<Parent>();
+        Map<String, Parent> map = new HashMap<String, Parent>();
+        for (int i = 0; i < 1000; i++) {
+            list.add(new Parent("Listed" + i));
+            map.put("Key" + i, new Parent("Mapped" + i));
+        }
+        Object[] root = new Object[]{list, map, Collections.unmodifiableList(list)};
+
+        final AtomicInteger parents = new AtomicInteger();
+        final AtomicInteger keys = new AtomicInteger();
+        ObjectVisitor countingVisitor = new ObjectVisitor() {
+            public boolean visit(final Object object) {
+                if (object instanceof Parent) parents.incrementAndGet();
+                if ((object instanceof String) && ((String) object).startsWith("Key")) keys.incrementAndGet();
+                return true;
+            }
+        };
+        PA.walk(root, countingVisitor);
+        assertEquals(2000, parents.getAndSet(0));
+        assertEquals(1000, keys.getAndSet(0));
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            PA.walk(root, countingVisitor, executor, 4);
+            assertEquals(2000, parents.get());
+            assertEquals(1000, keys.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Tests that the method <code>invokeMethod</code> resolves the parameter types with the current context class loader, even if
+     * the method has been invoked with another context class loader before.
+     *
+     * @see junit.extensions.PA#invokeMethod(Object, String, Object...)
+     */
+    @Test
+    public void testInvokeMethodWithOtherContextClassLoader() {
+        HidingChild hidingChild = new HidingChild();
+        assertEquals(Boolean.TRUE, PA.invokeMethod(hidingChild, "isHiding(junit.extensions.Parent)", this.child));
+
+        Thread thread = Thread.currentThread();
+        ClassLoader contextClassLoader = thread.getContextClassLoader();
+        thread.setContextClassLoader(new ClassLoader(null) {
+        });
+        try {
+            PA.invokeMethod(hidingChild, "isHiding(junit.extensions.Parent)", this.child);
+            fail("should throw IllegalArgumentException, since junit.extensions.Parent is unknown to the context class loader");
+        } catch (IllegalArgumentException e) {
+            // expected
+        } finally {
+            thread.setContextClassLoader(contextClassLoader);
+        }
+    }
+
+    /**
+     * Tests the method <code>getMethods</code>.
+     *
+     * @see junit.extensions.PA#getMethods(Object)
+     */
+    @Test
+    public void testGetMethods() {
+        assertTrue(PA.getMethods(null).isEmpty());
+        assertSame(PA.getMethods(this.child), PA.getMethods(Child.class));
+        assertEquals(PA.getMethodSignatures(this.child), PA.getMethodSignatures(Child.class));
+
+        List<MethodInfo> methods = PA.getMethods(Child.class);
+        assertEquals(PA.getMethodSignatures(Child.class).size(), methods.size());
+
+        Set<String> signatures = new HashSet<String>();
+        for (MethodInfo method : methods) {
+            assertTrue(signatures.add(method.getSignature()));
+        }
+        assertEquals(signatures, PA.getMethodSignatures(Child.class));
+        assertTrue(signatures.contains("void setSumOfTwoInts(int, int)"));
+
+        MethodInfo toString = null;
+        for (MethodInfo method : methods) {
+            if (method.getSignature().equals("java.lang.String toString()")) toString = method;
+        }
+        assertEquals(Child.class, toString.getDeclaringClass());
+        assertEquals("toString", toString.getName());
+        assertEquals(String.class, toString.getReturnType());
+        assertEquals(0, toString.getParameterTypes().length);
+
+        assertTrue(PA.getMethods(Parent.class).contains(methods.get(methods.size() - 1)));
+
+        PA.getMethodSignatures(this.child).clear();
+        assertEquals(signatures, PA.getMethodSignatures(Child.class));
     }
 
     /**
@@ -788,6 +1886,76 @@ public class PATest {
         assertEquals(testCollection, PA.getValue(this.child, "privateCollection"));
     }
 
+    /**
+     * Tests the method <code>addDefaultImport</code>.
+     *
+     * @see junit.extensions.PA#addDefaultImport(String)
+     */
+    @Test
+    public void testAddDefaultImport() {
+        try {
+            PA.invokeMethod(this.parent, "setObject(CertificateException)", new CertificateException());
+            fail("should throw NoSuchMethodException");
+        } catch (IllegalArgumentException e) {
+            assertEquals(NoSuchMethodException.class, e.getCause().getClass());
+        }
+
+        PA.addDefaultImport("java.security.cert");
+        try {
+            PA.invokeMethod(this.parent, "setObject(CertificateException)", new CertificateException());
+            fail("should throw NoSuchMethodException");
+        } catch (IllegalArgumentException e) {
+            // the class can be resolved now, but setObject(CertificateException) does not exist
+            assertEquals(NoSuchMethodException.class, e.getCause().getClass());
+            assertNull(e.getCause().getCause());
+        }
+    }
+
+    /**
+     * Tests the method <code>invokeMethod</code> with generic types in the signature.
+     *
+     * @see junit.extensions.PA#invokeMethod(java.lang.Object, java.lang.String, java.lang.Object)
+     */
+    @Test
+    public void testInvokeMethodWithGenericTypes() {
+        Collection<String> testCollection = new ArrayList<String>();
+        PA.invokeMethod(this.child, "setPrivateCollection(java.util.Collection<java.lang.String>)", testCollection);
+        assertEquals(testCollection, PA.getValue(this.child, "privateCollection"));
+
+        PA.invokeMethod(this.child, "setPrivateCollection(Collection<Map<String, List<Integer>>>)", testCollection);
+        assertEquals(testCollection, PA.getValue(this.child, "privateCollection"));
+    }
+
+    /**
+     * Tests the method <code>invokeMethod</code> with JVM method descriptors.
+     *
+     * @see junit.extensions.PA#invokeMethod(java.lang.Object, java.lang.String, java.lang.Object)
+     */
+    @Test
+    public void testInvokeMethodWithDescriptor() {
+        PA.invokeMethod(this.child, "setInt(I)V", 3);
+        assertEquals(3, PA.invokeMethod(this.child, "getInt()I"));
+
+        PA.invokeMethod(this.parent, "setName(Ljava/lang/String;)", "Herbert");
+        assertEquals("Herbert", PA.getValue(this.parent, "privateName"));
+
+        int[] ints = new int[]{1, 2};
+        PA.invokeMethod(this.child, "setPrivateInts([I)V", ints);
+        assertEquals(ints, PA.getValue(this.child, "privateInts"));
+
+        PA.invokeMethod(this.child, "setSumOfTwoInts(II)", 2, 5);
+        assertEquals(7, PA.getValue(this.child, "privateInt"));
+        PA.invokeMethod(this.child, "setPrivateLong(J)", 9L);
+        assertEquals(9L, PA.getValue(this.child, "privateLong"));
+
+        try {
+            PA.invokeMethod(this.child, "setInt(Q)V", 3);
+            fail("should throw NoSuchMethodException");
+        } catch (IllegalArgumentException e) {
+            assertEquals(NoSuchMethodException.class, e.getCause().getClass());
+        }
+    }
+
     /**
      * Tests the method <code>invokeMethod</code> with a varargs. See https://code.google.com/p/privilegedaccessor/issues/detail?id=16
      *
@@ -1358,6 +2526,102 @@ public class PATest {
         assertEquals(7, PA.invokeMethod(tic, "getPrivateInnerInt()"));
     }
 
+    /**
+     * Tests the method <code>constructor</code>.
+     *
+     * @throws Exception if something went wrong
+     * @see junit.extensions.PA#constructor(Class, Class...)
+     */
+    @Test
+    public void testConstructor() throws Exception {
+        ConstructorRef<Parent> newParent = PA.constructor(Parent.class);
+        assertEquals(this.parent, newParent.newInstance());
+        assertEquals(this.parent, PA.constructor(Parent.class, String.class).newInstance("Charlie"));
+
+        ConstructorRef<Child> newChild = PA.constructor(Child.class, String.class, Integer.class);
+        assertEquals(this.child, newChild.newInstance("Charlie", 8));
+        assertEquals(this.child, newChild.newInstance("Charlie", 8));
+        assertEquals(Child.class, newChild.getType());
+
+        Child child = PA.constructor(Child.class, Integer.TYPE, Float.TYPE).newInstance(3, 5f);
+        assertEquals(3, PA.getValue(child, "privateInt"));
+        assertEquals(5f, PA.getValue(child, "privateFloat"));
+
+        assertEquals(this.child, PA.constructor(Child.class, String[].class).newInstance(new String[]{"Charlie", "Browne"}));
+        int[] ints = new int[]{1, 2};
+        assertEquals(ints, PA.getValue(PA.constructor(Child.class, int[].class).newInstance(ints), "privateInts"));
+
+        Class<?> innerChildClass = Class.forName("junit.extensions.Child$InnerChild");
+        assertEquals(innerChildClass, PA.constructor(innerChildClass).newInstance(this.child).getClass());
+        assertEquals(innerChildClass, PA.constructor(innerChildClass, Child.class).newInstance(this.child).getClass());
+
+        try {
+            PA.constructor(Parent.class, Integer.class);
+            fail("should throw IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals(NoSuchMethodException.class, e.getCause().getClass());
+        }
+
+        try {
+            newChild.newInstance("Charlie", "Brown");
+            fail("should throw IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals(IllegalArgumentException.class, e.getCause().getClass());
+        }
+    }
+
+    /**
+     * Tests the method <code>method</code>.
+     *
+     * @see junit.extensions.PA#method(Class, String)
+     */
+    @Test
+    public void testMethod() {
+        MethodRef<Parent> getName = PA.method(Parent.class, "getName()");
+        assertEquals("getName", getName.getName());
+        assertEquals(String.class, getName.getReturnType());
+        assertEquals("Charlie", getName.invoke(this.parent));
+        assertEquals("Charlie", getName.invoke(this.child));
+
+        MethodRef<Child> setSumOfTwoInts = PA.method(Child.class, "setSumOfTwoInts(int, int)");
+        setSumOfTwoInts.invoke(this.child, 2, 3);
+        assertEquals(5, PA.getValue(this.child, "privateInt"));
+
+        MethodRef<Parent> setNames = PA.method(Parent.class, "setNamesWithVarargs(String...)");
+        setNames.invoke(this.parent, "Charly", "Browne");
+        assertEquals("Charly", PA.getValue(this.parent, "privateName"));
+        assertEquals("Browne", PA.getValue(this.parent, "privateObject"));
+
+        MethodRef<Child> setPrivateInts = PA.method(Child.class, "setPrivateInts(int[])");
+        int[] ints = new int[]{1, 2};
+        setPrivateInts.invoke(this.child, ints);
+        assertEquals(ints, PA.getValue(this.child, "privateInts"));
+
+        MethodRef<Child> setStrings = PA.method(Child.class, "setPrivateStringsAndInt(java.lang.String[], int)");
+        String[] strings = new String[]{"Charlie", "Browne"};
+        setStrings.invoke(this.child, strings, 3);
+        assertEquals(3, PA.getValue(this.child, "privateInt"));
+        assertSame(strings, PA.getValue(this.child, "privateStrings"));
+
+        MethodRef<Parent> getPrivateStaticInt = PA.method(Parent.class, "getPrivateStaticInt()");
+        assertTrue(getPrivateStaticInt.isStatic());
+        assertEquals(1, getPrivateStaticInt.invoke(null));
+
+        try {
+            PA.method(Parent.class, "noSuchMethod()");
+            fail("should throw IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals(NoSuchMethodException.class, e.getCause().getClass());
+        }
+
+        try {
+            PA.method(Parent.class, "methodThrowingException()").invoke(this.parent);
+            fail("should throw IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals(CertificateException.class, e.getCause().getClass());
+        }
+    }
+
     @Test(expected = NullPointerException.class)
     public void testMethodThrowingRuntimeException() {
         PA.invokeMethod(parent, "methodThrowingRuntimeException()");
@@ -1374,4 +2638,67 @@ public class PATest {
             fail("wront exception thrown");
         }
     }
+
+    /**
+     * Test class with static state.
+     */
+    private static final class StaticHolder {
+        private static final List<String> CACHE = new ArrayList<String>();
+        @SuppressWarnings("unused")
+        private static String name = "initial";
+    }
+
+    /**
+     * Test class extending a JDK class.
+     */
+    private static final class JdkSubclass extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        @SuppressWarnings("unused")
+        private final String detail;
+
+        private JdkSubclass(final String detail) {
+            this.detail = detail;
+        }
+    }
+
+    /**
+     * Test class that doesn't implement equals().
+     */
+    private static final class Node {
+        private final String name;
+
+        private Node(final String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Test class extending a JDK collection by a field of its own.
+     */
+    private static final class NamedList extends ArrayList<Node> {
+        private static final long serialVersionUID = 1L;
+        @SuppressWarnings("unused")
+        private final String name;
+
+        private NamedList(final String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Test class hiding a field of its super class.
+     */
+    private static final class HidingChild extends Parent {
+        @SuppressWarnings("unused")
+        private String privateName = "Hidden";
+
+        private HidingChild() {
+            super("Charlie");
+        }
+
+        @SuppressWarnings("unused")
+        private boolean isHiding(final Parent parent) {
+            return parent != this;
+        }
+    }
 }
@@ -133,8 +133,8 @@ public class Parent {
 
     @Override
     public String toString() {
-        return this.getClass().getName() + " {privateStaticInt=" +Parent.getPrivateStaticInt() + ", privateObject=" + getObject() + ", privateStaticFinalInt=" + Parent.getPrivateStaticFinalInt() + ", privateName=" + getName() + ", privateStaticFinalString=" + Parent.getPrivateStaticFinalString() + ", privateFinalString=" + getPrivateFinalString() +
-                ", privateFinalInt=" + getPrivateFinalInt() + "}";
+        return this.getClass().getName() + " {privateStaticFinalInt=" + Parent.getPrivateStaticFinalInt() + ", privateStaticFinalString=" + Parent.getPrivateStaticFinalString() + ", privateStaticInt=" + Parent.getPrivateStaticInt() +
+                ", privateFinalInt=" + getPrivateFinalInt() + ", privateFinalString=" + getPrivateFinalString() + ", privateName=" + getName() + ", privateObject=" + getObject() + "}";
 
     }
 }